@@ -0,0 +1,184 @@
+package com.raadkhatatbeh.doc_control_system.config;
+
+import com.raadkhatatbeh.doc_control_system.repo.routing.ReadWriteRoutingDataSource;
+import com.raadkhatatbeh.doc_control_system.repo.routing.ShardRoutingDataSource;
+import com.raadkhatatbeh.doc_control_system.service.shard.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Connection pools of the application.
+ * The primary pool is configured with {@code spring.datasource.*} as usual. With {@code doc-control.replica.enabled=true}
+ * a replica pool is configured with {@code doc-control.replica.datasource.*} Hikari properties, e.g. {@code jdbc-url}
+ * and {@code maximum-pool-size}, and connections are routed between both, see {@link ReadWriteRoutingDataSource}.
+ * With {@code doc-control.shards.count} above one, the primary pool is shard {@code 0}, the pools of the other shards
+ * are configured with {@code doc-control.shards.datasources[i].*} Hikari properties and connections are routed
+ * to the shard bound to the thread, see {@link ShardRoutingDataSource}. Replica and shards cannot be combined.
+ * Either way connections are only borrowed at the first statement of a transaction, so read-only
+ * service calls answered from memory never touch a pool.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataSourceConfig {
+
+    // where the sequences of shard 0 start, the other shards start at the same offset of their ID range
+    private static final long SEQUENCE_START = 100000L;
+
+    /**
+     * The primary pool, built like the one Spring Boot creates by default.
+     *
+     * @param properties the {@code spring.datasource.*} properties
+     * @return the primary {@link HikariDataSource}
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(final DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * The replica pool.
+     *
+     * @return the replica {@link HikariDataSource}
+     */
+    @Bean
+    @ConditionalOnProperty(name = "doc-control.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("doc-control.replica.datasource")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    /**
+     * The pools of shards {@code 1} to {@code count - 1} and the routing between all shards.
+     * With {@code doc-control.shards.init-schema=true} the schema is created on those shards and their sequences
+     * moved to their ID range before the data source is used, for local runs and tests with empty databases.
+     *
+     * @param primary     the pool of shard {@code 0}
+     * @param environment holds the {@code doc-control.shards.datasources} list
+     * @param count       the number of shards
+     * @param initSchema  whether to create the schema on shards {@code 1} to {@code count - 1}
+     * @param scripts     the schema scripts of {@code spring.sql.init.schema-locations}
+     * @return the {@link ShardRoutingDataSource}
+     */
+    @Bean
+    @ConditionalOnExpression("${doc-control.shards.count:1} > 1")
+    public ShardRoutingDataSource shardRoutingDataSource(@Qualifier("primaryDataSource") final DataSource primary,
+                                                         final Environment environment,
+                                                         @Value("${doc-control.shards.count}") final int count,
+                                                         @Value("${doc-control.shards.init-schema:false}") final boolean initSchema,
+                                                         @Value("${spring.sql.init.schema-locations}") final Resource[] scripts) {
+
+        List<HikariDataSource> shards = Binder.get(environment)
+                .bind("doc-control.shards.datasources", Bindable.listOf(HikariDataSource.class))
+                .orElse(List.of());
+        if (shards.size() != count - 1) {
+            shards.forEach(HikariDataSource::close);
+            throw new IllegalStateException("doc-control.shards.datasources must list the " + (count - 1)
+                    + " shards following spring.datasource");
+        }
+
+        if (initSchema) {
+            for (int shard = 1; shard < count; shard++) {
+                initShard(shards.get(shard - 1), shard, scripts);
+            }
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(primary, shards);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    /**
+     * Creates the schema on an empty shard and restarts its sequences in the shard's ID range.
+     *
+     * @param dataSource the pool of the shard
+     * @param shard      the shard number
+     * @param scripts    the schema scripts
+     */
+    private static void initShard(final DataSource dataSource, final int shard, final Resource[] scripts) {
+
+        new ResourceDatabasePopulator(scripts).execute(dataSource);
+
+        long start = ShardRouter.firstId(shard) + SEQUENCE_START;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("ALTER SEQUENCE DOCUMENT_SEQ RESTART WITH " + start);
+        jdbcTemplate.execute("ALTER SEQUENCE DOCUMENT_PERMISSION_SEQ RESTART WITH " + start);
+    }
+
+    /**
+     * The data source used by JPA, JDBC and SQL initialization.
+     *
+     * @param primary the primary pool
+     * @param replica the replica pool, if configured
+     * @param shards  the routing between shards, if configured
+     * @return the {@link DataSource}
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") final DataSource primary,
+                                 @Qualifier("replicaDataSource") final ObjectProvider<DataSource> replica,
+                                 final ObjectProvider<ShardRoutingDataSource> shards) {
+
+        DataSource replicaPool = replica.getIfAvailable();
+        ShardRoutingDataSource shardRouting = shards.getIfAvailable();
+        if (shardRouting != null) {
+            if (replicaPool != null) {
+                throw new IllegalStateException("doc-control.replica and doc-control.shards cannot be combined");
+            }
+            return new LazyConnectionDataSourceProxy(shardRouting);
+        }
+
+        if (replicaPool == null) {
+            return new LazyConnectionDataSourceProxy(primary);
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicaPool);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Creates the schema and sample data on the replica too, for local runs and tests where the replica is
+     * a separate empty database instead of a copy of the primary. Enabled with {@code doc-control.replica.init-schema=true}.
+     *
+     * @param replica the replica pool
+     * @param scripts the schema scripts of {@code spring.sql.init.schema-locations}
+     * @param data    the data scripts of {@code spring.sql.init.data-locations}
+     * @return the {@link DataSourceInitializer} running the scripts at startup
+     */
+    @Bean
+    @ConditionalOnProperty(name = {"doc-control.replica.enabled", "doc-control.replica.init-schema"}, havingValue = "true")
+    public DataSourceInitializer replicaSchemaInitializer(@Qualifier("replicaDataSource") final DataSource replica,
+                                                          @Value("${spring.sql.init.schema-locations}") final Resource[] scripts,
+                                                          @Value("${spring.sql.init.data-locations}") final Resource[] data) {
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(scripts);
+        populator.addScripts(data);
+
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(replica);
+        initializer.setDatabasePopulator(populator);
+        return initializer;
+    }
+}
@@ -1,20 +1,53 @@
 package com.raadkhatatbeh.doc_control_system.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.raadkhatatbeh.doc_control_system.controller.content.ContentResponseWriter;
 import com.raadkhatatbeh.doc_control_system.controller.path.ApiPaths;
+import com.raadkhatatbeh.doc_control_system.controller.validation.ExportDocumentsValidation;
+import com.raadkhatatbeh.doc_control_system.controller.validation.ValidationConstraints;
 import com.raadkhatatbeh.doc_control_system.dto.BatchAccessCheckRequest;
 import com.raadkhatatbeh.doc_control_system.dto.BatchAccessCheckResponse;
+import com.raadkhatatbeh.doc_control_system.dto.BulkCreateDocumentsResponse;
+import com.raadkhatatbeh.doc_control_system.dto.BulkGrantPermissionRequest;
+import com.raadkhatatbeh.doc_control_system.dto.BulkGrantPermissionResponse;
+import com.raadkhatatbeh.doc_control_system.dto.ContentUploadResponse;
+import com.raadkhatatbeh.doc_control_system.exception.ErrorMessages;
+import com.raadkhatatbeh.doc_control_system.exception.ResourceNotFoundException;
+import com.raadkhatatbeh.doc_control_system.exception.model.ApiErrorResponse;
+import com.raadkhatatbeh.doc_control_system.model.DocumentChangePage;
 import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentPage;
 import com.raadkhatatbeh.doc_control_system.model.DocumentPermissionModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentSort;
 import com.raadkhatatbeh.doc_control_system.repo.DocumentRepo;
 import com.raadkhatatbeh.doc_control_system.service.DocumentService;
+import com.raadkhatatbeh.doc_control_system.service.content.ContentFile;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Document Controller.
@@ -26,15 +59,23 @@ import java.util.List;
 @RequestMapping(ApiPaths.Document.DOCUMENTS)
 public class DocumentController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+
+    private static final byte NEW_LINE = '\n';
+
     private final DocumentService documentService;
+    private final ObjectWriter objectWriter;
 
     /**
      * Constructs a new {@code DocumentService} with the provided {@link DocumentRepo}.
      *
      * @param documentService the service used to manage document logic
+     * @param objectMapper    the mapper used to write streamed documents
      */
-    public DocumentController(final DocumentService documentService) {
+    public DocumentController(final DocumentService documentService, final ObjectMapper objectMapper) {
         this.documentService = documentService;
+        this.objectWriter = objectMapper.writer();
     }
 
     /**
@@ -63,24 +104,136 @@ public class DocumentController {
     }
 
     /**
-     * Retrieves a list of documents accessible by the specified user.
+     * Creates many documents in a single request.
+     * This endpoint is restricted to the admin user only.
+     * Either every document is created or none is; invalid documents are all reported in the error response.
      *
+     * @param models   the document models containing name, content, fileType, and accessibleUsers
      * @param username the username of the requester, passed via the X-User header
-     * @return the list of accessible documents wrapped in a {@link ResponseEntity}
+     *
+     * @return the IDs of the created documents, in request order, wrapped in a ResponseEntity
+     */
+    @Operation(
+      summary = "Create documents in bulk (Admin only)",
+      description = "Creates up to " + ValidationConstraints.BULK_SIZE_MAX + " documents in one transaction using" +
+              " batched inserts. If any document is invalid nothing is created and the response lists the error" +
+              " of every invalid item by its index.",
+      responses = {
+       @ApiResponse(responseCode = "200", description = "Documents created successfully",
+        content = @Content(schema = @Schema(implementation = BulkCreateDocumentsResponse.class))),
+       @ApiResponse(responseCode = "400", description = "Invalid documents, with one error per invalid item",
+        content = @Content(schema = @Schema(implementation = ApiErrorResponse.class))),
+       @ApiResponse(responseCode = "403", description = "Access denied - Only admin allowed", content = @Content)
+      })
+    @PostMapping(ApiPaths.Document.BULK)
+    public ResponseEntity<BulkCreateDocumentsResponse> createDocuments(@RequestBody final List<DocumentModel> models,
+                                                                       @RequestHeader("X-User") final String username) {
+        return ResponseEntity.ok(new BulkCreateDocumentsResponse(documentService.createDocuments(models, username)));
+    }
+
+    /**
+     * Retrieves one page of the documents accessible by the specified user.
+     * When more documents follow, the continuation token is returned in the X-Next-Cursor header.
+     *
+     * @param username the username of the requester, passed via the X-User header
+     * @param cursor   the continuation token of the previous page, absent for the first page
+     * @param limit    the maximum number of documents to return
+     * @param sort     the listing order, by ID or by update time
+     * @return the page of accessible documents wrapped in a {@link ResponseEntity}
      */
     @Operation(
      summary = "get documents for a user",
-     description = "Returns a list of documents accessible to the given user. Admins receive all documents," +
-             " while regular users receive only documents they can READ.",
+     description = "Returns one page of the documents accessible to the given user. Admins receive all documents," +
+             " while regular users receive only documents they can READ. Pass the X-Next-Cursor response header" +
+             " back as the cursor parameter to read the next page.",
      responses = {
-      @ApiResponse(responseCode = "200", description = "List of accessible documents",
+      @ApiResponse(responseCode = "200", description = "Page of accessible documents",
+       headers = @Header(name = NEXT_CURSOR_HEADER, description = "Continuation token, absent on the last page"),
        content = @Content(array = @ArraySchema(schema = @Schema(implementation = DocumentModel.class)))),
-      @ApiResponse(responseCode = "400", description = "Missing or invalid user", content = @Content),
+      @ApiResponse(responseCode = "400", description = "Missing or invalid user, limit or cursor", content = @Content),
       @ApiResponse(responseCode = "403", description = "Access denied", content = @Content)
      })
     @GetMapping({"/", ""})
-    public ResponseEntity<List<DocumentModel>> getDocuments(@RequestHeader("X-User") final String username) {
-        return ResponseEntity.ok(documentService.getDocuments(username));
+    public ResponseEntity<List<DocumentModel>> getDocuments(@RequestHeader("X-User") final String username,
+                                                            @RequestParam(required = false) final String cursor,
+                                                            @RequestParam(defaultValue = "" + ValidationConstraints.PAGE_SIZE_DEFAULT) final int limit,
+                                                            @RequestParam(defaultValue = "ID") final DocumentSort sort) {
+
+        DocumentPage page = documentService.getDocuments(username, cursor, limit, sort);
+
+        // If-None-Match is compared by Spring, answering 304 without a body
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag("W/\"" + page.getFingerprint() + "\"");
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getDocuments());
+    }
+
+    /**
+     * Retrieves the changes to the documents accessible by the specified user since the given cursor.
+     *
+     * @param username the username of the requester, passed via the X-User header
+     * @param cursor   the cursor returned by the previous call, absent to read the feed from the start
+     * @param limit    the maximum number of changes to return
+     * @return the page of changes and the cursor to poll with next, wrapped in a {@link ResponseEntity}
+     */
+    @Operation(
+     summary = "Get document and permission changes since a cursor",
+     description = "Returns the documents created, granted permissions or deleted since the cursor, in change order." +
+             " Each document appears once with its current state and permissions, deleted documents only carry" +
+             " their ID. Admins see every change, regular users only changes to documents they can READ." +
+             " Store the returned cursor and poll with it; hasMore tells whether to poll again right away.",
+     responses = {
+      @ApiResponse(responseCode = "200", description = "Page of changes",
+       content = @Content(schema = @Schema(implementation = DocumentChangePage.class))),
+      @ApiResponse(responseCode = "400", description = "Missing or invalid user, limit or cursor", content = @Content)
+     })
+    @GetMapping(ApiPaths.Document.CHANGES)
+    public ResponseEntity<DocumentChangePage> getChanges(@RequestHeader("X-User") final String username,
+                                                         @RequestParam(required = false) final String cursor,
+                                                         @RequestParam(defaultValue = "" + ValidationConstraints.PAGE_SIZE_DEFAULT) final int limit) {
+        return ResponseEntity.ok(documentService.getChanges(username, cursor, limit));
+    }
+
+    /**
+     * Streams every document accessible by the specified user as newline-delimited JSON.
+     * Documents are written as they are read from the database, so nightly syncs of the full
+     * catalog do not need to hold it in memory on either side.
+     *
+     * @param username the username of the requester, passed via the X-User header
+     * @return a streaming body writing one JSON document per line
+     */
+    @Operation(
+     summary = "Export documents for a user as NDJSON",
+     description = "Streams all documents accessible to the given user, one JSON object per line, ordered by ID." +
+             " Admins receive all documents, while regular users receive only documents they can READ.",
+     responses = {
+      @ApiResponse(responseCode = "200", description = "Stream of accessible documents",
+       content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = DocumentModel.class))),
+      @ApiResponse(responseCode = "400", description = "Missing or invalid user", content = @Content)
+     })
+    @GetMapping(value = ApiPaths.Document.EXPORT, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportDocuments(@RequestHeader("X-User") final String username) {
+
+        // a failure once the body streams could no longer change the status
+        ExportDocumentsValidation.validate(username);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            documentService.exportDocuments(username, model -> {
+                try {
+                    out.write(objectWriter.writeValueAsBytes(model));
+                    out.write(NEW_LINE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
@@ -93,17 +246,298 @@ public class DocumentController {
     @Operation(
      summary = "Get a specific document by ID",
      description = "Returns a document if the requesting user is authorized to access it. Admin users can access" +
-             " any document; others must have READ permission.",
+             " any document; others must have READ permission. The response carries the document version as a" +
+             " strong ETag; send it back in If-None-Match to get 304 Not Modified while the document is unchanged.",
      responses = {
       @ApiResponse(responseCode = "200", description = "Document retrieved successfully",
+       headers = @Header(name = HttpHeaders.ETAG, description = "Strong ETag of the document version"),
        content = @Content(schema = @Schema(implementation = DocumentModel.class))),
+      @ApiResponse(responseCode = "304", description = "Document unchanged since the given ETag", content = @Content),
       @ApiResponse(responseCode = "403", description = "Access denied - User does not have permission", content = @Content),
       @ApiResponse(responseCode = "404", description = "Document not found", content = @Content)
     })
     @GetMapping(ApiPaths.Document.GET_DOCUMENT)
     public ResponseEntity<DocumentModel> getDocument(@PathVariable final Long documentId,
-                                                     @RequestHeader("X-User") final String username) {
-        return ResponseEntity.ok(documentService.getDocument(documentId, username));
+                                                     @RequestHeader("X-User") final String username,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                     final String ifNoneMatch,
+                                                     final WebRequest webRequest) {
+
+        // polling clients: answer from the version column alone
+        if (ifNoneMatch != null
+                && webRequest.checkNotModified(strongEtag(documentService.getDocumentVersion(documentId, username)))) {
+            return null;
+        }
+
+        DocumentModel model = documentService.getDocument(documentId, username);
+        return ResponseEntity.ok().eTag(strongEtag(model.getVersion())).body(model);
+    }
+
+    /**
+     * Uploads the body of a document, replacing any previous upload.
+     * The request body is streamed to the content store as is, whatever its size up to the configured limit.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester, passed via the X-User header
+     * @param request    the request whose body is the document content
+     * @return an empty {@link ResponseEntity} with HTTP 204 No Content on success
+     * @throws IOException if the request body cannot be read
+     */
+    @Operation(
+     summary = "Upload the body of a document",
+     description = "Stores the raw request body as the content of the document, replacing any previous upload." +
+             " Admin users can upload to any document; others must have WRITE permission.",
+     responses = {
+      @ApiResponse(responseCode = "204", description = "Content stored successfully"),
+      @ApiResponse(responseCode = "400", description = "Content larger than the configured limit", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Access denied - User does not have WRITE permission", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Document not found", content = @Content),
+      @ApiResponse(responseCode = "409", description = "Another upload replaced the content meanwhile", content = @Content)
+    })
+    @PutMapping(ApiPaths.Document.CONTENT)
+    public ResponseEntity<Void> uploadContent(@PathVariable final Long documentId,
+                                              @RequestHeader("X-User") final String username,
+                                              final HttpServletRequest request) throws IOException {
+        documentService.uploadContent(documentId, username, request.getInputStream());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Downloads the body of a document, or the byte ranges requested, with the media type of its {@code FileType}.
+     * Uploaded bodies are sent straight from disk by the {@link ContentResponseWriter}.
+     * Documents without an upload fall back to their short text content, always sent whole.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester, passed via the X-User header
+     * @param request    the current request
+     * @param response   the response receiving the body
+     * @throws IOException if the body cannot be sent
+     */
+    @Operation(
+     summary = "Download the body of a document",
+     description = "Streams the uploaded content of the document with a Content-Type derived from its file type." +
+             " Range requests are supported, a single range or several as multipart/byteranges; send the ETag" +
+             " in If-Range to resume only while the content is unchanged." +
+             " Documents without an upload return their text content as text/plain. Admin users can access any" +
+             " document; others must have READ permission.",
+     responses = {
+      @ApiResponse(responseCode = "200", description = "Document content",
+       headers = @Header(name = HttpHeaders.ETAG, description = "Strong ETag of the content version"),
+       content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)),
+      @ApiResponse(responseCode = "206", description = "Requested ranges of the content", content = @Content),
+      @ApiResponse(responseCode = "416", description = "Range not satisfiable", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Access denied - User does not have permission", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Document or content not found", content = @Content)
+    })
+    @GetMapping(ApiPaths.Document.CONTENT)
+    public void getContent(@PathVariable final Long documentId,
+                           @RequestHeader("X-User") final String username,
+                           final HttpServletRequest request,
+                           final HttpServletResponse response) throws IOException {
+
+        Optional<ContentFile> content = documentService.getContentFile(documentId, username);
+        if (content.isEmpty()) {
+            writeTextContent(documentService.getDocument(documentId, username), response);
+            return;
+        }
+
+        FileChannel file;
+        try {
+            file = FileChannel.open(content.get().file());
+        } catch (NoSuchFileException e) {
+            // replaced by a concurrent upload between the lookup and the open, read the new file
+            content = documentService.getContentFile(documentId, username);
+            if (content.isEmpty()) {
+                throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+            }
+            file = FileChannel.open(content.get().file());
+        }
+
+        try (FileChannel channel = file) {
+            ContentResponseWriter.write(content.get(), channel, request, response);
+        }
+    }
+
+    /**
+     * Starts a resumable upload of the body of a document.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester, passed via the X-User header
+     * @return the upload ID and offset, with the upload URL as Location, wrapped in a {@link ResponseEntity}
+     */
+    @Operation(
+     summary = "Start a resumable content upload",
+     description = "Creates an empty upload for the document. Send the body in chunks with PATCH to the returned" +
+             " Location, each with the Upload-Offset it starts at; after an interruption, GET the upload to learn" +
+             " the offset to resume from. POST to complete replaces the document content with the assembled body.",
+     responses = {
+      @ApiResponse(responseCode = "201", description = "Upload created",
+       content = @Content(schema = @Schema(implementation = ContentUploadResponse.class))),
+      @ApiResponse(responseCode = "403", description = "Access denied - User does not have WRITE permission", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Document not found", content = @Content)
+    })
+    @PostMapping(ApiPaths.Document.CONTENT_UPLOADS)
+    public ResponseEntity<ContentUploadResponse> startUpload(@PathVariable final Long documentId,
+                                                             @RequestHeader("X-User") final String username) {
+
+        String uploadId = documentService.startUpload(documentId, username);
+        URI location = UriComponentsBuilder.fromPath(ApiPaths.Document.DOCUMENTS + ApiPaths.Document.CONTENT_UPLOAD)
+                .buildAndExpand(documentId, uploadId).toUri();
+        return ResponseEntity.created(location)
+                .header(UPLOAD_OFFSET_HEADER, "0")
+                .body(new ContentUploadResponse(uploadId, 0));
+    }
+
+    /**
+     * Returns the offset a resumable upload continues from.
+     *
+     * @param documentId the ID of the document
+     * @param uploadId   the upload ID
+     * @param username   the username of the requester, passed via the X-User header
+     * @return the upload ID and offset wrapped in a {@link ResponseEntity}
+     */
+    @Operation(
+     summary = "Get the offset of a resumable content upload",
+     description = "Returns how many bytes of the upload are stored, the Upload-Offset of the next chunk.",
+     responses = {
+      @ApiResponse(responseCode = "200", description = "Upload state",
+       headers = @Header(name = UPLOAD_OFFSET_HEADER, description = "Offset of the next chunk"),
+       content = @Content(schema = @Schema(implementation = ContentUploadResponse.class))),
+      @ApiResponse(responseCode = "403", description = "Access denied - User does not have WRITE permission", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Document or upload not found", content = @Content)
+    })
+    @GetMapping(ApiPaths.Document.CONTENT_UPLOAD)
+    public ResponseEntity<ContentUploadResponse> getUpload(@PathVariable final Long documentId,
+                                                           @PathVariable final String uploadId,
+                                                           @RequestHeader("X-User") final String username) {
+        return uploadState(uploadId, documentService.getUploadOffset(documentId, username, uploadId));
+    }
+
+    /**
+     * Appends a chunk to a resumable upload. The request body is streamed to disk as is.
+     *
+     * @param documentId the ID of the document
+     * @param uploadId   the upload ID
+     * @param username   the username of the requester, passed via the X-User header
+     * @param offset     the offset the chunk starts at, passed via the Upload-Offset header
+     * @param request    the request whose body is the chunk
+     * @return the upload ID and new offset wrapped in a {@link ResponseEntity}
+     * @throws IOException if the request body cannot be read
+     */
+    @Operation(
+     summary = "Append a chunk to a resumable content upload",
+     description = "Writes the raw request body at the given Upload-Offset, which must be the current offset of" +
+             " the upload. Returns the offset of the next chunk.",
+     responses = {
+      @ApiResponse(responseCode = "200", description = "Chunk stored",
+       headers = @Header(name = UPLOAD_OFFSET_HEADER, description = "Offset of the next chunk"),
+       content = @Content(schema = @Schema(implementation = ContentUploadResponse.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid upload or content larger than the configured limit", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Access denied - User does not have WRITE permission", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Document or upload not found", content = @Content),
+      @ApiResponse(responseCode = "409", description = "Upload-Offset is not the current offset", content = @Content)
+    })
+    @PatchMapping(ApiPaths.Document.CONTENT_UPLOAD)
+    public ResponseEntity<ContentUploadResponse> appendUpload(@PathVariable final Long documentId,
+                                                              @PathVariable final String uploadId,
+                                                              @RequestHeader("X-User") final String username,
+                                                              @RequestHeader(UPLOAD_OFFSET_HEADER) final long offset,
+                                                              final HttpServletRequest request) throws IOException {
+        return uploadState(uploadId,
+                documentService.appendUpload(documentId, username, uploadId, offset, request.getInputStream()));
+    }
+
+    /**
+     * Completes a resumable upload, replacing the content of the document with the assembled body.
+     *
+     * @param documentId the ID of the document
+     * @param uploadId   the upload ID
+     * @param username   the username of the requester, passed via the X-User header
+     * @return an empty {@link ResponseEntity} with HTTP 204 No Content on success
+     */
+    @Operation(
+     summary = "Complete a resumable content upload",
+     description = "Replaces the content of the document with the chunks uploaded so far.",
+     responses = {
+      @ApiResponse(responseCode = "204", description = "Content stored successfully"),
+      @ApiResponse(responseCode = "403", description = "Access denied - User does not have WRITE permission", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Document or upload not found", content = @Content),
+      @ApiResponse(responseCode = "409", description = "A chunk is still being written" +
+              " or another upload replaced the content meanwhile", content = @Content)
+    })
+    @PostMapping(ApiPaths.Document.COMPLETE_CONTENT_UPLOAD)
+    public ResponseEntity<Void> completeUpload(@PathVariable final Long documentId,
+                                               @PathVariable final String uploadId,
+                                               @RequestHeader("X-User") final String username) {
+        documentService.completeUpload(documentId, username, uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Abandons a resumable upload.
+     *
+     * @param documentId the ID of the document
+     * @param uploadId   the upload ID
+     * @param username   the username of the requester, passed via the X-User header
+     * @return an empty {@link ResponseEntity} with HTTP 204 No Content
+     */
+    @Operation(
+     summary = "Cancel a resumable content upload",
+     description = "Deletes the chunks uploaded so far, the document content is left unchanged.",
+     responses = {
+      @ApiResponse(responseCode = "204", description = "Upload cancelled"),
+      @ApiResponse(responseCode = "403", description = "Access denied - User does not have WRITE permission", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Document not found", content = @Content)
+    })
+    @DeleteMapping(ApiPaths.Document.CONTENT_UPLOAD)
+    public ResponseEntity<Void> cancelUpload(@PathVariable final Long documentId,
+                                             @PathVariable final String uploadId,
+                                             @RequestHeader("X-User") final String username) {
+        documentService.cancelUpload(documentId, username, uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Builds the response describing a resumable upload.
+     *
+     * @param uploadId the upload ID
+     * @param offset   the offset of the next chunk
+     * @return the upload state, also in the Upload-Offset header
+     */
+    private static ResponseEntity<ContentUploadResponse> uploadState(final String uploadId, final long offset) {
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(offset))
+                .body(new ContentUploadResponse(uploadId, offset));
+    }
+
+    /**
+     * Writes the text content of a document that has no uploaded body.
+     *
+     * @param model    the document
+     * @param response the response receiving the content
+     * @throws IOException if the content cannot be sent
+     */
+    private static void writeTextContent(final DocumentModel model, final HttpServletResponse response) throws IOException {
+
+        if (model.getContent() == null) {
+            throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+        }
+
+        byte[] bytes = model.getContent().getBytes(StandardCharsets.UTF_8);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    /**
+     * Builds a strong ETag from a document version.
+     *
+     * @param version the document version
+     * @return the quoted ETag
+     */
+    private static String strongEtag(final Long version) {
+        return "\"" + version + "\"";
     }
 
     /**
@@ -158,6 +592,37 @@ public class DocumentController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Grants one or more permissions to many users on many documents at once.
+     *
+     * @param username the username of the requester, passed via the X-User header
+     * @param request  the documents, target usernames and permission types
+     * @return the number of permissions granted, wrapped in a {@link ResponseEntity}
+     */
+    @Operation(
+     summary = "Grant permissions to many users on many documents",
+     description = "Grants every listed permission to every listed user on every listed document in one transaction." +
+             " Permissions the users already hold are skipped. The requester must be admin or hold WRITE" +
+             " on every document. A missing or concurrently deleted document fails the whole request." +
+             " With several shards, a database failure while the shards commit can leave some grants in place;" +
+             " repeating the request then completes it.",
+     requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+        description = "Documents, users and permissions to grant",
+        required = true,
+        content = @Content(schema = @Schema(implementation = BulkGrantPermissionRequest.class))),
+    responses = {
+      @ApiResponse(responseCode = "200", description = "Permissions granted successfully",
+       content = @Content(schema = @Schema(implementation = BulkGrantPermissionResponse.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid input or missing fields", content = @Content),
+      @ApiResponse(responseCode = "403", description = "Access denied - WRITE permission required", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Document not found", content = @Content)
+    })
+    @PostMapping(ApiPaths.Document.BULK_GRANT_PERMISSION)
+    public ResponseEntity<BulkGrantPermissionResponse> grantPermissions(@RequestHeader("X-User") final String username,
+                                                                        @RequestBody final BulkGrantPermissionRequest request) {
+        return ResponseEntity.ok(new BulkGrantPermissionResponse(documentService.grantPermissions(username, request)));
+    }
+
     /**
      * Checks which documents from a given list are accessible to the user
      * based on the requested permission type (e.g., READ, WRITE, DELETE).
@@ -0,0 +1,385 @@
+package com.raadkhatatbeh.doc_control_system.controller.content;
+
+import com.raadkhatatbeh.doc_control_system.model.ContentEncoding;
+import com.raadkhatatbeh.doc_control_system.service.content.ContentFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StreamUtils;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes an uploaded document body to the response, honouring {@code Range} and {@code If-Range}.
+ * Multiple ranges are sent as {@code multipart/byteranges}. Stored bytes are copied with
+ * {@link FileChannel#transferTo} from the channel opened by the caller, never through a heap buffer
+ * and never by reopening the file by name, which an upload replacing the body may have deleted.
+ * A compressed body is sent as stored with {@code Content-Encoding} to clients that accept its encoding,
+ * other clients get it decompressed as it streams. Ranges always address the decompressed body, so a range
+ * request for a compressed body is served decompressed whatever the client accepts; the ranges are then
+ * sorted and coalesced and cut from a single decoding pass.
+ * The strong validator of a body is the document version, which every upload bumps,
+ * suffixed with the encoding when the stored bytes are sent.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public final class ContentResponseWriter {
+
+    private static final String BYTES = "bytes";
+    private static final String CRLF = "\r\n";
+    private static final String MULTIPART_BYTERANGES = "multipart/byteranges; boundary=";
+
+    private record Region(long start, long end) {
+
+        long count() {
+            return end - start + 1;
+        }
+
+        String contentRange(final long length) {
+            return BYTES + " " + start + "-" + end + "/" + length;
+        }
+    }
+
+    /**
+     * The bytes sent for a body: the stored file as is, or decoded.
+     *
+     * @param content the body
+     * @param file    the stored file, open for reading
+     * @param decode  whether the stored bytes are decoded on the way out
+     * @param length  the size of the representation sent
+     */
+    private record Representation(ContentFile content, FileChannel file, boolean decode, long length) {
+
+        String etag() {
+            return ContentResponseWriter.etag(content, !decode && content.encoding() != ContentEncoding.IDENTITY);
+        }
+    }
+
+    private ContentResponseWriter() {
+    }
+
+    /**
+     * Writes the body, or the requested ranges of it.
+     *
+     * @param content  the body to send
+     * @param file     the stored file, open for reading
+     * @param request  the current request
+     * @param response the response receiving the body
+     * @throws IOException if the body cannot be sent
+     */
+    public static void write(final ContentFile content, final FileChannel file,
+                             final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+
+        // without a range, or with a validator of another version, the whole body is sent
+        boolean ranged = range != null && (ifRange == null || ifRange.trim().equals(etag(content, false)));
+
+        Representation representation = select(content, file, ranged, request, response);
+        long length = representation.length();
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+        response.setHeader(HttpHeaders.ETAG, representation.etag());
+
+        if (!ranged) {
+            response.setContentType(content.mediaType());
+            writeRegion(representation, new Region(0, length - 1), response);
+            return;
+        }
+
+        List<Region> regions = regions(range, length);
+        if (regions == null) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+            return;
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (regions.size() == 1) {
+            response.setContentType(content.mediaType());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, regions.get(0).contentRange(length));
+            writeRegion(representation, regions.get(0), response);
+        } else {
+            writeMultipart(representation, regions, response);
+        }
+    }
+
+    /**
+     * Builds the strong validator of a representation of the body.
+     *
+     * @param content the body
+     * @param stored  whether the compressed bytes are sent as stored
+     * @return the quoted entity tag
+     */
+    private static String etag(final ContentFile content, final boolean stored) {
+        return stored
+                ? "\"" + content.version() + "-" + content.encoding().getToken() + "\""
+                : "\"" + content.version() + "\"";
+    }
+
+    /**
+     * Chooses between the stored bytes and the decoded body, setting the matching encoding headers.
+     * Ranges are served from the decoded body only.
+     *
+     * @param content  the body to send
+     * @param file     the stored file, open for reading
+     * @param ranged   whether ranges of the body are sent
+     * @param request  the current request
+     * @param response the response receiving the body
+     * @return the {@link Representation} to send
+     * @throws IOException if the file size cannot be read
+     */
+    private static Representation select(final ContentFile content, final FileChannel file, final boolean ranged,
+                                         final HttpServletRequest request, final HttpServletResponse response)
+            throws IOException {
+
+        if (content.encoding() == ContentEncoding.IDENTITY) {
+            return new Representation(content, file, false, content.length());
+        }
+
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!ranged && accepts(request, content.encoding())) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, content.encoding().getToken());
+            return new Representation(content, file, false, file.size());
+        }
+        return new Representation(content, file, true, content.length());
+    }
+
+    /**
+     * Tells whether the client accepts a content-coding, from its {@code Accept-Encoding} headers.
+     *
+     * @param request  the current request
+     * @param encoding the content-coding of the stored bytes
+     * @return {@code true} if the coding is listed without {@code q=0}
+     */
+    private static boolean accepts(final HttpServletRequest request, final ContentEncoding encoding) {
+
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (headers != null && headers.hasMoreElements()) {
+            for (String coding : headers.nextElement().split(",")) {
+                String[] parameters = coding.split(";");
+                if (parameters[0].trim().equalsIgnoreCase(encoding.getToken()) && !isRejected(parameters)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether the parameters of an {@code Accept-Encoding} entry carry a zero quality value.
+     *
+     * @param parameters the coding followed by its parameters
+     * @return {@code true} if {@code q} is zero
+     */
+    private static boolean isRejected(final String[] parameters) {
+
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim().toLowerCase(Locale.ROOT);
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a {@code Range} header against the representation length.
+     *
+     * @param range  the header value
+     * @param length the representation length
+     * @return the byte positions of the ranges, sorted with overlapping and adjacent ones merged,
+     * or {@code null} if the header is invalid or a range is unsatisfiable
+     */
+    private static List<Region> regions(final String range, final long length) {
+
+        List<Region> regions = new ArrayList<>();
+        try {
+            // at most 100 ranges are accepted
+            for (HttpRange httpRange : HttpRange.parseRanges(range)) {
+                long start = httpRange.getRangeStart(length);
+                long end = httpRange.getRangeEnd(length);
+                if (start >= length || end < start) {
+                    return null;
+                }
+                regions.add(new Region(start, end));
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (regions.isEmpty()) {
+            return null;
+        }
+
+        // merged ranges never send a byte twice, and a decoded body is read once front to back
+        regions.sort(Comparator.comparingLong(Region::start));
+        List<Region> merged = new ArrayList<>(regions.size());
+        Region current = regions.get(0);
+        for (Region next : regions.subList(1, regions.size())) {
+            if (next.start() <= current.end() + 1) {
+                current = new Region(current.start(), Math.max(current.end(), next.end()));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    /**
+     * Sends one contiguous region.
+     *
+     * @param representation the bytes to send from
+     * @param region         the bytes to send
+     * @param response       the response receiving the bytes
+     * @throws IOException if the bytes cannot be sent
+     */
+    private static void writeRegion(final Representation representation, final Region region,
+                                    final HttpServletResponse response) throws IOException {
+
+        response.setContentLengthLong(region.count());
+        copy(representation, region, response.getOutputStream());
+    }
+
+    /**
+     * Sends several regions as a {@code multipart/byteranges} body of known length.
+     *
+     * @param representation the bytes to send from
+     * @param regions        the bytes to send, sorted and disjoint
+     * @param response       the response receiving the parts
+     * @throws IOException if the parts cannot be sent
+     */
+    private static void writeMultipart(final Representation representation, final List<Region> regions,
+                                       final HttpServletResponse response) throws IOException {
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+
+        List<byte[]> partHeaders = new ArrayList<>(regions.size());
+        byte[] end = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        long contentLength = end.length;
+        for (Region region : regions) {
+            byte[] header = (CRLF + "--" + boundary + CRLF
+                    + HttpHeaders.CONTENT_TYPE + ": " + representation.content().mediaType() + CRLF
+                    + HttpHeaders.CONTENT_RANGE + ": " + region.contentRange(representation.length()) + CRLF
+                    + CRLF).getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + region.count();
+        }
+
+        response.setContentType(MULTIPART_BYTERANGES + boundary);
+        response.setContentLengthLong(contentLength);
+
+        OutputStream out = response.getOutputStream();
+        // one decoder serves every part, each region starting past the previous one
+        try (InputStream decoded = representation.decode() ? decoder(representation) : null) {
+            long position = 0;
+            for (int i = 0; i < regions.size(); i++) {
+                Region region = regions.get(i);
+                out.write(partHeaders.get(i));
+                if (decoded == null) {
+                    transfer(representation.file(), region, out);
+                } else {
+                    copyDecoded(decoded, position, region, out);
+                    position = region.end() + 1;
+                }
+            }
+        }
+        out.write(end);
+    }
+
+    /**
+     * Copies a region of the representation: stored bytes with {@link FileChannel#transferTo},
+     * decoded bytes by decompressing the file from its start and skipping up to the region.
+     *
+     * @param representation the bytes to copy from
+     * @param region         the bytes to copy
+     * @param out            the destination
+     * @throws IOException if the bytes cannot be copied
+     */
+    private static void copy(final Representation representation, final Region region, final OutputStream out)
+            throws IOException {
+
+        if (representation.decode()) {
+            try (InputStream decoded = decoder(representation)) {
+                copyDecoded(decoded, 0, region, out);
+            }
+            return;
+        }
+        transfer(representation.file(), region, out);
+    }
+
+    /**
+     * Opens a decoder over the stored file from its start.
+     *
+     * @param representation the decoded representation
+     * @return the decoded bytes, closing it leaves the file open
+     * @throws IOException if the decoder cannot be opened
+     */
+    private static InputStream decoder(final Representation representation) throws IOException {
+
+        FileChannel file = representation.file();
+        file.position(0);
+        return representation.content().encoding().decode(StreamUtils.nonClosing(Channels.newInputStream(file)));
+    }
+
+    /**
+     * Copies a region of the decoded bytes, skipping from the current position of the decoder.
+     *
+     * @param decoded  the decoder
+     * @param position the offset the decoder is at, not past the region start
+     * @param region   the bytes to copy
+     * @param out      the destination
+     * @throws IOException if the bytes cannot be copied
+     */
+    private static void copyDecoded(final InputStream decoded, final long position, final Region region,
+                                    final OutputStream out) throws IOException {
+
+        if (StreamUtils.copyRange(decoded, out, region.start() - position, region.end() - position)
+                < region.count()) {
+            throw new EOFException("content file shorter than its recorded length");
+        }
+    }
+
+    /**
+     * Copies a region of the stored bytes with {@link FileChannel#transferTo}.
+     *
+     * @param file   the stored file
+     * @param region the bytes to copy
+     * @param out    the destination
+     * @throws IOException if the bytes cannot be copied
+     */
+    private static void transfer(final FileChannel file, final Region region, final OutputStream out)
+            throws IOException {
+
+        WritableByteChannel target = Channels.newChannel(out);
+        long end = region.end() + 1;
+        for (long position = region.start(); position < end; ) {
+            long transferred = file.transferTo(position, end - position, target);
+            if (transferred == 0 && position >= file.size()) {
+                throw new EOFException("content file shorter than its recorded length");
+            }
+            position += transferred;
+        }
+    }
+}
@@ -19,7 +19,15 @@ public class ApiPaths {
         public static final String DOCUMENTS = "/documents";
         public static final String GET_DOCUMENT = "/{documentId}";
         public static final String GRANT_PERMISSION = GET_DOCUMENT + "/grant";
+        public static final String BULK_GRANT_PERMISSION = "/grant";
         public static final String ACCESS_CHECK = "/access-check";
+        public static final String EXPORT = "/export";
+        public static final String BULK = "/bulk";
+        public static final String CHANGES = "/changes";
+        public static final String CONTENT = GET_DOCUMENT + "/content";
+        public static final String CONTENT_UPLOADS = CONTENT + "/uploads";
+        public static final String CONTENT_UPLOAD = CONTENT_UPLOADS + "/{uploadId}";
+        public static final String COMPLETE_CONTENT_UPLOAD = CONTENT_UPLOAD + "/complete";
 
     }
 }
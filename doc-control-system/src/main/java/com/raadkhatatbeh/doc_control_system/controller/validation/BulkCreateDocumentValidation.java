@@ -0,0 +1,67 @@
+package com.raadkhatatbeh.doc_control_system.controller.validation;
+
+import com.raadkhatatbeh.doc_control_system.exception.AccessDeniedException;
+import com.raadkhatatbeh.doc_control_system.exception.BadRequestException;
+import com.raadkhatatbeh.doc_control_system.exception.ErrorMessages;
+import com.raadkhatatbeh.doc_control_system.exception.InvalidItemsException;
+import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BulkCreateDocumentValidation .
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class BulkCreateDocumentValidation {
+
+    private static final String ADMIN = "admin";
+    private static final String DOCUMENTS = "documents";
+
+    /**
+     * Validates every {@link DocumentModel} of a bulk request with {@link CreateDocumentValidation}
+     * and reports all invalid items together instead of stopping at the first one.
+     *
+     * @param models   the document models to validate
+     * @param username the username performing the operation
+     * @throws BadRequestException    if the username is missing or the number of documents is out of range
+     * @throws InvalidItemsException  if any document is invalid, with one error per invalid item
+     * @throws AccessDeniedException if the user is not an admin
+     */
+    public static void validate(final List<DocumentModel> models, final String username) {
+
+        if (username == null || username.isBlank()) {
+            throw new BadRequestException(ErrorMessages.MISSING_FIELD);
+        }
+
+        // Only admin can perform this action
+        if (!username.equals(ADMIN)) {
+            throw new AccessDeniedException(ErrorMessages.ACCESS_DENIED_ADMIN_ONLY);
+        }
+
+        if (models == null || models.size() < ValidationConstraints.BULK_SIZE_MIN
+                || models.size() > ValidationConstraints.BULK_SIZE_MAX) {
+            throw new BadRequestException(ErrorMessages.INVALID_COUNT,
+                                          DOCUMENTS,
+                                          ValidationConstraints.BULK_SIZE_MIN,
+                                          ValidationConstraints.BULK_SIZE_MAX);
+        }
+
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < models.size(); i++) {
+            try {
+                if (models.get(i) == null) {
+                    throw new BadRequestException(ErrorMessages.MISSING_FIELD);
+                }
+                CreateDocumentValidation.validate(models.get(i), username);
+            } catch (BadRequestException e) {
+                errors.add(String.format(ErrorMessages.ITEM_ERROR, i, e.getMessage()));
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new InvalidItemsException(errors, models.size());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.raadkhatatbeh.doc_control_system.controller.validation;
+
+import com.raadkhatatbeh.doc_control_system.dto.BulkGrantPermissionRequest;
+import com.raadkhatatbeh.doc_control_system.exception.BadRequestException;
+import com.raadkhatatbeh.doc_control_system.exception.ErrorMessages;
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * BulkGrantPermissionValidation .
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class BulkGrantPermissionValidation {
+
+    private static final String DOCUMENT_IDS = "documentIds";
+    private static final String USERNAMES = "usernames";
+    private static final String PERMISSIONS = "permissions";
+
+    /**
+     * Validates the given {@link BulkGrantPermissionRequest}.
+     * Whether the user may grant on the documents is checked by the service.
+     *
+     * @param request  the bulk grant request to validate
+     * @param username the username performing the operation
+     * @throws BadRequestException if any required field is missing or has an invalid size
+     */
+    public static void validate(final BulkGrantPermissionRequest request, final String username) {
+
+        if (username == null || username.isBlank() || request == null) {
+            throw new BadRequestException(ErrorMessages.MISSING_FIELD);
+        }
+
+        validateCount(request.getDocumentIds(), DOCUMENT_IDS, ValidationConstraints.BULK_SIZE_MAX);
+        validateCount(request.getUsernames(), USERNAMES, ValidationConstraints.BULK_SIZE_MAX);
+        validateCount(request.getPermissions(), PERMISSIONS, PermissionType.values().length);
+
+        // Validate every target username
+        request.getUsernames().forEach(name -> {
+            if (name.isEmpty() || name.length() < ValidationConstraints.MIN || name.length() > ValidationConstraints.MAX) {
+                throw new BadRequestException(ErrorMessages.INVALID_SIZE,
+                                              USERNAMES,
+                                              ValidationConstraints.MIN,
+                                              ValidationConstraints.MAX);
+            }
+        });
+    }
+
+    /**
+     * Checks that the list holds between {@value ValidationConstraints#BULK_SIZE_MIN} and {@code max} non-null values.
+     *
+     * @param values the values to check
+     * @param field  the field name used in the error message
+     * @param max    the maximum number of values
+     * @throws BadRequestException if the list is missing, has an invalid size or contains null
+     */
+    private static void validateCount(final List<?> values, final String field, final int max) {
+
+        if (values == null || values.size() < ValidationConstraints.BULK_SIZE_MIN || values.size() > max) {
+            throw new BadRequestException(ErrorMessages.INVALID_COUNT, field, ValidationConstraints.BULK_SIZE_MIN, max);
+        }
+
+        if (values.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException(ErrorMessages.INVALID_VALUE, field);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.raadkhatatbeh.doc_control_system.controller.validation;
+
+import com.raadkhatatbeh.doc_control_system.exception.BadRequestException;
+import com.raadkhatatbeh.doc_control_system.exception.ErrorMessages;
+
+/**
+ * ExportDocumentsValidation .
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class ExportDocumentsValidation {
+
+    /**
+     * Validates the requester of a document export, before the response starts streaming.
+     *
+     * @param username the username performing the operation
+     * @throws BadRequestException if the username is missing
+     */
+    public static void validate(final String username) {
+
+        if (username == null || username.isBlank()) {
+            throw new BadRequestException(ErrorMessages.MISSING_FIELD);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.raadkhatatbeh.doc_control_system.controller.validation;
+
+import com.raadkhatatbeh.doc_control_system.exception.BadRequestException;
+import com.raadkhatatbeh.doc_control_system.exception.ErrorMessages;
+
+/**
+ * ListDocumentsValidation .
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class ListDocumentsValidation {
+
+    private static final String LIMIT = "limit";
+
+    /**
+     * Validates the paging parameters of a document listing.
+     *
+     * @param username the username performing the operation
+     * @param limit    the requested page size
+     * @throws BadRequestException if the username is missing or the page size is out of range
+     */
+    public static void validate(final String username, final int limit) {
+
+        if (username == null || username.isBlank()) {
+            throw new BadRequestException(ErrorMessages.MISSING_FIELD);
+        }
+
+        if (limit < ValidationConstraints.PAGE_SIZE_MIN || limit > ValidationConstraints.PAGE_SIZE_MAX) {
+            throw new BadRequestException(ErrorMessages.INVALID_VALUE, LIMIT);
+        }
+    }
+}
@@ -10,4 +10,11 @@ public class ValidationConstraints {
 
     public static final int MIN = 3;
     public static final int MAX = 255;
+
+    public static final int PAGE_SIZE_MIN = 1;
+    public static final int PAGE_SIZE_MAX = 1000;
+    public static final int PAGE_SIZE_DEFAULT = 100;
+
+    public static final int BULK_SIZE_MIN = 1;
+    public static final int BULK_SIZE_MAX = 10000;
 }
@@ -0,0 +1,26 @@
+package com.raadkhatatbeh.doc_control_system.dto;
+
+import java.util.List;
+
+/**
+ * BulkCreateDocumentsResponse dto.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class BulkCreateDocumentsResponse {
+
+    private List<Long> documentIds;
+
+    public BulkCreateDocumentsResponse(final List<Long> documentIds) {
+        this.documentIds = documentIds;
+    }
+
+    public List<Long> getDocumentIds() {
+        return documentIds;
+    }
+
+    public void setDocumentIds(final List<Long> documentIds) {
+        this.documentIds = documentIds;
+    }
+}
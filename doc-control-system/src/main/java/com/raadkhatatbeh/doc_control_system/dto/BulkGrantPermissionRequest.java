@@ -0,0 +1,41 @@
+package com.raadkhatatbeh.doc_control_system.dto;
+
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import java.util.List;
+
+/**
+ * BulkGrantPermissionRequest dto.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class BulkGrantPermissionRequest {
+
+    private List<Long> documentIds;
+    private List<String> usernames;
+    private List<PermissionType> permissions;
+
+    public List<Long> getDocumentIds() {
+        return documentIds;
+    }
+
+    public void setDocumentIds(final List<Long> documentIds) {
+        this.documentIds = documentIds;
+    }
+
+    public List<String> getUsernames() {
+        return usernames;
+    }
+
+    public void setUsernames(final List<String> usernames) {
+        this.usernames = usernames;
+    }
+
+    public List<PermissionType> getPermissions() {
+        return permissions;
+    }
+
+    public void setPermissions(final List<PermissionType> permissions) {
+        this.permissions = permissions;
+    }
+}
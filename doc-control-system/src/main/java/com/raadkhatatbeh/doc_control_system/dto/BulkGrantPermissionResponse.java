@@ -0,0 +1,24 @@
+package com.raadkhatatbeh.doc_control_system.dto;
+
+/**
+ * BulkGrantPermissionResponse dto.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class BulkGrantPermissionResponse {
+
+    private int granted;
+
+    public BulkGrantPermissionResponse(final int granted) {
+        this.granted = granted;
+    }
+
+    public int getGranted() {
+        return granted;
+    }
+
+    public void setGranted(final int granted) {
+        this.granted = granted;
+    }
+}
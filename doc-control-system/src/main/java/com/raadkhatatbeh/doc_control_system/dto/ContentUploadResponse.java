@@ -0,0 +1,34 @@
+package com.raadkhatatbeh.doc_control_system.dto;
+
+/**
+ * ContentUploadResponse dto, the state of a resumable content upload.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class ContentUploadResponse {
+
+    private String uploadId;
+    private long offset;
+
+    public ContentUploadResponse(final String uploadId, final long offset) {
+        this.uploadId = uploadId;
+        this.offset = offset;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(final String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(final long offset) {
+        this.offset = offset;
+    }
+}
@@ -0,0 +1,18 @@
+package com.raadkhatatbeh.doc_control_system.exception;
+
+/**
+ * ConflictException class, the request does not match the current state of the resource.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(final String message) {
+        super(message);
+    }
+
+    public ConflictException(final String format, final Object... args) {
+        super(String.format(format, args));
+    }
+}
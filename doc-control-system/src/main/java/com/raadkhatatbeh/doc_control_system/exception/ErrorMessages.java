@@ -12,6 +12,13 @@ public class ErrorMessages {
     public static final String MISSING_FIELD = "Required field is missing.";
     public static final String INVALID_VALUE = "Invalid value for field: %s";
     public static final String RESOURCE_NOT_FOUND = "Resource not found with id";
+    public static final String INVALID_COUNT = "%s must contain between %s and %s items.";
+    public static final String INVALID_ITEMS = "%s of %s items are invalid.";
+    public static final String ITEM_ERROR = "[%s] %s";
+    public static final String CONTENT_TOO_LARGE = "Content must not exceed %s bytes.";
+    public static final String UPLOAD_OFFSET_MISMATCH = "Upload is at offset %s, not %s.";
+    public static final String UPLOAD_IN_PROGRESS = "Another request is writing to this upload.";
+    public static final String CONTENT_REPLACED = "The content was replaced by another upload meanwhile.";
 
    //ACCESS_DENIED
     public static final String ACCESS_DENIED_ADMIN_ONLY = "Only admin can perform this action.";
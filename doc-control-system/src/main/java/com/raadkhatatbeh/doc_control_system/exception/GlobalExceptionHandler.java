@@ -27,6 +27,23 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles {@link InvalidItemsException}, listing the error of every invalid item.
+     *
+     * @param ex the exception
+     * @return 400 Bad Request response
+     */
+    @ExceptionHandler(InvalidItemsException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidItems(final InvalidItemsException ex) {
+        ApiErrorResponse error = new ApiErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                LocalDateTime.now(),
+                ex.getErrors()
+        );
+        return ResponseEntity.badRequest().body(error);
+    }
+
     /**
      * Handles {@link ResourceNotFoundException}.
      *
@@ -38,6 +55,17 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handles {@link ConflictException}.
+     *
+     * @param ex the exception
+     * @return 409 Conflict response
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handleConflict(final ConflictException ex) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
     /**
      * Handles {@link AccessDeniedException}.
      *
@@ -0,0 +1,23 @@
+package com.raadkhatatbeh.doc_control_system.exception;
+
+import java.util.List;
+
+/**
+ * InvalidItemsException class, reports every invalid item of a bulk request at once.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class InvalidItemsException extends BadRequestException {
+
+    private final List<String> errors;
+
+    public InvalidItemsException(final List<String> errors, final int total) {
+        super(ErrorMessages.INVALID_ITEMS, errors.size(), total);
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -1,6 +1,8 @@
 package com.raadkhatatbeh.doc_control_system.exception.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * BadRequestException class .
@@ -8,16 +10,24 @@ import java.time.LocalDateTime;
  * @author Raad khatatbeh
  * @since 22/7/2025
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ApiErrorResponse {
 
     private int status;
     private String message;
     private LocalDateTime timestamp;
+    private List<String> errors;
 
     public ApiErrorResponse(final int status, final String message, final LocalDateTime timestamp) {
+        this(status, message, timestamp, null);
+    }
+
+    public ApiErrorResponse(final int status, final String message, final LocalDateTime timestamp,
+                            final List<String> errors) {
         this.status = status;
         this.message = message;
         this.timestamp = timestamp;
+        this.errors = errors;
     }
 
     public int getStatus() {
@@ -31,4 +41,8 @@ public class ApiErrorResponse {
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
+
+    public List<String> getErrors() {
+        return errors;
+    }
 }
\ No newline at end of file
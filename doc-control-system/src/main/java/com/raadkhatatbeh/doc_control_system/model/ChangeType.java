@@ -0,0 +1,11 @@
+package com.raadkhatatbeh.doc_control_system.model;
+
+/**
+ * ChangeType Enum representing the kinds of entries of the change feed.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public enum ChangeType {
+    UPSERTED, DELETED
+}
@@ -0,0 +1,68 @@
+package com.raadkhatatbeh.doc_control_system.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ContentEncoding Enum representing how an uploaded document body is stored on disk.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public enum ContentEncoding {
+    IDENTITY("identity"),
+    GZIP("gzip");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String token;
+
+    ContentEncoding(final String token) {
+        this.token = token;
+    }
+
+    /**
+     * Returns the HTTP content-coding of the stored bytes, sent as {@code Content-Encoding}.
+     *
+     * @return the content-coding token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Wraps a stream so that what is written to it is stored with this encoding.
+     *
+     * @param out   the stream receiving the encoded bytes, closed with the returned stream
+     * @param level the compression level, 1 (fastest) to 9 (smallest)
+     * @return the encoding stream
+     * @throws IOException if the stream cannot be written
+     */
+    public OutputStream encode(final OutputStream out, final int level) throws IOException {
+        return switch (this) {
+            case IDENTITY -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        };
+    }
+
+    /**
+     * Wraps a stream of stored bytes so that reading it returns the original body.
+     *
+     * @param in the stream of stored bytes, closed with the returned stream
+     * @return the decoding stream
+     * @throws IOException if the stream cannot be read
+     */
+    public InputStream decode(final InputStream in) throws IOException {
+        return switch (this) {
+            case IDENTITY -> in;
+            case GZIP -> new GZIPInputStream(in, BUFFER_SIZE);
+        };
+    }
+}
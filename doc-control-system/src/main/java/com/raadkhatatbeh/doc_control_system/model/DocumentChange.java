@@ -0,0 +1,47 @@
+package com.raadkhatatbeh.doc_control_system.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * DocumentChange Model, one entry of the change feed.
+ * A document appears once, with its latest state, however many times it changed since the cursor.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class DocumentChange {
+
+    private final Long documentId;
+    private final ChangeType type;
+    private final LocalDateTime changedAt;
+    private final DocumentModel document;
+
+    public DocumentChange(final Long documentId, final ChangeType type, final LocalDateTime changedAt,
+                          final DocumentModel document) {
+        this.documentId = documentId;
+        this.type = type;
+        this.changedAt = changedAt;
+        this.document = document;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    /**
+     * Returns the current state of the document, with its permissions and without its content.
+     *
+     * @return the document, or {@code null} if it was deleted
+     */
+    public DocumentModel getDocument() {
+        return document;
+    }
+}
@@ -0,0 +1,45 @@
+package com.raadkhatatbeh.doc_control_system.model;
+
+import java.util.List;
+
+/**
+ * DocumentChangePage Model, one page of the change feed.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class DocumentChangePage {
+
+    private final List<DocumentChange> changes;
+    private final String cursor;
+    private final boolean hasMore;
+
+    public DocumentChangePage(final List<DocumentChange> changes, final String cursor, final boolean hasMore) {
+        this.changes = changes;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<DocumentChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns the position after the last change of this page.
+     * Unlike listing cursors it is always present: a consumer stores it and polls with it later.
+     *
+     * @return the token to pass back as {@code cursor}
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Tells whether more changes can be read right away.
+     *
+     * @return {@code true} if the page was full
+     */
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -19,6 +19,7 @@ public class DocumentModel {
     private String createdBy;
     private LocalDateTime createdAt;
     private LocalDateTime UpdatedAt;
+    private Long version;
     private List<DocumentPermissionModel> accessibleUsers = new ArrayList<>();
 
     public Long getId() {
@@ -77,6 +78,14 @@ public class DocumentModel {
         UpdatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(final Long version) {
+        this.version = version;
+    }
+
     public List<DocumentPermissionModel> getAccessibleUsers() {
         return accessibleUsers;
     }
@@ -0,0 +1,45 @@
+package com.raadkhatatbeh.doc_control_system.model;
+
+import java.util.List;
+
+/**
+ * DocumentPage Model, one page of a document listing.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class DocumentPage {
+
+    private final List<DocumentModel> documents;
+    private final String nextCursor;
+    private final String fingerprint;
+
+    public DocumentPage(final List<DocumentModel> documents, final String nextCursor, final String fingerprint) {
+        this.documents = documents;
+        this.nextCursor = nextCursor;
+        this.fingerprint = fingerprint;
+    }
+
+    public List<DocumentModel> getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Returns the continuation token of the next page.
+     *
+     * @return the token to pass back as {@code cursor}, or {@code null} if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Returns a digest of the IDs and versions of the page's documents and of the next cursor.
+     * It changes whenever a document of the page changes, enters or leaves the page.
+     *
+     * @return the page fingerprint
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+}
@@ -0,0 +1,12 @@
+package com.raadkhatatbeh.doc_control_system.model;
+
+/**
+ * DocumentSort Enum representing the orders in which documents can be listed.
+ * Both orders end with the document ID, so every position in the listing is unique.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public enum DocumentSort {
+    ID, UPDATED_AT
+}
@@ -2,10 +2,54 @@ package com.raadkhatatbeh.doc_control_system.model;
 
 /**
  * FileType Enum representing the type of file.
+ * Each type carries the media type it is served with and how its uploaded bodies are stored:
+ * text formats are compressed, formats that are already compressed are stored as is.
  *
  * @author Raad khatatbeh
  * @since 22/7/2025
  */
 public enum FileType {
-    XML, CSV, PDF, DOC, DOCX
+    XML("application/xml", ContentEncoding.GZIP, 6),
+    CSV("text/csv", ContentEncoding.GZIP, 6),
+    PDF("application/pdf", ContentEncoding.IDENTITY, 0),
+    // OLE containers compress, but much less than text, a fast level is enough
+    DOC("application/msword", ContentEncoding.GZIP, 1),
+    DOCX("application/vnd.openxmlformats-officedocument.wordprocessingml.document", ContentEncoding.IDENTITY, 0);
+
+    private final String mediaType;
+    private final ContentEncoding storageEncoding;
+    private final int compressionLevel;
+
+    FileType(final String mediaType, final ContentEncoding storageEncoding, final int compressionLevel) {
+        this.mediaType = mediaType;
+        this.storageEncoding = storageEncoding;
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Returns the media type sent as {@code Content-Type} when the document body is downloaded.
+     *
+     * @return the media type
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Returns the encoding uploaded bodies of this type are stored with.
+     *
+     * @return the {@link ContentEncoding}
+     */
+    public ContentEncoding getStorageEncoding() {
+        return storageEncoding;
+    }
+
+    /**
+     * Returns the compression level of the {@link #getStorageEncoding() storage encoding}.
+     *
+     * @return the level, 1 (fastest) to 9 (smallest), unused for {@link ContentEncoding#IDENTITY}
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
 }
@@ -2,6 +2,7 @@ package com.raadkhatatbeh.doc_control_system.modelMapper;
 
 import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
 import com.raadkhatatbeh.doc_control_system.repo.entity.Document;
+import com.raadkhatatbeh.doc_control_system.repo.entity.DocumentContent;
 
 /**
  * Document Model Mapper.
@@ -27,7 +28,6 @@ public class DocumentModelMapper {
         entity.setId(model.getId());
         entity.setName(model.getName());
         entity.setFileType(model.getFileType());
-        entity.setContent(model.getContent());
         entity.setAccessibleUsers(DocumentPermissionModelMapper.toEntity(model.getAccessibleUsers()));
         entity.setCreatedBy(model.getCreatedBy());
         entity.setCreatedAt(model.getCreatedAt());
@@ -36,8 +36,29 @@ public class DocumentModelMapper {
         return entity;
     }
 
+    /**
+     * Converts a {@link DocumentModel} to the {@link DocumentContent} of the given document.
+     *
+     * @param model    the {@link DocumentModel} holding the content
+     * @param document the {@link Document} entity the content belongs to
+     * @return the converted {@link DocumentContent} entity, or {@code null} if the model has no content
+     */
+    public static DocumentContent toContentEntity(final DocumentModel model, final Document document) {
+
+        if (model == null || model.getContent() == null) {
+            return null;
+        }
+
+        final DocumentContent entity = new DocumentContent();
+        entity.setDocument(document);
+        entity.setContent(model.getContent());
+
+        return entity;
+    }
+
     /**
      * Converts a {@link Document} entity to a {@link DocumentModel}.
+     * The content is stored separately and is not part of the result.
      *
      * @param entity the {@link Document} entity to convert
      * @return the converted {@link DocumentModel}, or {@code null} if the entity is {@code null}
@@ -56,6 +77,7 @@ public class DocumentModelMapper {
         model.setCreatedBy(entity.getCreatedBy());
         model.setCreatedAt(entity.getCreatedAt());
         model.setUpdatedAt(entity.getUpdatedAt());
+        model.setVersion(entity.getVersion());
 
         return model;
     }
@@ -0,0 +1,39 @@
+package com.raadkhatatbeh.doc_control_system.repo;
+
+import com.raadkhatatbeh.doc_control_system.repo.entity.DocumentContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Document Content Repository.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Repository
+public interface DocumentContentRepo extends JpaRepository<DocumentContent, Long> {
+
+    /**
+     * Retrieves the body of a document without loading the document itself.
+     *
+     * @param documentId the document ID
+     * @return the content, or empty if the document has none
+     */
+    @Query("SELECT c.content FROM DocumentContent c WHERE c.documentId = :documentId")
+    Optional<String> findContentByDocumentId(@Param("documentId") Long documentId);
+
+    /**
+     * Deletes the bodies of the given documents in a single statement.
+     *
+     * @param documentIds the document IDs, callers should keep the list within the database IN-list limits
+     * @return the number of bodies deleted
+     */
+    @Modifying
+    @Query("DELETE FROM DocumentContent c WHERE c.documentId IN :documentIds")
+    int deleteByDocumentIds(@Param("documentIds") List<Long> documentIds);
+}
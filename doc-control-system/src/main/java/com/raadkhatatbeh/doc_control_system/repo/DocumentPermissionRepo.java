@@ -0,0 +1,78 @@
+package com.raadkhatatbeh.doc_control_system.repo;
+
+import com.raadkhatatbeh.doc_control_system.repo.entity.DocumentPermission;
+import com.raadkhatatbeh.doc_control_system.repo.projection.DocumentPermissionView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+
+/**
+ * Document Permission Repository.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Repository
+public interface DocumentPermissionRepo extends JpaRepository<DocumentPermission, Long> {
+
+    /**
+     * Grants a permission to a user on a document with a single MERGE keyed on (document, user, permission).
+     * An existing row is left as is, so repeating a grant is harmless. Nothing is inserted for a deleted document.
+     * The unique constraint {@code UK_DOCUMENT_PERMISSION} rejects a row inserted concurrently by another grant,
+     * callers lock the document first with {@link DocumentRepo#lockActive} so that grants never race.
+     *
+     * @param documentId     the document ID
+     * @param username       the user receiving the permission
+     * @param permissionType the permission type name
+     * @return {@code 1} if the permission was inserted, {@code 0} if it already existed or the document is deleted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "MERGE INTO DOCUMENT_PERMISSION p " +
+            "USING (SELECT d.ID, CAST(:username AS VARCHAR(255)), CAST(:permissionType AS VARCHAR(10)) " +
+            "FROM DOCUMENT d WHERE d.ID = :documentId AND d.DELETED_AT IS NULL) " +
+            "AS s(DOCUMENT_ID, USERNAME, PERMISSION_TYPE) " +
+            "ON p.DOCUMENT_ID = s.DOCUMENT_ID AND p.USERNAME = s.USERNAME AND p.PERMISSION_TYPE = s.PERMISSION_TYPE " +
+            "WHEN NOT MATCHED THEN INSERT (DOCUMENT_ID, USERNAME, PERMISSION_TYPE, CREATED_AT) " +
+            "VALUES (s.DOCUMENT_ID, s.USERNAME, s.PERMISSION_TYPE, CURRENT_TIMESTAMP)",
+            nativeQuery = true)
+    int grant(@Param("documentId") Long documentId,
+              @Param("username") String username,
+              @Param("permissionType") String permissionType);
+
+    /**
+     * Grants a permission to every given user on every given existing document in a single statement.
+     * Rows that already exist are skipped, IDs come from the column default.
+     * The inserted rows are read back from the {@code FINAL TABLE} of the INSERT, in the same statement.
+     *
+     * @param documentIds    the document IDs, callers should keep the list within the database IN-list limits
+     * @param usernames      the users receiving the permission
+     * @param permissionType the permission type name
+     * @return the permission rows inserted, as {@link DocumentPermissionView} projections
+     */
+    @Query(value = "SELECT DOCUMENT_ID AS documentId, USERNAME AS username, PERMISSION_TYPE AS permissionType " +
+            "FROM FINAL TABLE (INSERT INTO DOCUMENT_PERMISSION (DOCUMENT_ID, USERNAME, PERMISSION_TYPE, CREATED_AT) " +
+            "SELECT d.ID, u.USERNAME, :permissionType, CURRENT_TIMESTAMP " +
+            "FROM DOCUMENT d CROSS JOIN UNNEST(CAST(:usernames AS VARCHAR(255) ARRAY)) AS u(USERNAME) " +
+            "WHERE d.ID IN (:documentIds) AND d.DELETED_AT IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM DOCUMENT_PERMISSION p WHERE p.DOCUMENT_ID = d.ID " +
+            "AND p.USERNAME = u.USERNAME AND p.PERMISSION_TYPE = :permissionType))",
+            nativeQuery = true)
+    List<DocumentPermissionView> grantAll(@Param("documentIds") List<Long> documentIds,
+                                          @Param("usernames") String[] usernames,
+                                          @Param("permissionType") String permissionType);
+
+    /**
+     * Deletes every permission of the given documents in a single statement.
+     *
+     * @param documentIds the document IDs, callers should keep the list within the database IN-list limits
+     * @return the number of permission rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM DocumentPermission p WHERE p.documentId IN :documentIds")
+    int deleteByDocumentIds(@Param("documentIds") List<Long> documentIds);
+}
@@ -2,11 +2,23 @@ package com.raadkhatatbeh.doc_control_system.repo;
 
 import com.raadkhatatbeh.doc_control_system.model.PermissionType;
 import com.raadkhatatbeh.doc_control_system.repo.entity.Document;
+import com.raadkhatatbeh.doc_control_system.repo.projection.DocumentContentView;
+import com.raadkhatatbeh.doc_control_system.repo.projection.DocumentPermissionView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Document Repository.
@@ -17,24 +29,386 @@ import java.util.List;
 @Repository
 public interface DocumentRepo extends JpaRepository<Document, Long> {
 
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Retrieves a document together with its permissions in a single select.
+     *
+     * @param id the document ID
+     * @return the {@link Document} entity with its permissions initialized, if it exists
+     */
+    @EntityGraph(attributePaths = "accessibleUsers")
+    Optional<Document> findWithAccessibleUsersById(Long id);
+
     /**
-     * Retrieves all documents accessible by a specific user
+     * Retrieves the version of a document without loading it.
+     *
+     * @param id the document ID
+     * @return the version, if the document exists
+     */
+    @Query("SELECT d.version FROM Document d WHERE d.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Records a change made outside of the entity, such as a grant: bumps the version and the update time
+     * of the given documents. Callers publish the change with {@link #publishChanges} when they commit.
+     *
+     * @param ids the document IDs, callers should keep the list within the database IN-list limits
+     * @return the number of documents updated
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE DOCUMENT SET VERSION = VERSION + 1, UPDATED_AT = CURRENT_TIMESTAMP " +
+            "WHERE ID IN (:ids) AND DELETED_AT IS NULL",
+            nativeQuery = true)
+    int incrementVersions(@Param("ids") List<Long> ids);
+
+    /**
+     * Points a document at a newly uploaded body, bumping its version.
+     * Only updates the document if it still points at the given previous body, so that of two overlapping
+     * uploads only one replaces it.
+     *
+     * @param id              the document ID
+     * @param previousPath    the file of the body being replaced, or {@code null} if there is none
+     * @param contentPath     the file of the body, relative to the content store root
+     * @param contentLength   the size of the body in bytes, before encoding
+     * @param contentEncoding the {@code ContentEncoding} name of the file
+     * @return {@code 1} if the document was updated, {@code 0} if it does not exist, is deleted
+     * or points at another body
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE DOCUMENT SET CONTENT_PATH = :contentPath, CONTENT_LENGTH = :contentLength, " +
+            "CONTENT_ENCODING = :contentEncoding, " +
+            "VERSION = VERSION + 1, UPDATED_AT = CURRENT_TIMESTAMP " +
+            "WHERE ID = :id AND DELETED_AT IS NULL AND CONTENT_PATH IS NOT DISTINCT FROM :previousPath",
+            nativeQuery = true)
+    int updateContent(@Param("id") Long id,
+                      @Param("previousPath") String previousPath,
+                      @Param("contentPath") String contentPath,
+                      @Param("contentLength") long contentLength,
+                      @Param("contentEncoding") String contentEncoding);
+
+    /**
+     * Points a document at a newly uploaded body, see {@link #updateContent}, and publishes the change
+     * in the same transaction, for callers that do not run in one.
+     *
+     * @param id              the document ID
+     * @param previousPath    the file of the body being replaced, or {@code null} if there is none
+     * @param contentPath     the file of the body, relative to the content store root
+     * @param contentLength   the size of the body in bytes, before encoding
+     * @param contentEncoding the {@code ContentEncoding} name of the file
+     * @return {@code 1} if the document was updated, {@code 0} otherwise
+     */
+    @Transactional
+    default int updateContentAndPublish(final Long id, final String previousPath, final String contentPath,
+                                        final long contentLength, final String contentEncoding) {
+
+        int updated = updateContent(id, previousPath, contentPath, contentLength, contentEncoding);
+        if (updated > 0) {
+            publishChanges(List.of(id));
+        }
+        return updated;
+    }
+
+    /**
+     * Takes the lock of the change feed until the end of the current transaction.
+     * Transactions draw their change sequences while holding it, right before they commit,
+     * so changes become visible in sequence order and a reader past a change never misses an earlier one.
+     *
+     * @return the ID of the lock row
+     */
+    @Query(value = "SELECT ID FROM DOCUMENT_CHANGE_LOCK WHERE ID = 1 FOR UPDATE", nativeQuery = true)
+    Integer lockChangeFeed();
+
+    /**
+     * Moves the given documents to the end of the change feed, deleted documents included.
+     * Native, entity queries cannot draw from {@code DOCUMENT_CHANGE_SEQ}.
+     *
+     * @param ids the document IDs, callers should keep the list within the database IN-list limits
+     * @return the number of documents updated
+     */
+    @Modifying
+    @Query(value = "UPDATE DOCUMENT SET CHANGE_SEQ = NEXT VALUE FOR DOCUMENT_CHANGE_SEQ WHERE ID IN (:ids)",
+            nativeQuery = true)
+    int assignChangeSeqs(@Param("ids") List<Long> ids);
+
+    /**
+     * Publishes the changes of the given documents to the change feed. Must run last in the writing transaction,
+     * see {@link #lockChangeFeed}, on documents the transaction already wrote.
+     *
+     * @param ids the document IDs, callers should keep the list within the database IN-list limits
+     */
+    @Transactional
+    default void publishChanges(final List<Long> ids) {
+        lockChangeFeed();
+        assignChangeSeqs(ids);
+    }
+
+    /**
+     * Retrieves the reference to the uploaded body of a document without loading the document.
+     *
+     * @param id the document ID
+     * @return the {@link DocumentContentView}, if the document exists
+     */
+    @Query("SELECT d.fileType AS fileType, d.contentPath AS contentPath, d.contentLength AS contentLength, " +
+            "d.contentEncoding AS contentEncoding, d.version AS version FROM Document d WHERE d.id = :id")
+    Optional<DocumentContentView> findContentViewById(@Param("id") Long id);
+
+    /**
+     * Retrieves the uploaded body files of the given documents, deleted documents included.
+     *
+     * @param ids the document IDs, callers should keep the list within the database IN-list limits
+     * @return the file paths, relative to the content store root
+     */
+    @Query(value = "SELECT CONTENT_PATH FROM DOCUMENT WHERE ID IN (:ids) AND CONTENT_PATH IS NOT NULL",
+            nativeQuery = true)
+    List<String> findContentPaths(@Param("ids") List<Long> ids);
+
+    /**
+     * Marks a document as deleted and bumps its version, the row itself is left for the purger.
+     *
+     * @param id        the document ID
+     * @param deletedAt the deletion time
+     * @return {@code 1} if the document was marked, {@code 0} if it does not exist or is already deleted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE DOCUMENT SET DELETED_AT = :deletedAt, VERSION = VERSION + 1 " +
+            "WHERE ID = :id AND DELETED_AT IS NULL",
+            nativeQuery = true)
+    int markDeleted(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Locks the given documents that are not deleted until the end of the current transaction,
+     * so grants on the same document are serialized with each other and with a concurrent delete.
+     * Native, because entity queries never see deleted documents.
+     *
+     * @param ids the document IDs, callers should keep the list within the database IN-list limits
+     * @return the IDs of the locked documents, in ascending order
+     */
+    @Query(value = "SELECT ID FROM DOCUMENT WHERE ID IN (:ids) AND DELETED_AT IS NULL ORDER BY ID FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockActive(@Param("ids") List<Long> ids);
+
+    /**
+     * Retrieves the IDs of the oldest documents deleted before the given time.
+     * Native, because entity queries never see deleted documents.
+     *
+     * @param deletedBefore only tombstones older than this are returned
+     * @param limit         the maximum number of IDs to return
+     * @return the IDs, oldest deletion first
+     */
+    @Query(value = "SELECT ID FROM DOCUMENT WHERE DELETED_AT < :deletedBefore ORDER BY DELETED_AT, ID LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findDeletedIds(@Param("deletedBefore") LocalDateTime deletedBefore, @Param("limit") int limit);
+
+    /**
+     * Retrieves the documents changed after the given position of the change feed, deleted documents included.
+     * Native, because entity queries never see deleted documents.
+     *
+     * @param afterSeq the change sequence of the last change already read
+     * @param limit    the maximum number of documents to return
+     * @return a list of {@link Document} entities in change order
+     */
+    @Query(value = "SELECT * FROM DOCUMENT WHERE CHANGE_SEQ > :afterSeq ORDER BY CHANGE_SEQ LIMIT :limit",
+            nativeQuery = true)
+    List<Document> findChangesAfter(@Param("afterSeq") long afterSeq, @Param("limit") int limit);
+
+    /**
+     * Retrieves the documents accessible by a specific user changed after the given position of the change feed,
+     * deleted documents included as long as their permissions have not been purged.
+     * Driven by the user's permissions, so the cost follows the number of documents the user can access
+     * rather than the length of the feed.
+     *
+     * @param username       the username of the user requesting access
+     * @param permissionType the required permission type name
+     * @param afterSeq       the change sequence of the last change already read
+     * @param limit          the maximum number of documents to return
+     * @return a list of {@link Document} entities in change order
+     */
+    @Query(value = "SELECT d.* FROM DOCUMENT d WHERE d.ID IN (SELECT p.DOCUMENT_ID FROM DOCUMENT_PERMISSION p " +
+            "WHERE p.USERNAME = :username AND p.PERMISSION_TYPE = :permissionType) " +
+            "AND d.CHANGE_SEQ > :afterSeq ORDER BY d.CHANGE_SEQ LIMIT :limit",
+            nativeQuery = true)
+    List<Document> findChangesByUsernameAndPermissionAfter(@Param("username") String username,
+                                                           @Param("permissionType") String permissionType,
+                                                           @Param("afterSeq") long afterSeq,
+                                                           @Param("limit") int limit);
+
+    /**
+     * Removes the given deleted documents in a single statement, their children must already be gone.
+     *
+     * @param ids the document IDs, callers should keep the list within the database IN-list limits
+     * @return the number of documents removed
+     */
+    @Modifying
+    @Query(value = "DELETE FROM DOCUMENT WHERE ID IN (:ids) AND DELETED_AT IS NOT NULL", nativeQuery = true)
+    int purge(@Param("ids") List<Long> ids);
+
+    /**
+     * Retrieves the page of documents that follows the given ID, ordered by ID.
+     *
+     * @param afterId the ID of the last document of the previous page
+     * @param limit   the maximum number of documents to return
+     * @return a list of {@link Document} entities
+     */
+    @Query("SELECT d FROM Document d WHERE d.id > :afterId ORDER BY d.id")
+    List<Document> findPageOrderById(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Retrieves the page of documents that follows the given position, ordered by update time then ID.
+     *
+     * @param afterUpdatedAt the update time of the last document of the previous page
+     * @param afterId        the ID of the last document of the previous page
+     * @param limit          the maximum number of documents to return
+     * @return a list of {@link Document} entities
+     */
+    @Query("SELECT d FROM Document d WHERE d.updatedAt >= :afterUpdatedAt " +
+            "AND (d.updatedAt > :afterUpdatedAt OR d.id > :afterId) " +
+            "ORDER BY d.updatedAt, d.id")
+    List<Document> findPageOrderByUpdatedAt(@Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                            @Param("afterId") Long afterId,
+                                            Limit limit);
+
+    /**
+     * Retrieves the page of documents accessible by a specific user that follows the given ID, ordered by ID.
+     *
+     * @param username       the username of the user requesting access
+     * @param permissionType the required permission type
+     * @param afterId        the ID of the last document of the previous page
+     * @param limit          the maximum number of documents to return
+     * @return a list of {@link Document} entities
+     */
+    @Query("SELECT d FROM Document d JOIN d.accessibleUsers dp " +
+            "WHERE dp.username = :username AND dp.permissionType = :permissionType AND d.id > :afterId " +
+            "ORDER BY d.id")
+    List<Document> findPageByUsernameAndPermissionOrderById(@Param("username") String username,
+                                                            @Param("permissionType") PermissionType permissionType,
+                                                            @Param("afterId") Long afterId,
+                                                            Limit limit);
+
+    /**
+     * Retrieves the page of documents accessible by a specific user that follows the given position,
+     * ordered by update time then ID.
+     *
+     * @param username       the username of the user requesting access
+     * @param permissionType the required permission type
+     * @param afterUpdatedAt the update time of the last document of the previous page
+     * @param afterId        the ID of the last document of the previous page
+     * @param limit          the maximum number of documents to return
+     * @return a list of {@link Document} entities
+     */
+    @Query("SELECT d FROM Document d JOIN d.accessibleUsers dp " +
+            "WHERE dp.username = :username AND dp.permissionType = :permissionType " +
+            "AND d.updatedAt >= :afterUpdatedAt AND (d.updatedAt > :afterUpdatedAt OR d.id > :afterId) " +
+            "ORDER BY d.updatedAt, d.id")
+    List<Document> findPageByUsernameAndPermissionOrderByUpdatedAt(@Param("username") String username,
+                                                                   @Param("permissionType") PermissionType permissionType,
+                                                                   @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                                                   @Param("afterId") Long afterId,
+                                                                   Limit limit);
+
+    /**
+     * Streams every document ordered by ID, reading rows from the JDBC driver in batches.
+     * Permissions are fetched by the same select.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return a {@link Stream} of {@link Document} entities
+     */
+    @EntityGraph(attributePaths = "accessibleUsers")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT d FROM Document d ORDER BY d.id")
+    Stream<Document> streamAll();
+
+    /**
+     * Streams the documents accessible by a specific user ordered by ID, reading rows from the JDBC driver in batches.
+     * Permissions are fetched by the same select.
+     * Must be consumed inside a transaction and closed afterwards.
      *
      * @param username       the username of the user requesting access
-     * @param permissionType the required permission type READ
-     * @return a list of matching {@link Document} entities
+     * @param permissionType the required permission type
+     * @return a {@link Stream} of {@link Document} entities
      */
+    @EntityGraph(attributePaths = "accessibleUsers")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
     @Query("SELECT d FROM Document d JOIN d.accessibleUsers dp " +
-            "WHERE dp.username = :username AND dp.permissionType = :permissionType")
-    List<Document> findByUsernameAndPermission(@Param("username") String username,
-                                               @Param("permissionType") PermissionType permissionType);
+            "WHERE dp.username = :username AND dp.permissionType = :permissionType ORDER BY d.id")
+    Stream<Document> streamByUsernameAndPermission(@Param("username") String username,
+                                                   @Param("permissionType") PermissionType permissionType);
+
+    /**
+     * Retrieves the IDs of all documents.
+     *
+     * @return a list of every document ID
+     */
+    @Query("SELECT d.id FROM Document d")
+    List<Long> findAllIds();
+
+    /**
+     * Retrieves every permission row together with the ID of the document it belongs to,
+     * without loading the documents themselves.
+     *
+     * @return a list of {@link DocumentPermissionView} projections
+     */
+    @Query("SELECT d.id AS documentId, dp.username AS username, dp.permissionType AS permissionType " +
+            "FROM Document d JOIN d.accessibleUsers dp")
+    List<DocumentPermissionView> findAllPermissions();
 
     /**
-     * Retrieves a list of documents that have IDs matching the provided list.
+     * Retrieves, in ascending order, the IDs from the given list that belong to an existing document.
      *
-     * @param ids the list of document IDs to retrieve
-     * @return a list of Document entities with matching IDs
+     * @param ids the document IDs to check, callers should keep the list within the database IN-list limits
+     * @return the IDs of the matching documents
+     */
+    @Query("SELECT d.id FROM Document d WHERE d.id IN :ids ORDER BY d.id")
+    List<Long> findExistingIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Retrieves, in ascending order, the IDs from the given list on which the user holds the given permission.
+     * Only {@code DOCUMENT_PERMISSION} is read, no {@link Document} entity is built.
+     *
+     * @param username       the username of the user requesting access
+     * @param permissionType the required permission type
+     * @param ids            the document IDs to check, callers should keep the list within the database IN-list limits
+     * @return the IDs of the accessible documents
+     */
+    @Query("SELECT DISTINCT dp.documentId FROM DocumentPermission dp " +
+            "WHERE dp.username = :username AND dp.permissionType = :permissionType AND dp.documentId IN :ids " +
+            "AND EXISTS (SELECT 1 FROM Document d WHERE d.id = dp.documentId) " +
+            "ORDER BY dp.documentId")
+    List<Long> findAccessibleIds(@Param("username") String username,
+                                 @Param("permissionType") PermissionType permissionType,
+                                 @Param("ids") List<Long> ids);
+
+    /**
+     * Retrieves the permission rows of the given type held by any of the users on any of the documents,
+     * skipping deleted documents. Answers the access checks of several users in one query.
+     *
+     * @param usernames      the usernames
+     * @param permissionType the required permission type
+     * @param ids            the document IDs to check, callers should keep the list within the database IN-list limits
+     * @return a list of {@link DocumentPermissionView} projections
+     */
+    @Query("SELECT dp.documentId AS documentId, dp.username AS username, dp.permissionType AS permissionType " +
+            "FROM DocumentPermission dp " +
+            "WHERE dp.username IN :usernames AND dp.permissionType = :permissionType AND dp.documentId IN :ids " +
+            "AND EXISTS (SELECT 1 FROM Document d WHERE d.id = dp.documentId)")
+    List<DocumentPermissionView> findPermissions(@Param("usernames") List<String> usernames,
+                                                 @Param("permissionType") PermissionType permissionType,
+                                                 @Param("ids") List<Long> ids);
+
+    /**
+     * Checks whether the user holds the given permission on the document.
+     *
+     * @param documentId     the document ID
+     * @param username       the username of the user requesting access
+     * @param permissionType the required permission type
+     * @return {@code true} if a matching permission row exists
      */
-    @Query("SELECT d FROM Document d WHERE d.id IN :ids")
-    List<Document> findByIds(@Param("ids") List<Long> ids);
+    @Query("SELECT COUNT(dp) > 0 FROM DocumentPermission dp " +
+            "WHERE dp.documentId = :documentId AND dp.username = :username AND dp.permissionType = :permissionType")
+    boolean hasPermission(@Param("documentId") Long documentId,
+                          @Param("username") String username,
+                          @Param("permissionType") PermissionType permissionType);
 }
@@ -1,7 +1,10 @@
 package com.raadkhatatbeh.doc_control_system.repo.entity;
 
+import com.raadkhatatbeh.doc_control_system.model.ContentEncoding;
 import com.raadkhatatbeh.doc_control_system.model.FileType;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.SQLRestriction;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,20 +17,31 @@ import java.util.List;
  */
 @Entity
 @Table(name = "DOCUMENT")
+// tombstoned documents are invisible to every entity query until the purger removes them
+@SQLRestriction("DELETED_AT IS NULL")
 public class Document {
 
     private Long id;
     private String name;
-    private String content;
     private FileType fileType;
     private String createdBy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+    private LocalDateTime deletedAt;
+    private Long changeSeq;
+    private String contentPath;
+    private Long contentLength;
+    private ContentEncoding contentEncoding;
 
     private List<DocumentPermission> accessibleUsers = new ArrayList<>();
 
+    // matches the largest page, so a whole page is initialized by one select
+    public static final int PERMISSION_BATCH_SIZE = 1000;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "DOCUMENT_SEQ")
+    @SequenceGenerator(name = "DOCUMENT_SEQ", sequenceName = "DOCUMENT_SEQ", allocationSize = 50)
     @Column(name = "ID")
     public Long getId() {
         return id;
@@ -46,15 +60,6 @@ public class Document {
         this.name = name;
     }
 
-    @Column(name = "CONTENT")
-    public String getContent() {
-        return content;
-    }
-
-    public void setContent(final String content) {
-        this.content = content;
-    }
-
     @Enumerated(EnumType.STRING)
     @Column(name = "FILE_TYPE")
     public FileType getFileType() {
@@ -92,8 +97,68 @@ public class Document {
         this.updatedAt = updatedAt;
     }
 
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "DOCUMENT_ID", referencedColumnName = "ID")
+    @Version
+    @Column(name = "VERSION")
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(final Long version) {
+        this.version = version;
+    }
+
+    @Column(name = "DELETED_AT")
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(final LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    // assigned by the database, see DocumentRepo#incrementVersions and DocumentRepo#markDeleted
+    @Column(name = "CHANGE_SEQ", insertable = false, updatable = false)
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(final Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    // the uploaded body, see ContentStore and DocumentRepo#updateContent
+    @Column(name = "CONTENT_PATH", insertable = false, updatable = false)
+    public String getContentPath() {
+        return contentPath;
+    }
+
+    public void setContentPath(final String contentPath) {
+        this.contentPath = contentPath;
+    }
+
+    @Column(name = "CONTENT_LENGTH", insertable = false, updatable = false)
+    public Long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(final Long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "CONTENT_ENCODING", insertable = false, updatable = false)
+    public ContentEncoding getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public void setContentEncoding(final ContentEncoding contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    // lazy everywhere, single documents load it with an entity graph and pages with one batched select
+    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "DOCUMENT_ID", referencedColumnName = "ID", nullable = false, updatable = false)
+    @BatchSize(size = PERMISSION_BATCH_SIZE)
     public List<DocumentPermission> getAccessibleUsers() {
         return accessibleUsers;
     }
@@ -0,0 +1,50 @@
+package com.raadkhatatbeh.doc_control_system.repo.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * DocumentContent Entity, the body of a {@link Document}.
+ * It is stored in its own table so that listings and permission checks never read it.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Entity
+@Table(name = "DOCUMENT_CONTENT")
+public class DocumentContent {
+
+    private Long documentId;
+    private Document document;
+    private String content;
+
+    @Id
+    @Column(name = "DOCUMENT_ID")
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(final Long documentId) {
+        this.documentId = documentId;
+    }
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "DOCUMENT_ID")
+    public Document getDocument() {
+        return document;
+    }
+
+    public void setDocument(final Document document) {
+        this.document = document;
+    }
+
+    @Lob
+    @Column(name = "CONTENT")
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(final String content) {
+        this.content = content;
+    }
+}
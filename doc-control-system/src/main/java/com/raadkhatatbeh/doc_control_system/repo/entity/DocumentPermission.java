@@ -15,12 +15,14 @@ import java.time.LocalDateTime;
 public class DocumentPermission {
 
     private Long id;
+    private Long documentId;
     private String username;
     private PermissionType permissionType;
     private LocalDateTime createdAt;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "DOCUMENT_PERMISSION_SEQ")
+    @SequenceGenerator(name = "DOCUMENT_PERMISSION_SEQ", sequenceName = "DOCUMENT_PERMISSION_SEQ", allocationSize = 50)
     @Column(name = "ID")
     public Long getId() {
         return id;
@@ -30,6 +32,19 @@ public class DocumentPermission {
         this.id = id;
     }
 
+    /**
+     * Read-only view of the owning document's ID, the column itself is maintained
+     * through {@link Document#getAccessibleUsers()}.
+     */
+    @Column(name = "DOCUMENT_ID", insertable = false, updatable = false)
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(final Long documentId) {
+        this.documentId = documentId;
+    }
+
     @Column(name = "USERNAME")
     public String getUsername() {
         return username;
@@ -0,0 +1,23 @@
+package com.raadkhatatbeh.doc_control_system.repo.projection;
+
+import com.raadkhatatbeh.doc_control_system.model.ContentEncoding;
+import com.raadkhatatbeh.doc_control_system.model.FileType;
+
+/**
+ * DocumentContentView projection, the reference to a document's stored body without the document itself.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public interface DocumentContentView {
+
+    FileType getFileType();
+
+    String getContentPath();
+
+    Long getContentLength();
+
+    ContentEncoding getContentEncoding();
+
+    Long getVersion();
+}
@@ -0,0 +1,18 @@
+package com.raadkhatatbeh.doc_control_system.repo.projection;
+
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+
+/**
+ * DocumentPermissionView projection, a single ACL row without its owning {@code Document}.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public interface DocumentPermissionView {
+
+    Long getDocumentId();
+
+    String getUsername();
+
+    PermissionType getPermissionType();
+}
@@ -0,0 +1,67 @@
+package com.raadkhatatbeh.doc_control_system.repo.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends the connections of read-only transactions that opted in with {@link #useReplica()} to the replica pool,
+ * every other connection to the primary pool. Transactions do not opt in by being read-only alone:
+ * Spring Data runs its finders in read-only transactions, and a read following a write of the same request
+ * must not see a lagging replica.
+ * The decision is made when the connection is fetched, so this must be wrapped in a
+ * {@code LazyConnectionDataSourceProxy} for the transaction flags to be set by then.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The pools a connection can come from.
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> REPLICA_READS = new ThreadLocal<>();
+
+    /**
+     * Constructs a new {@code ReadWriteRoutingDataSource}.
+     *
+     * @param primary the pool receiving writes and reads that need the latest data
+     * @param replica the pool receiving opted-in read-only transactions
+     */
+    public ReadWriteRoutingDataSource(final DataSource primary, final DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Lets the read-only transaction of the current thread read from the replica, until {@link #usePrimary()}.
+     */
+    public static void useReplica() {
+        REPLICA_READS.set(Boolean.TRUE);
+    }
+
+    /**
+     * Sends the connections of the current thread to the primary again.
+     */
+    public static void usePrimary() {
+        REPLICA_READS.remove();
+    }
+
+    /**
+     * Returns the pool the connection being fetched comes from.
+     *
+     * @return the {@link Route}
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && REPLICA_READS.get() != null
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+}
@@ -0,0 +1,98 @@
+package com.raadkhatatbeh.doc_control_system.repo.routing;
+
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.InitialValueAwareOptimizer;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.PooledOptimizer;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pooled sequence optimizer keeping one pool of values per shard.
+ * Hibernate's own pooled optimizer hands out the values it reserved from whichever database it last called,
+ * so a block reserved from one shard would be used for rows inserted into another.
+ * Here each shard reserves and uses its own blocks, see {@link ShardRoutingDataSource#currentShard()}.
+ * Installed with {@code hibernate.id.optimizer.pooled.preferred}, with a single shard it behaves like {@code pooled}.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class ShardPooledOptimizer implements Optimizer, InitialValueAwareOptimizer {
+
+    private final Class<?> returnClass;
+    private final int incrementSize;
+    private final Map<Integer, PooledOptimizer> shards = new ConcurrentHashMap<>();
+    private volatile long initialValue = -1L;
+
+    /**
+     * Constructs a new {@code ShardPooledOptimizer}, called by Hibernate.
+     *
+     * @param returnClass   the type of the generated identifiers
+     * @param incrementSize the number of values reserved per sequence call
+     */
+    public ShardPooledOptimizer(final Class<?> returnClass, final int incrementSize) {
+        this.returnClass = returnClass;
+        this.incrementSize = incrementSize;
+    }
+
+    /**
+     * Generates the next value from the pool of the current shard.
+     *
+     * @param callback reads the next sequence value from the current shard
+     * @return the generated identifier
+     */
+    @Override
+    public Serializable generate(final AccessCallback callback) {
+        return currentPool().generate(callback);
+    }
+
+    /**
+     * Returns the last value read from the sequence of the current shard.
+     *
+     * @return the value
+     */
+    @Override
+    public IntegralDataTypeHolder getLastSourceValue() {
+        return currentPool().getLastSourceValue();
+    }
+
+    /**
+     * Returns the number of values reserved per sequence call.
+     *
+     * @return the increment size
+     */
+    @Override
+    public int getIncrementSize() {
+        return incrementSize;
+    }
+
+    /**
+     * Tells Hibernate that the database sequence increments by the increment size, like {@code pooled}.
+     *
+     * @return {@code true}
+     */
+    @Override
+    public boolean applyIncrementSizeToSourceValues() {
+        return true;
+    }
+
+    /**
+     * Receives the initial value of the sequence, passed on to the pool of every shard.
+     *
+     * @param initialValue the initial value
+     */
+    @Override
+    public void injectInitialValue(final long initialValue) {
+        this.initialValue = initialValue;
+    }
+
+    private PooledOptimizer currentPool() {
+        return shards.computeIfAbsent(ShardRoutingDataSource.currentShard(), shard -> {
+            PooledOptimizer pool = new PooledOptimizer(returnClass, incrementSize);
+            pool.injectInitialValue(initialValue);
+            return pool;
+        });
+    }
+}
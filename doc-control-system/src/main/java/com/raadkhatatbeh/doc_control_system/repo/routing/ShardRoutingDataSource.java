@@ -0,0 +1,99 @@
+package com.raadkhatatbeh.doc_control_system.repo.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends connections to the shard bound to the current thread with {@link #bind(int)}, shard {@code 0} when none is.
+ * Every shard holds the full schema, each document lives on one shard with its content and permissions.
+ * The decision is made when the connection is fetched, so this must be wrapped in a
+ * {@code LazyConnectionDataSourceProxy} for a shard bound at the start of a service method to apply
+ * to a transaction that already began.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private final List<HikariDataSource> ownedPools;
+
+    /**
+     * Constructs a new {@code ShardRoutingDataSource}.
+     *
+     * @param primary the pool of shard {@code 0}, managed by the caller
+     * @param shards  the pools of shards {@code 1} to {@code n}, in order, closed with this data source
+     */
+    public ShardRoutingDataSource(final DataSource primary, final List<HikariDataSource> shards) {
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(0, primary);
+        for (int shard = 1; shard <= shards.size(); shard++) {
+            targets.put(shard, shards.get(shard - 1));
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        this.ownedPools = List.copyOf(shards);
+    }
+
+    /**
+     * Returns the shard bound to the current thread.
+     *
+     * @return the shard, {@code 0} when none is bound
+     */
+    public static int currentShard() {
+        Integer shard = SHARD.get();
+        return shard == null ? 0 : shard;
+    }
+
+    /**
+     * Binds a shard to the current thread, the caller restores the previous one with {@link #restore(int)}.
+     *
+     * @param shard the shard receiving the connections of the current thread
+     * @return the shard bound before
+     */
+    public static int bind(final int shard) {
+        int previous = currentShard();
+        SHARD.set(shard);
+        return previous;
+    }
+
+    /**
+     * Restores the shard returned by {@link #bind(int)}.
+     *
+     * @param previous the shard bound before
+     */
+    public static void restore(final int previous) {
+        if (previous == 0) {
+            SHARD.remove();
+        } else {
+            SHARD.set(previous);
+        }
+    }
+
+    /**
+     * Returns the shard the connection being fetched comes from.
+     *
+     * @return the shard number
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard();
+    }
+
+    /**
+     * Closes the pools of shards {@code 1} to {@code n}.
+     */
+    @Override
+    public void destroy() {
+        ownedPools.forEach(HikariDataSource::close);
+    }
+}
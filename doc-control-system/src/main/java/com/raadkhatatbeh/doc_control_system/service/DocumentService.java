@@ -1,25 +1,72 @@
 package com.raadkhatatbeh.doc_control_system.service;
 
+import com.raadkhatatbeh.doc_control_system.controller.validation.BulkCreateDocumentValidation;
+import com.raadkhatatbeh.doc_control_system.controller.validation.BulkGrantPermissionValidation;
 import com.raadkhatatbeh.doc_control_system.controller.validation.CreateDocumentPermissionValidation;
 import com.raadkhatatbeh.doc_control_system.controller.validation.CreateDocumentValidation;
+import com.raadkhatatbeh.doc_control_system.controller.validation.ExportDocumentsValidation;
+import com.raadkhatatbeh.doc_control_system.controller.validation.ListDocumentsValidation;
+import com.raadkhatatbeh.doc_control_system.dto.BulkGrantPermissionRequest;
 import com.raadkhatatbeh.doc_control_system.exception.AccessDeniedException;
 import com.raadkhatatbeh.doc_control_system.exception.BadRequestException;
+import com.raadkhatatbeh.doc_control_system.exception.ConflictException;
 import com.raadkhatatbeh.doc_control_system.exception.ErrorMessages;
 import com.raadkhatatbeh.doc_control_system.exception.ResourceNotFoundException;
+import com.raadkhatatbeh.doc_control_system.model.ChangeType;
+import com.raadkhatatbeh.doc_control_system.model.ContentEncoding;
+import com.raadkhatatbeh.doc_control_system.model.DocumentChange;
+import com.raadkhatatbeh.doc_control_system.model.DocumentChangePage;
 import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentPage;
 import com.raadkhatatbeh.doc_control_system.model.DocumentPermissionModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentSort;
 import com.raadkhatatbeh.doc_control_system.model.PermissionType;
 import com.raadkhatatbeh.doc_control_system.modelMapper.DocumentModelMapper;
-import com.raadkhatatbeh.doc_control_system.modelMapper.DocumentPermissionModelMapper;
+import com.raadkhatatbeh.doc_control_system.repo.DocumentContentRepo;
+import com.raadkhatatbeh.doc_control_system.repo.DocumentPermissionRepo;
 import com.raadkhatatbeh.doc_control_system.repo.DocumentRepo;
 import com.raadkhatatbeh.doc_control_system.repo.entity.Document;
-import com.raadkhatatbeh.doc_control_system.repo.entity.DocumentPermission;
-import jakarta.persistence.EntityNotFoundException;
+import com.raadkhatatbeh.doc_control_system.repo.entity.DocumentContent;
+import com.raadkhatatbeh.doc_control_system.repo.projection.DocumentContentView;
+import com.raadkhatatbeh.doc_control_system.repo.projection.DocumentPermissionView;
+import com.raadkhatatbeh.doc_control_system.service.audit.AuditLog;
+import com.raadkhatatbeh.doc_control_system.service.audit.AuditRecord;
+import com.raadkhatatbeh.doc_control_system.service.batch.AccessCheckBatcher;
+import com.raadkhatatbeh.doc_control_system.service.cache.DocumentCache;
+import com.raadkhatatbeh.doc_control_system.service.cache.PermissionDecisionCache;
+import com.raadkhatatbeh.doc_control_system.service.cache.PermissionDecisionCache.Decision;
+import com.raadkhatatbeh.doc_control_system.service.content.ContentFile;
+import com.raadkhatatbeh.doc_control_system.service.content.ContentStore;
+import com.raadkhatatbeh.doc_control_system.service.content.StoredContent;
+import com.raadkhatatbeh.doc_control_system.service.index.PermissionIndex;
+import com.raadkhatatbeh.doc_control_system.service.pagination.ChangeCursor;
+import com.raadkhatatbeh.doc_control_system.service.pagination.DocumentCursor;
+import com.raadkhatatbeh.doc_control_system.service.routing.ReadYourWrites;
+import com.raadkhatatbeh.doc_control_system.service.shard.ShardRouter;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.function.SingletonSupplier;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Document Service.
@@ -31,20 +78,65 @@ import java.util.stream.Collectors;
 public class DocumentService {
 
     private final DocumentRepo documentRepo;
+    private final DocumentContentRepo documentContentRepo;
+    private final DocumentPermissionRepo documentPermissionRepo;
+    private final PermissionIndex permissionIndex;
+    private final DocumentCache documentCache;
+    private final PermissionDecisionCache decisionCache;
+    private final AuditLog auditLog;
+    private final AccessCheckBatcher accessCheckBatcher;
+    private final ContentStore contentStore;
+    private final ReadYourWrites readYourWrites;
+    private final ShardRouter shardRouter;
+    private final EntityManager entityManager;
 
     private static final String ADMIN = "admin";
 
+    // keeps IN lists well below the database limits
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    // bulk creation flushes and clears the persistence context after this many documents
+    private static final int BULK_FLUSH_SIZE = 1000;
+
     /**
      * Constructs a new {@code DocumentService} with the provided {@link DocumentRepo}.
      *
-     * @param documentRepo the repository used to manage document data access
+     * @param documentRepo           the repository used to manage document data access
+     * @param documentContentRepo    the repository used to manage document bodies
+     * @param documentPermissionRepo the repository used to grant permissions in bulk
+     * @param permissionIndex        the in-memory index used to answer permission checks
+     * @param documentCache          the cache of single documents
+     * @param decisionCache          the cache of permission check outcomes, used when the index is disabled
+     * @param auditLog               the log recording every committed creation, grant and delete
+     * @param accessCheckBatcher     combines concurrent database access checks, used when the index is disabled
+     * @param contentStore           the files holding uploaded document bodies
+     * @param readYourWrites         decides whether read-only calls may read from the replica
+     * @param shardRouter            places documents on shards and queries every shard for listings
+     * @param entityManager          the entity manager used to detach streamed documents
      */
-    public DocumentService(final DocumentRepo documentRepo) {
+    public DocumentService(final DocumentRepo documentRepo, final DocumentContentRepo documentContentRepo,
+                           final DocumentPermissionRepo documentPermissionRepo, final PermissionIndex permissionIndex,
+                           final DocumentCache documentCache, final PermissionDecisionCache decisionCache,
+                           final AuditLog auditLog, final AccessCheckBatcher accessCheckBatcher,
+                           final ContentStore contentStore, final ReadYourWrites readYourWrites,
+                           final ShardRouter shardRouter, final EntityManager entityManager) {
         this.documentRepo = documentRepo;
+        this.documentContentRepo = documentContentRepo;
+        this.documentPermissionRepo = documentPermissionRepo;
+        this.permissionIndex = permissionIndex;
+        this.documentCache = documentCache;
+        this.decisionCache = decisionCache;
+        this.auditLog = auditLog;
+        this.accessCheckBatcher = accessCheckBatcher;
+        this.contentStore = contentStore;
+        this.readYourWrites = readYourWrites;
+        this.shardRouter = shardRouter;
+        this.entityManager = entityManager;
     }
 
     /**
      * Creates a new document after validating the input model and user permissions.
+     * The document is placed on the next shard, round-robin, see {@link ShardRouter}.
      *
      * @param model    the {@link DocumentModel} containing the document data
      * @param username the username of the creator
@@ -52,170 +144,1130 @@ public class DocumentService {
      * @throws BadRequestException if validation fails
      * @throws AccessDeniedException if the user is not authorized
      */
+    @Transactional
     public DocumentModel createDocument(final DocumentModel model, final String username) {
 
         CreateDocumentValidation.validate(model, username);
 
-        model.setCreatedBy(username);
-        model.setCreatedAt(LocalDateTime.now());
-        model.setUpdatedAt(LocalDateTime.now());
-        Document document = DocumentModelMapper.toEntity(model);
+        return shardRouter.onShard(shardRouter.nextShard(), () -> {
+            model.setCreatedBy(username);
+            model.setCreatedAt(LocalDateTime.now());
+            model.setUpdatedAt(LocalDateTime.now());
+            Document document = documentRepo.save(DocumentModelMapper.toEntity(model));
+            documentContentRepo.save(DocumentModelMapper.toContentEntity(model, document));
+            // a pooled ID needs no statement, the inserts must reach the shard before it is unbound
+            entityManager.flush();
+            publishAtCommit(List.of(document.getId()));
+            afterCommit(() -> {
+                readYourWrites.recordWrite(username, List.of(document.getId()));
+                permissionIndex.addDocument(document);
+                documentCache.evict(document.getId());
+                decisionCache.evictDocument(document.getId());
+                auditLog.appendAll(createdRecords(username, document));
+            });
+
+            DocumentModel created = DocumentModelMapper.toModel(document);
+            created.setContent(model.getContent());
+            return created;
+        });
+    }
+
+    /**
+     * Creates many documents in one transaction.
+     * Every document is validated first and all invalid items are reported together.
+     * Inserts are sent in JDBC batches, IDs being pooled from sequences, and the persistence context
+     * is flushed and cleared every {@value #BULK_FLUSH_SIZE} documents so memory use stays flat.
+     * All documents go to the same shard, so the request stays atomic.
+     *
+     * @param models   the {@link DocumentModel}s to create, with their content and permissions
+     * @param username the username of the creator
+     * @return the IDs of the created documents, in request order
+     * @throws BadRequestException   if the request or any document is invalid
+     * @throws AccessDeniedException if the user is not authorized
+     */
+    @Transactional
+    public List<Long> createDocuments(final List<DocumentModel> models, final String username) {
+
+        BulkCreateDocumentValidation.validate(models, username);
+
+        return shardRouter.onShard(shardRouter.nextShard(), () -> insertDocuments(models, username));
+    }
+
+    /**
+     * Inserts the documents of a bulk creation on the shard bound to the current thread.
+     *
+     * @param models   the validated {@link DocumentModel}s
+     * @param username the username of the creator
+     * @return the IDs of the created documents, in request order
+     */
+    private List<Long> insertDocuments(final List<DocumentModel> models, final String username) {
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Document> created = new ArrayList<>(models.size());
+
+        for (int from = 0; from < models.size(); from += BULK_FLUSH_SIZE) {
+
+            List<Document> documents = new ArrayList<>();
+            List<DocumentContent> contents = new ArrayList<>();
+
+            for (DocumentModel model : models.subList(from, Math.min(from + BULK_FLUSH_SIZE, models.size()))) {
+                model.setCreatedBy(username);
+                model.setCreatedAt(now);
+                model.setUpdatedAt(now);
+
+                Document document = DocumentModelMapper.toEntity(model);
+                documents.add(document);
+                contents.add(DocumentModelMapper.toContentEntity(model, document));
+            }
+
+            documentRepo.saveAll(documents);
+            documentContentRepo.saveAll(contents);
+            entityManager.flush();
+            entityManager.clear();
+            created.addAll(documents);
+        }
+
+        List<Long> ids = created.stream().map(Document::getId).toList();
+        publishAtCommit(ids);
+        afterCommit(() -> {
+            readYourWrites.recordWrite(username, ids);
+            permissionIndex.addDocuments(created);
+            ids.forEach(documentCache::evict);
+            decisionCache.evictDocuments(ids);
+            auditLog.appendAll(created.stream().flatMap(document -> createdRecords(username, document).stream()).toList());
+        });
+
+        return ids;
+    }
+
+    /**
+     * Builds the audit records of a new document: its creation followed by one grant per initial permission.
+     *
+     * @param username the creator
+     * @param document the saved document
+     * @return the records, in order
+     */
+    private static List<AuditRecord> createdRecords(final String username, final Document document) {
+
+        List<AuditRecord> records = new ArrayList<>();
+        records.add(AuditRecord.created(username, document.getId()));
+        document.getAccessibleUsers().forEach(permission -> records.add(AuditRecord.granted(username,
+                document.getId(), permission.getUsername(), permission.getPermissionType())));
+        return records;
+    }
+
+    /**
+     * Retrieves one page of the documents accessible by the given user.
+     * Pages are read with keyset pagination: each page starts strictly after the position
+     * encoded in the cursor, so the cost of a page does not depend on how deep the client is.
+     * Every shard reads its own page in parallel and the pages are merged in listing order.
+     *
+     * @param username the username of the requester
+     * @param cursor   the continuation token returned with the previous page, or {@code null} for the first page
+     * @param limit    the maximum number of documents to return
+     * @param sort     the listing order
+     * @return the {@link DocumentPage} with the documents accessible by the user and the next cursor
+     * @throws BadRequestException if the paging parameters are invalid
+     */
+    @Transactional(readOnly = true)
+    public DocumentPage getDocuments(final String username, final String cursor,
+                                     final int limit, final DocumentSort sort) {
+
+        ListDocumentsValidation.validate(username, limit);
+        DocumentCursor position = DocumentCursor.decode(cursor, sort);
+        readYourWrites.routeReads(username, List.of());
+
+        // one extra row per shard tells whether another page follows, permissions are mapped in the shard's transaction
+        List<List<PageEntry>> pages = shardRouter.scatter(shard -> findPage(username, position, Limit.of(limit + 1))
+                .stream().map(doc -> new PageEntry(doc, DocumentModelMapper.toModel(doc))).toList());
+        List<PageEntry> entries = pages.size() == 1
+                ? pages.get(0)
+                : pages.stream()
+                        .flatMap(List::stream)
+                        .sorted(Comparator.comparing(PageEntry::document, pageOrder(sort)))
+                        .toList();
 
-        return DocumentModelMapper.toModel(documentRepo.save(document));
+        String nextCursor = null;
+        if (entries.size() > limit) {
+            entries = entries.subList(0, limit);
+            nextCursor = DocumentCursor.after(sort, entries.get(limit - 1).document()).encode();
+        }
+
+        List<Document> docs = entries.stream().map(PageEntry::document).toList();
+        return new DocumentPage(entries.stream().map(PageEntry::model).toList(), nextCursor,
+                fingerprint(docs, nextCursor));
     }
 
     /**
-     * Retrieves a list of documents accessible by the given user.
+     * A document read for a page and its model.
+     *
+     * @param document the document, detached once its shard's transaction ends
+     * @param model    the model, with permissions
+     */
+    private record PageEntry(Document document, DocumentModel model) {
+    }
+
+    /**
+     * Returns the order of a listing, the one of the page queries.
+     *
+     * @param sort the listing order
+     * @return the {@link Comparator}
+     */
+    private static Comparator<Document> pageOrder(final DocumentSort sort) {
+
+        Comparator<Document> byId = Comparator.comparing(Document::getId);
+        return sort == DocumentSort.UPDATED_AT
+                ? Comparator.comparing(Document::getUpdatedAt).thenComparing(byId)
+                : byId;
+    }
+
+    /**
+     * Digests the IDs and versions of the given documents and the next cursor,
+     * without touching their permissions or content.
+     *
+     * @param docs       the documents of the page
+     * @param nextCursor the continuation token, or {@code null}
+     * @return the hex digest
+     */
+    private static String fingerprint(final List<Document> docs, final String nextCursor) {
+
+        StringBuilder builder = new StringBuilder();
+        docs.forEach(doc -> builder.append(doc.getId()).append(':').append(doc.getVersion()).append(';'));
+        builder.append(nextCursor);
+        return DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the page that follows the given position.
+     * Admin users see every document, other users only documents they can READ.
      *
      * @param username the username of the requester
-     * @return a list of {@link DocumentModel} instances accessible by the user
+     * @param position the position of the last document of the previous page
+     * @param limit    the maximum number of documents to return
+     * @return the documents of the page
      */
-    public List<DocumentModel> getDocuments(final String username) {
+    private List<Document> findPage(final String username, final DocumentCursor position, final Limit limit) {
 
         if (ADMIN.equals(username)) {
-            return documentRepo
-              .findAll()
-              .stream()
-              .map(DocumentModelMapper::toModel).toList();
+            return position.getSort() == DocumentSort.UPDATED_AT
+                    ? documentRepo.findPageOrderByUpdatedAt(position.getUpdatedAt(), position.getId(), limit)
+                    : documentRepo.findPageOrderById(position.getId(), limit);
         }
 
         // Only documents where user has READ permission
-        List<Document> docs = documentRepo.findByUsernameAndPermission(username, PermissionType.READ);
-        return docs.stream().map(DocumentModelMapper::toModel).toList();
+        return position.getSort() == DocumentSort.UPDATED_AT
+                ? documentRepo.findPageByUsernameAndPermissionOrderByUpdatedAt(username, PermissionType.READ,
+                        position.getUpdatedAt(), position.getId(), limit)
+                : documentRepo.findPageByUsernameAndPermissionOrderById(username, PermissionType.READ,
+                        position.getId(), limit);
+    }
+
+    /**
+     * Retrieves the documents accessible by the given user that changed after the given cursor,
+     * in the order of their last change. Creations, permission grants and deletes are all reported,
+     * a document appearing once with its current state and permissions, so downstream indexers can
+     * stay in sync without reading the whole catalog.
+     * Deletes remain visible until the tombstone is purged, see {@code doc-control.purge.retention}.
+     * Each shard numbers its own changes and the cursor keeps a position per shard;
+     * the feeds of the shards are read in parallel and interleaved by change time.
+     *
+     * @param username the username of the requester
+     * @param cursor   the cursor returned by the previous call, or {@code null} to read the feed from the start
+     * @param limit    the maximum number of changes to return
+     * @return the {@link DocumentChangePage} with the changes and the cursor to poll with next
+     * @throws BadRequestException if the username, limit or cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public DocumentChangePage getChanges(final String username, final String cursor, final int limit) {
+
+        ListDocumentsValidation.validate(username, limit);
+        ChangeCursor position = ChangeCursor.decode(cursor);
+
+        // one extra row per shard tells whether more changes follow
+        List<List<ChangeEntry>> feeds = shardRouter.scatter(shard -> {
+            long afterSeq = position.getChangeSeq(shard);
+            List<Document> docs = ADMIN.equals(username)
+                    ? documentRepo.findChangesAfter(afterSeq, limit + 1)
+                    : documentRepo.findChangesByUsernameAndPermissionAfter(username, PermissionType.READ.name(),
+                            afterSeq, limit + 1);
+
+            return docs.stream()
+                    .map(doc -> new ChangeEntry(doc.getChangeSeq(), doc.getDeletedAt() != null
+                            ? new DocumentChange(doc.getId(), ChangeType.DELETED, doc.getDeletedAt(), null)
+                            : new DocumentChange(doc.getId(), ChangeType.UPSERTED, doc.getUpdatedAt(),
+                                    DocumentModelMapper.toModel(doc))))
+                    .toList();
+        });
+
+        long[] nextSeqs = new long[feeds.size()];
+        int[] heads = new int[feeds.size()];
+        List<DocumentChange> changes = new ArrayList<>();
+
+        // takes the earliest head until the page is full, so each shard advances by a prefix of its own feed
+        while (changes.size() < limit) {
+            int next = -1;
+            for (int shard = 0; shard < feeds.size(); shard++) {
+                if (heads[shard] < feeds.get(shard).size() && (next < 0
+                        || feeds.get(shard).get(heads[shard]).isBefore(feeds.get(next).get(heads[next])))) {
+                    next = shard;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+
+            ChangeEntry entry = feeds.get(next).get(heads[next]++);
+            changes.add(entry.change());
+            nextSeqs[next] = entry.changeSeq();
+        }
+
+        boolean hasMore = false;
+        for (int shard = 0; shard < feeds.size(); shard++) {
+            hasMore |= heads[shard] < feeds.get(shard).size();
+            if (heads[shard] == 0) {
+                nextSeqs[shard] = position.getChangeSeq(shard);
+            }
+        }
+        return new DocumentChangePage(changes, ChangeCursor.after(nextSeqs).encode(), hasMore);
+    }
+
+    /**
+     * A change read from the feed of one shard.
+     *
+     * @param changeSeq the change sequence of the document on its shard
+     * @param change    the change
+     */
+    private record ChangeEntry(long changeSeq, DocumentChange change) {
+
+        /**
+         * Tells whether this change happened before another, by change time then document ID.
+         *
+         * @param other the other change
+         * @return {@code true} if this change comes first
+         */
+        boolean isBefore(final ChangeEntry other) {
+            int byTime = change.getChangedAt().compareTo(other.change().getChangedAt());
+            return byTime < 0 || byTime == 0 && change.getDocumentId() < other.change().getDocumentId();
+        }
     }
 
     /**
-     * Retrieves a single document by its ID if the user is authorized to access it.
+     * Streams every document accessible by the given user, in ID order, to the given consumer.
+     * Rows are read from the database in batches and each entity is detached as soon as it is mapped,
+     * so memory use does not grow with the size of the catalog.
+     * Shards are read one after the other, each in its own transaction; as they hold consecutive ID ranges
+     * the export stays in ID order.
+     *
+     * @param username the username of the requester
+     * @param consumer receives each {@link DocumentModel} in turn
+     * @throws BadRequestException if the username is missing
+     */
+    @Transactional(readOnly = true)
+    public void exportDocuments(final String username, final Consumer<DocumentModel> consumer) {
+
+        ExportDocumentsValidation.validate(username);
+
+        for (int shard = 0; shard < shardRouter.getCount(); shard++) {
+            shardRouter.inTransaction(shard, true, () -> {
+                exportShard(username, consumer);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Streams the documents of the shard bound to the current thread, see {@link #exportDocuments}.
+     *
+     * @param username the username of the requester
+     * @param consumer receives each {@link DocumentModel} in turn
+     */
+    private void exportShard(final String username, final Consumer<DocumentModel> consumer) {
+
+        try (Stream<Document> docs = ADMIN.equals(username)
+                ? documentRepo.streamAll()
+                : documentRepo.streamByUsernameAndPermission(username, PermissionType.READ)) {
+
+            docs.forEach(doc -> {
+                DocumentModel model = DocumentModelMapper.toModel(doc);
+                // cascades to the permissions
+                entityManager.detach(doc);
+                consumer.accept(model);
+            });
+        }
+    }
+
+    /**
+     * Retrieves a single document by its ID, including its content, if the user is authorized to access it.
+     * This is the only read that loads the document body.
+     * The permission check runs on every call, the document itself is served from the {@link DocumentCache}
+     * and only read from the database on a miss, or when another instance changed it, see {@link #cachedVersion}.
+     * Reads may be served by the replica, see {@link ReadYourWrites}.
      *
      * @param documentId the ID of the document to retrieve
      * @param username   the username of the requester
      * @return the {@link DocumentModel} representation of the requested document
-     * @throws EntityNotFoundException if the document does not exist
-     * @throws AccessDeniedException   if the user does not have READ permission
+     * @throws ResourceNotFoundException if the document does not exist
+     * @throws AccessDeniedException     if the user does not have READ permission
      */
+    @Transactional(readOnly = true)
     public DocumentModel getDocument(final Long documentId, final String username) {
 
-        Document doc = this.findById(documentId);
-        checkPermission(doc, username, PermissionType.READ);
-        return DocumentModelMapper.toModel(doc);
+        readYourWrites.routeReads(username, List.of(documentId));
+
+        return shardRouter.onShardOf(documentId, () -> {
+            Supplier<Optional<Long>> version = cachedVersion(documentId);
+            checkPermission(documentId, username, PermissionType.READ, version);
+
+            return documentCache.get(documentId, version, () -> {
+                DocumentModel model = DocumentModelMapper.toModel(this.findById(documentId));
+                documentContentRepo.findContentByDocumentId(documentId).ifPresent(model::setContent);
+                return model;
+            });
+        });
+    }
+
+    /**
+     * Returns the current version of a document, for conditional requests.
+     * Only the version column is read, the document is neither loaded nor mapped.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester
+     * @return the document version
+     * @throws ResourceNotFoundException if the document does not exist
+     * @throws AccessDeniedException     if the user does not have READ permission
+     */
+    public Long getDocumentVersion(final Long documentId, final String username) {
+
+        return shardRouter.onShardOf(documentId, () -> {
+            Supplier<Optional<Long>> version = SingletonSupplier.of(() -> documentRepo.findVersionById(documentId));
+            checkPermission(documentId, username, PermissionType.READ, permissionIndex.isEnabled() ? null : version);
+
+            return version.get()
+                    .orElseThrow(() -> new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND));
+        });
+    }
+
+    /**
+     * Stores the body of a document as a file of the {@link ContentStore}, replacing any previous upload.
+     * The body is streamed to disk without being held in memory, compressed on the way for text file types,
+     * and the document only points at the new file once it is complete, so concurrent downloads keep reading
+     * the previous body until then.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester
+     * @param body       the body, read to its end
+     * @throws ResourceNotFoundException if the document does not exist
+     * @throws AccessDeniedException     if the user does not have WRITE permission
+     * @throws BadRequestException       if the body exceeds {@code doc-control.content.max-size}
+     * @throws ConflictException         if another upload replaced the body meanwhile
+     */
+    public void uploadContent(final Long documentId, final String username, final InputStream body) {
+
+        shardRouter.runOnShardOf(documentId, () -> {
+            checkPermission(documentId, username, PermissionType.WRITE);
+
+            DocumentContentView view = findContentView(documentId);
+            replaceContent(documentId, username, view.getContentPath(),
+                    contentStore.write(documentId, view.getFileType(), body));
+        });
+    }
+
+    /**
+     * Starts a resumable upload of the body of a document. Chunks are then sent with {@link #appendUpload}
+     * and the body replaces the current one when {@link #completeUpload} is called.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester
+     * @return the upload ID
+     * @throws ResourceNotFoundException if the document does not exist
+     * @throws AccessDeniedException     if the user does not have WRITE permission
+     */
+    public String startUpload(final Long documentId, final String username) {
+
+        return shardRouter.onShardOf(documentId, () -> {
+            checkPermission(documentId, username, PermissionType.WRITE);
+            return contentStore.startUpload(documentId);
+        });
+    }
+
+    /**
+     * Returns the number of bytes of a resumable upload already stored, where the client resumes.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester
+     * @param uploadId   the upload ID returned by {@link #startUpload}
+     * @return the offset of the next chunk
+     * @throws ResourceNotFoundException if the document or the upload does not exist
+     * @throws AccessDeniedException     if the user does not have WRITE permission
+     */
+    public long getUploadOffset(final Long documentId, final String username, final String uploadId) {
+
+        return shardRouter.onShardOf(documentId, () -> {
+            checkPermission(documentId, username, PermissionType.WRITE);
+            return contentStore.uploadOffset(documentId, uploadId);
+        });
+    }
+
+    /**
+     * Appends a chunk to a resumable upload, streamed to disk without being held in memory.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester
+     * @param uploadId   the upload ID returned by {@link #startUpload}
+     * @param offset     the offset of the chunk, which must be the current size of the upload
+     * @param chunk      the chunk, read to its end
+     * @return the offset after the chunk
+     * @throws ResourceNotFoundException if the document or the upload does not exist
+     * @throws AccessDeniedException     if the user does not have WRITE permission
+     * @throws ConflictException         if the offset is not the current size of the upload
+     * @throws BadRequestException       if the upload would exceed {@code doc-control.content.max-size}
+     */
+    public long appendUpload(final Long documentId, final String username, final String uploadId,
+                             final long offset, final InputStream chunk) {
+
+        return shardRouter.onShardOf(documentId, () -> {
+            checkPermission(documentId, username, PermissionType.WRITE);
+            return contentStore.appendUpload(documentId, uploadId, offset, chunk);
+        });
+    }
+
+    /**
+     * Completes a resumable upload, the assembled body replacing the current body of the document.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester
+     * @param uploadId   the upload ID returned by {@link #startUpload}
+     * @return the size of the body in bytes
+     * @throws ResourceNotFoundException if the document or the upload does not exist
+     * @throws AccessDeniedException     if the user does not have WRITE permission
+     * @throws ConflictException         if another upload replaced the body meanwhile
+     */
+    public long completeUpload(final Long documentId, final String username, final String uploadId) {
+
+        return shardRouter.onShardOf(documentId, () -> {
+            checkPermission(documentId, username, PermissionType.WRITE);
+
+            DocumentContentView view = findContentView(documentId);
+            StoredContent stored = contentStore.completeUpload(documentId, uploadId, view.getFileType());
+            replaceContent(documentId, username, view.getContentPath(), stored);
+            return stored.length();
+        });
+    }
+
+    /**
+     * Abandons a resumable upload.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester
+     * @param uploadId   the upload ID returned by {@link #startUpload}
+     * @throws ResourceNotFoundException if the document does not exist
+     * @throws AccessDeniedException     if the user does not have WRITE permission
+     */
+    public void cancelUpload(final Long documentId, final String username, final String uploadId) {
+
+        shardRouter.runOnShardOf(documentId, () -> {
+            checkPermission(documentId, username, PermissionType.WRITE);
+            contentStore.cancelUpload(documentId, uploadId);
+        });
+    }
+
+    /**
+     * Points a document at a newly stored body and deletes the body it replaces.
+     * The update only applies if the document still points at {@code previous}, the new file is deleted instead
+     * if the document cannot be updated, so a body is never deleted twice nor left unreferenced.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester
+     * @param previous   the path of the current body, or {@code null}
+     * @param stored     the new body
+     * @throws ResourceNotFoundException if the document was deleted meanwhile
+     * @throws ConflictException         if another upload replaced the body meanwhile
+     */
+    private void replaceContent(final Long documentId, final String username, final String previous,
+                                final StoredContent stored) {
+
+        int updated;
+        try {
+            updated = documentRepo.updateContentAndPublish(documentId, previous, stored.path(), stored.length(),
+                    stored.encoding().name());
+        } catch (RuntimeException e) {
+            contentStore.delete(stored.path());
+            throw e;
+        }
+
+        // the document was deleted or another upload replaced the body while this one was being written
+        if (updated == 0) {
+            contentStore.delete(stored.path());
+            if (documentRepo.findContentViewById(documentId).isPresent()) {
+                throw new ConflictException(ErrorMessages.CONTENT_REPLACED);
+            }
+            throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+        }
+
+        if (previous != null) {
+            contentStore.delete(previous);
+        }
+        readYourWrites.recordWrite(username, List.of(documentId));
+        documentCache.evict(documentId);
+    }
+
+    /**
+     * Returns the uploaded body of a document, to be streamed straight from disk.
+     * Only the content columns are read, the document is neither loaded nor mapped.
+     *
+     * @param documentId the ID of the document
+     * @param username   the username of the requester
+     * @return the {@link ContentFile}, or empty if no body was uploaded for the document
+     * @throws ResourceNotFoundException if the document does not exist
+     * @throws AccessDeniedException     if the user does not have READ permission
+     */
+    public Optional<ContentFile> getContentFile(final Long documentId, final String username) {
+
+        return shardRouter.onShardOf(documentId, () -> {
+            checkPermission(documentId, username, PermissionType.READ);
+
+            DocumentContentView view = findContentView(documentId);
+            if (view.getContentPath() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new ContentFile(contentStore.resolve(view.getContentPath()),
+                    view.getContentLength(), view.getFileType(), view.getVersion(),
+                    Objects.requireNonNullElse(view.getContentEncoding(), ContentEncoding.IDENTITY)));
+        });
+    }
+
+    /**
+     * Reads the content columns of a document.
+     *
+     * @param documentId the ID of the document
+     * @return the {@link DocumentContentView}
+     * @throws ResourceNotFoundException if the document does not exist
+     */
+    private DocumentContentView findContentView(final Long documentId) {
+        return documentRepo.findContentViewById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND));
     }
 
     /**
      * Checks whether the given user has the required permission on the specified document.
+     * The check is answered by the {@link PermissionIndex} and does not touch the database,
+     * unless the index is disabled, in which case the outcome of ID-only queries, denials included,
+     * is kept in the {@link PermissionDecisionCache}.
      *
-     * @param doc               the document to check permissions against
-     * @param username          the username of the requester
+     * @param documentId         the ID of the document to check permissions against
+     * @param username           the username of the requester
      * @param requiredPermission the required {@link PermissionType} (e.g., READ or WRITE)
-     * @throws AccessDeniedException if the user lacks the required permission
+     * @throws ResourceNotFoundException if the document does not exist
+     * @throws AccessDeniedException     if the user lacks the required permission
+     */
+    private void checkPermission(final Long documentId, final String username, final PermissionType requiredPermission) {
+        checkPermission(documentId, username, requiredPermission, cachedVersion(documentId));
+    }
+
+    /**
+     * Checks a permission as {@link #checkPermission(Long, String, PermissionType)} does,
+     * validating a cached decision with the given version.
+     *
+     * @param documentId         the ID of the document to check permissions against
+     * @param username           the username of the requester
+     * @param requiredPermission the required {@link PermissionType}
+     * @param version            see {@link #cachedVersion}
+     * @throws ResourceNotFoundException if the document does not exist
+     * @throws AccessDeniedException     if the user lacks the required permission
      */
-    private void checkPermission(final Document doc, final String username, final PermissionType requiredPermission) {
+    private void checkPermission(final Long documentId, final String username, final PermissionType requiredPermission,
+                                 final Supplier<Optional<Long>> version) {
 
-        if (ADMIN.equals(username)) return;
+        Decision decision = permissionIndex.isEnabled()
+                ? decide(documentId, username, requiredPermission)
+                : decisionCache.get(username, documentId, requiredPermission, version,
+                        () -> decide(documentId, username, requiredPermission));
 
-        boolean hasPermission = doc.getAccessibleUsers().stream()
-                .anyMatch(p -> p.getUsername().equals(username)
-                  && p.getPermissionType().equals(requiredPermission));
+        if (decision == Decision.NOT_FOUND) {
+            throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+        }
 
-        if (!hasPermission) {
+        if (decision == Decision.DENIED) {
             throw new AccessDeniedException(ErrorMessages.ACCESS_DENIED_ADMIN_OR_HAS_PERMISSION, requiredPermission.name());
         }
     }
 
+    /**
+     * Reads the version of a document once, to validate the entries of the {@link DocumentCache}
+     * and the {@link PermissionDecisionCache}. Their evictions only reach this instance,
+     * and several instances run with the permission index disabled, so a cached entry of another version
+     * is computed again. A single instance keeps the index enabled, every change then evicts what it affects
+     * and hits are trusted without a query.
+     *
+     * @param documentId the ID of the document
+     * @return reads the version, empty if the document does not exist,
+     * or {@code null} when the permission index is enabled
+     */
+    private Supplier<Optional<Long>> cachedVersion(final Long documentId) {
+        return permissionIndex.isEnabled() ? null : SingletonSupplier.of(() -> documentRepo.findVersionById(documentId));
+    }
+
+    /**
+     * Decides whether the given user has the required permission on the specified document,
+     * from the {@link PermissionIndex} or, when it is disabled, from the database.
+     *
+     * @param documentId         the ID of the document to check permissions against
+     * @param username           the username of the requester
+     * @param requiredPermission the required {@link PermissionType}
+     * @return the {@link Decision}
+     */
+    private Decision decide(final Long documentId, final String username, final PermissionType requiredPermission) {
+
+        boolean exists = permissionIndex.isEnabled()
+                ? permissionIndex.exists(documentId)
+                : documentRepo.existsById(documentId);
+
+        if (!exists) {
+            return Decision.NOT_FOUND;
+        }
+
+        if (ADMIN.equals(username)) return Decision.GRANTED;
+
+        boolean hasPermission = permissionIndex.isEnabled()
+                ? permissionIndex.hasPermission(username, documentId, requiredPermission)
+                : documentRepo.hasPermission(documentId, username, requiredPermission);
+
+        return hasPermission ? Decision.GRANTED : Decision.DENIED;
+    }
+
     /**
      * Deletes a document by its ID if the user has DELETE permission.
+     * The document is only marked with a tombstone, which hides it from every read at once;
+     * its content and permissions are removed later by {@link #purgeDeleted}, so the cost of the request
+     * does not grow with the size of the document's ACL.
      *
      * @param documentId the ID of the document to delete
      * @param username   the username of the requester
      *
      * @throws ResourceNotFoundException if the document does not exist
-=     */
+     * @throws AccessDeniedException     if the user does not have DELETE permission
+     */
+    @Transactional
     public void deleteDocument(final Long documentId, final String username) {
 
-        Document doc = this.findById(documentId);
-        checkPermission(doc, username, PermissionType.DELETE);
-        documentRepo.delete(doc);
+        shardRouter.runOnShardOf(documentId, () -> {
+            checkPermission(documentId, username, PermissionType.DELETE);
+
+            // a concurrent delete got there first
+            if (documentRepo.markDeleted(documentId, LocalDateTime.now()) == 0) {
+                throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+            }
+
+            publishAtCommit(List.of(documentId));
+            afterCommit(() -> {
+                readYourWrites.recordWrite(username, List.of(documentId));
+                permissionIndex.removeDocument(documentId);
+                documentCache.evict(documentId);
+                decisionCache.evictDocument(documentId);
+                auditLog.append(AuditRecord.deleted(username, documentId));
+            });
+        });
     }
 
     /**
-     * Grants or updates permission for a user on a specific document.
+     * Removes the oldest deleted documents together with their permissions and content,
+     * with one set-based DELETE per table. Uploaded body files are deleted once the transaction commits.
+     * Works on the shard bound to the current thread, see {@link ShardRouter#onShard}.
+     *
+     * @param deletedBefore only documents deleted before this time are removed
+     * @param limit         the maximum number of documents to remove, at most {@value #ID_CHUNK_SIZE}
+     * @return the number of documents removed, less than {@code limit} once no tombstone is left
+     */
+    @Transactional
+    public int purgeDeleted(final LocalDateTime deletedBefore, final int limit) {
+
+        List<Long> ids = documentRepo.findDeletedIds(deletedBefore, Math.min(limit, ID_CHUNK_SIZE));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<String> contentPaths = documentRepo.findContentPaths(ids);
+        documentPermissionRepo.deleteByDocumentIds(ids);
+        documentContentRepo.deleteByDocumentIds(ids);
+        int purged = documentRepo.purge(ids);
+
+        afterCommit(() -> contentPaths.forEach(contentStore::delete));
+        return purged;
+    }
+
+    /**
+     * Grants a permission to a user on a specific document.
+     * The caller's WRITE check is answered by the {@link PermissionIndex} and the grant is a single MERGE
+     * keyed on (document, user, permission), so the document and its permissions are never loaded
+     * and the cost does not grow with the size of the document's ACL.
+     * The document row is locked first, which serializes the grant with other grants and with a delete.
+     * Granting a permission the user already holds is a no-op.
      *
      * @param documentId the ID of the document to which the permission applies
      * @param username the username of the user performing the action (must be admin or have WRITE permission)
      * @param model the permission model containing the target user's username and the permission type
+     * @throws ResourceNotFoundException if the document does not exist
      * @throws AccessDeniedException if the user is not admin and does not have WRITE permission on the document
      */
+    @Transactional
     public void grantPermission(final Long documentId, final String username,
                                 final DocumentPermissionModel model) {
 
         CreateDocumentPermissionValidation.validate(model, username);
 
-        Document doc = this.findById(documentId);
+        if (model.getPermission() == null) {
+            throw new BadRequestException(ErrorMessages.MISSING_FIELD);
+        }
+
+        shardRouter.runOnShardOf(documentId, () -> grantOnShard(documentId, username, model));
+    }
+
+    /**
+     * Grants a permission on the shard bound to the current thread, see {@link #grantPermission}.
+     *
+     * @param documentId the ID of the document to which the permission applies
+     * @param username   the username of the user performing the action
+     * @param model      the permission model containing the target user's username and the permission type
+     */
+    private void grantOnShard(final Long documentId, final String username, final DocumentPermissionModel model) {
 
-        if (!ADMIN.equals(username)) {
-            // Must have WRITE permission
-            checkPermission(doc, username, PermissionType.WRITE);
+        // Must be admin or have WRITE permission
+        checkPermission(documentId, username, PermissionType.WRITE);
+
+        // the document was deleted after the check
+        if (documentRepo.lockActive(List.of(documentId)).isEmpty()) {
+            throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
         }
 
-        // Add or update permission for target user
-        DocumentPermission documentPermission =
-                doc.getAccessibleUsers()
-                .stream()
-                .filter(p -> p.getUsername().equals(model.getUsername()))
-                .findFirst()
-                .orElse(null);
+        int granted = documentPermissionRepo.grant(documentId, model.getUsername(), model.getPermission().name());
+
+        // the ACL changed, invalidate the ETag and publish the change
+        if (granted > 0) {
+            if (documentRepo.incrementVersions(List.of(documentId)) == 0) {
+                throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+            }
+            publishAtCommit(List.of(documentId));
+        }
+
+        afterCommit(() -> {
+            readYourWrites.recordWrite(username, List.of(documentId));
+            permissionIndex.grant(documentId, model.getUsername(), model.getPermission());
+            documentCache.evict(documentId);
+            decisionCache.evict(documentId, model.getUsername());
+
+            // a repeated grant changes nothing
+            if (granted > 0) {
+                auditLog.append(AuditRecord.granted(username, documentId, model.getUsername(), model.getPermission()));
+            }
+        });
+    }
+
+    /**
+     * Grants one or more permissions to many users on many documents in one transaction.
+     * Rows are written with one set-based INSERT ... SELECT per permission type and
+     * chunk of {@value #ID_CHUNK_SIZE} documents, existing permissions are left untouched.
+     * With several shards each shard runs its own transaction, opened inside the one of the shard before it
+     * in ascending shard order, so every shard is locked and written before any of them commits:
+     * a document deleted meanwhile, or any other error while granting, rolls back every shard.
+     * The shards then commit one after the other, from the last one; only a failure of the database while
+     * committing can leave the grants of some shards in place, and repeating the request completes them,
+     * as the permissions already granted are skipped.
+     *
+     * @param username the username of the user performing the action (must be admin or have WRITE permission on every document)
+     * @param request  the documents, target users and permission types
+     * @return the number of permissions actually granted
+     * @throws BadRequestException       if the request is invalid
+     * @throws ResourceNotFoundException if any document does not exist
+     * @throws AccessDeniedException     if the user is not admin and lacks WRITE permission on any document
+     */
+    @Transactional
+    public int grantPermissions(final String username, final BulkGrantPermissionRequest request) {
+
+        BulkGrantPermissionValidation.validate(request, username);
 
-        if (documentPermission == null) {
+        List<Long> documentIds = request.getDocumentIds().stream().distinct().sorted().toList();
+        List<String> usernames = request.getUsernames().stream().distinct().toList();
+        List<PermissionType> permissions = request.getPermissions().stream().distinct().toList();
 
-            DocumentPermissionModel permissionModel =  new DocumentPermissionModel();
+        if (findExisting(documentIds).size() < documentIds.size()) {
+            throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+        }
 
-            permissionModel.setUsername(model.getUsername());
-            permissionModel.setPermission(model.getPermission());
-            permissionModel.setCreatedAt(LocalDateTime.now());
-            doc.getAccessibleUsers().add(DocumentPermissionModelMapper.toEntity(permissionModel));
+        // Must be admin or have WRITE permission on every document
+        if (!ADMIN.equals(username)
+                && batchAccessCheck(username, PermissionType.WRITE, documentIds).size() < documentIds.size()) {
+            throw new AccessDeniedException(ErrorMessages.ACCESS_DENIED_ADMIN_OR_HAS_PERMISSION, PermissionType.WRITE.name());
         }
 
-        documentRepo.save(doc);
+        return grantOnShards(username, new ArrayList<>(shardRouter.groupByShard(documentIds).entrySet()), 0,
+                usernames, permissions);
+    }
+
+    /**
+     * Grants the permissions on the shards from the given position on, each shard in a transaction
+     * holding the transactions of the shards after it, see {@link #grantPermissions}.
+     *
+     * @param username    the username of the user performing the action
+     * @param shards      the document IDs of every shard, by ascending shard
+     * @param index       the position of the first shard to grant on
+     * @param usernames   the target users, without duplicates
+     * @param permissions the permission types, without duplicates
+     * @return the number of permissions actually granted
+     */
+    private int grantOnShards(final String username, final List<Map.Entry<Integer, List<Long>>> shards,
+                              final int index, final List<String> usernames, final List<PermissionType> permissions) {
+
+        if (index == shards.size()) {
+            return 0;
+        }
+
+        Map.Entry<Integer, List<Long>> shard = shards.get(index);
+        return shardRouter.inTransaction(shard.getKey(), false, () ->
+                grantAllOnShard(username, shard.getValue(), usernames, permissions)
+                        + grantOnShards(username, shards, index + 1, usernames, permissions));
+    }
+
+    /**
+     * Grants the permissions on documents of the shard bound to the current thread, see {@link #grantPermissions}.
+     *
+     * @param username    the username of the user performing the action
+     * @param documentIds the document IDs, sorted without duplicates
+     * @param usernames   the target users, without duplicates
+     * @param permissions the permission types, without duplicates
+     * @return the number of permissions actually granted
+     * @throws ResourceNotFoundException if a document was deleted since the check
+     */
+    private int grantAllOnShard(final String username, final List<Long> documentIds, final List<String> usernames,
+                                final List<PermissionType> permissions) {
+
+        String[] targetUsers = usernames.toArray(String[]::new);
+        List<DocumentPermissionView> granted = new ArrayList<>();
+        Set<Long> changedIds = new TreeSet<>();
+        for (int from = 0; from < documentIds.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = documentIds.subList(from, Math.min(from + ID_CHUNK_SIZE, documentIds.size()));
+
+            // serialized with single grants on the same documents and with deletes
+            if (documentRepo.lockActive(chunk).size() < chunk.size()) {
+                throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+            }
+
+            List<Long> changed = new ArrayList<>();
+            for (PermissionType permission : permissions) {
+                for (DocumentPermissionView row : documentPermissionRepo.grantAll(chunk, targetUsers, permission.name())) {
+                    granted.add(row);
+                    changed.add(row.getDocumentId());
+                }
+            }
+
+            // the ACL of these documents changed, invalidate their ETags and publish the changes
+            changed = changed.stream().distinct().sorted().toList();
+            if (!changed.isEmpty()) {
+                documentRepo.incrementVersions(changed);
+                publishAtCommit(changed);
+                changedIds.addAll(changed);
+            }
+        }
+
+        // repeated grants change nothing
+        if (granted.isEmpty()) {
+            return 0;
+        }
+
+        afterCommit(() -> {
+            readYourWrites.recordWrite(username, changedIds);
+            permissionIndex.grantAll(granted);
+            changedIds.forEach(documentCache::evict);
+            decisionCache.evictDocuments(changedIds);
+            auditLog.appendAll(granted.stream()
+                    .map(row -> AuditRecord.granted(username, row.getDocumentId(), row.getUsername(),
+                            row.getPermissionType()))
+                    .toList());
+        });
+
+        return granted.size();
     }
 
     /**
      * Checks which documents the user has access to with a specific permission.
+     * The check is a bitmap intersection in the {@link PermissionIndex} and does not touch the database.
+     * When the index is disabled, only document IDs are read, in chunks of {@value #ID_CHUNK_SIZE},
+     * and concurrent checks of non-admin users are answered together by the {@link AccessCheckBatcher}.
+     * The shards holding the IDs are then queried in parallel.
+     * Reads may be served by the replica, see {@link ReadYourWrites}.
      *
      * @param username    the username of the requester
      * @param permission  the permission type to check (READ, WRITE, DELETE)
      * @param documentIds the list of document IDs to verify access for
-     * @return a list of document IDs that the user has access to with the given permission
+     * @return the document IDs, in ascending order, that the user has access to with the given permission
      */
+    @Transactional(readOnly = true)
     public List<Long> batchAccessCheck(final String username,
                                        final PermissionType permission,
                                        final List<Long> documentIds) {
 
+        if (documentIds == null || documentIds.isEmpty()) {
+            return List.of();
+        }
+
+        boolean ownWrites = readYourWrites.routeReads(username, documentIds);
+
         if (ADMIN.equals(username)) {
+            return findExisting(documentIds);
+        }
+
+        if (permissionIndex.isEnabled()) {
+            return permissionIndex.filterAccessible(username, permission, documentIds);
+        }
 
-            return documentRepo.findByIds(documentIds)
-              .stream()
-              .map(Document::getId)
-              .collect(Collectors.toList());
+        // a batch reads wherever its first call reads, a caller that must see its own writes queries alone
+        if (accessCheckBatcher.isEnabled() && !ownWrites) {
+            return findOnShards(documentIds, ids -> accessCheckBatcher.findAccessibleIds(username, permission, ids));
         }
-        // Find documents where user has requested permission and id in documentIds
-        List<Document> accessibleDocs = documentRepo.findByUsernameAndPermission(username, permission);
-        Set<Long> accessibleIds = accessibleDocs.stream()
-                .map(Document::getId)
-                .collect(Collectors.toSet());
 
-        return documentIds.stream()
-                .filter(accessibleIds::contains)
+        return findOnShards(documentIds,
+                ids -> findInChunks(ids, chunk -> documentRepo.findAccessibleIds(username, permission, chunk)));
+    }
+
+    /**
+     * Returns the given IDs that belong to an existing document,
+     * from the {@link PermissionIndex} or, when it is disabled, from the database.
+     *
+     * @param documentIds the document IDs to check
+     * @return the IDs of existing documents, in ascending order without duplicates
+     */
+    private List<Long> findExisting(final List<Long> documentIds) {
+
+        return permissionIndex.isEnabled()
+                ? permissionIndex.filterExisting(documentIds)
+                : findOnShards(documentIds, ids -> findInChunks(ids, documentRepo::findExistingIds));
+    }
+
+    /**
+     * Runs an ID-only query on every shard holding some of the given IDs, in parallel.
+     * A shard holds a range of IDs and shards are visited in ascending order,
+     * so the ascending results of the shards concatenate into one ascending list.
+     *
+     * @param documentIds the document IDs to query
+     * @param query       the query to run on each shard with its own IDs, returning IDs in ascending order
+     * @return the IDs returned by all shards, in ascending order
+     */
+    private List<Long> findOnShards(final List<Long> documentIds, final Function<List<Long>, List<Long>> query) {
+
+        Map<Integer, List<Long>> groups = shardRouter.groupByShard(documentIds);
+        return shardRouter.scatter(groups.keySet(), shard -> query.apply(groups.get(shard))).stream()
+                .flatMap(List::stream)
                 .toList();
     }
 
     /**
-     * Finds a document by its ID.
+     * Runs an ID-only query over the given IDs in chunks of {@value #ID_CHUNK_SIZE}.
+     * The IDs are sorted and de-duplicated first, so that the results of each chunk,
+     * returned in ascending order by the query, can be concatenated.
+     *
+     * @param documentIds the document IDs to query
+     * @param query       the query to run for each chunk
+     * @return the IDs returned by all chunks, in ascending order
+     */
+    private List<Long> findInChunks(final List<Long> documentIds, final Function<List<Long>, List<Long>> query) {
+
+        List<Long> ids = documentIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+
+        List<Long> result = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            result.addAll(query.apply(ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()))));
+        }
+        return result;
+    }
+
+    /**
+     * Runs the given action once the current transaction has committed, or immediately when there is none,
+     * so that in-memory state never reflects a write that was rolled back.
+     *
+     * @param action the action to run
+     */
+    private static void afterCommit(final Runnable action) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Publishes the changes of the given documents to the change feed right before the current transaction commits,
+     * see {@link DocumentRepo#lockChangeFeed}, or at once when there is none.
+     * The documents must already have been written by the transaction, whose locks they keep.
+     *
+     * @param documentIds the IDs of the changed documents
+     */
+    private void publishAtCommit(final Collection<Long> documentIds) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishChanges(documentIds);
+            return;
+        }
+
+        // one publication per transaction, collecting the documents of every write
+        ChangePublication publication = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(ChangePublication.class::isInstance)
+                .map(ChangePublication.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    ChangePublication created = new ChangePublication();
+                    TransactionSynchronizationManager.registerSynchronization(created);
+                    return created;
+                });
+        publication.documentIds.addAll(documentIds);
+    }
+
+    /**
+     * Publishes the changes of the given documents, in chunks of {@value #ID_CHUNK_SIZE}.
+     *
+     * @param documentIds the IDs of the changed documents
+     */
+    private void publishChanges(final Collection<Long> documentIds) {
+
+        List<Long> ids = List.copyOf(documentIds);
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            documentRepo.publishChanges(ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size())));
+        }
+    }
+
+    /**
+     * The documents changed by a transaction, published to the change feed as its last statements.
+     */
+    private final class ChangePublication implements TransactionSynchronization {
+
+        private final Set<Long> documentIds = new TreeSet<>();
+
+        @Override
+        public void beforeCommit(final boolean readOnly) {
+            // pending inserts must reach the database before their change sequences are drawn
+            entityManager.flush();
+            publishChanges(documentIds);
+        }
+    }
+
+    /**
+     * Finds a document by its ID, together with its permissions.
      *
      * @param documentId the ID of the document to retrieve
      * @return the found {@link Document} entity
      * @throws ResourceNotFoundException if no document exists with the given ID
      */
     private Document findById(final Long documentId) {
-        return documentRepo.findById(documentId)
+        return documentRepo.findWithAccessibleUsersById(documentId)
                 .orElseThrow(() -> new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND));
     }
 
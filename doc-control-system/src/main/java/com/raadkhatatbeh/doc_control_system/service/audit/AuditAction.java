@@ -0,0 +1,12 @@
+package com.raadkhatatbeh.doc_control_system.service.audit;
+
+/**
+ * AuditAction Enum representing the changes recorded in the {@link AuditLog}.
+ * The ordinal is written to the log, new actions must be appended at the end.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public enum AuditAction {
+    DOCUMENT_CREATED, PERMISSION_GRANTED, DOCUMENT_DELETED
+}
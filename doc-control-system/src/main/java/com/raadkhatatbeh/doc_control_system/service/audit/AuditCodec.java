@@ -0,0 +1,144 @@
+package com.raadkhatatbeh.doc_control_system.service.audit;
+
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of an {@link AuditRecord}:
+ * <pre>
+ * int  body length
+ * int  CRC32C of the body
+ * body: long sequence, long timestamp, byte action, long documentId, byte permission (-1 if none),
+ *       string actor, string username, each string being a short length (-1 if null) and UTF-8 bytes
+ * </pre>
+ * A zero length marks the unwritten tail of a segment and a CRC mismatch a torn write,
+ * both end the segment for readers.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+final class AuditCodec {
+
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final int FIXED_BODY_SIZE = Long.BYTES * 3 + 2 + Short.BYTES * 2;
+    private static final byte NONE = -1;
+
+    private AuditCodec() {
+    }
+
+    /**
+     * Returns the number of bytes the record takes in the log, header included.
+     *
+     * @param record the record
+     * @return the encoded size
+     * @throws IllegalArgumentException if a name does not fit the record
+     */
+    static int size(final AuditRecord record) {
+
+        int actor = utf8(record.actor()).length;
+        int username = utf8(record.username()).length;
+        if (actor > Short.MAX_VALUE || username > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("audit record field too long");
+        }
+        return HEADER_SIZE + FIXED_BODY_SIZE + actor + username;
+    }
+
+    /**
+     * Writes the record at the current position of the buffer, which must have {@link #size} bytes left.
+     *
+     * @param record the record, with its sequence
+     * @param buffer the destination
+     */
+    static void encode(final AuditRecord record, final ByteBuffer buffer) {
+
+        byte[] actor = utf8(record.actor());
+        byte[] username = utf8(record.username());
+        int start = buffer.position();
+
+        buffer.position(start + HEADER_SIZE);
+        buffer.putLong(record.sequence());
+        buffer.putLong(record.timestamp());
+        buffer.put((byte) record.action().ordinal());
+        buffer.putLong(record.documentId());
+        buffer.put(record.permission() == null ? NONE : (byte) record.permission().ordinal());
+        putString(buffer, record.actor(), actor);
+        putString(buffer, record.username(), username);
+        int end = buffer.position();
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + HEADER_SIZE, end - start - HEADER_SIZE));
+
+        // the length goes last, a reader never sees a length without the body behind it
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(start, end - start - HEADER_SIZE);
+    }
+
+    /**
+     * Reads the record at the current position of the buffer and moves past it.
+     *
+     * @param buffer the source
+     * @return the record, or {@code null} at the end of the written data or on a torn write,
+     * in which case the position is left unchanged
+     */
+    static AuditRecord decode(final ByteBuffer buffer) {
+
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+
+        int length = buffer.getInt(start);
+        int checksum = buffer.getInt(start + Integer.BYTES);
+        if (length < FIXED_BODY_SIZE || length > buffer.remaining() - HEADER_SIZE) {
+            return null;
+        }
+
+        ByteBuffer body = buffer.slice(start + HEADER_SIZE, length);
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+
+        try {
+            long sequence = body.getLong();
+            long timestamp = body.getLong();
+            AuditAction action = AuditAction.values()[body.get()];
+            long documentId = body.getLong();
+            byte permission = body.get();
+            String actor = getString(body);
+            String username = getString(body);
+
+            buffer.position(start + HEADER_SIZE + length);
+            return new AuditRecord(sequence, timestamp, action, actor, documentId, username,
+                    permission == NONE ? null : PermissionType.values()[permission]);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static byte[] utf8(final String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(final ByteBuffer buffer, final String value, final byte[] bytes) {
+        buffer.putShort(value == null ? NONE : (short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(final ByteBuffer buffer) {
+
+        short length = buffer.getShort();
+        if (length == NONE) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
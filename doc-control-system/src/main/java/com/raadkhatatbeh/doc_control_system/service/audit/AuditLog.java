@@ -0,0 +1,309 @@
+package com.raadkhatatbeh.doc_control_system.service.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only audit log of document creations, permission grants and deletes.
+ * Records are encoded by {@link AuditCodec} into segment files of {@code doc-control.audit.segment-size}
+ * bytes under {@code doc-control.audit.dir}, written through memory-mapped buffers.
+ * Callers only enqueue records; a single writer thread drains the queue and forces each batch to disk
+ * at once, so a burst of changes costs one flush instead of one per record and the request thread
+ * never waits for the disk. When the queue is full, callers wait for the writer.
+ * Records are read back with {@link AuditLogReader} and replayed with {@link AuditReplay}.
+ * Disabled with {@code doc-control.audit.enabled=false}.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final String LOCK_FILE = "audit.lock";
+    private static final int MAX_BATCH = 4096;
+    private static final long MIN_SEGMENT_SIZE = 4096;
+    private static final long POLL_MILLIS = 100;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentSize;
+    private final BlockingQueue<AuditRecord> queue;
+
+    // counts records handed to the writer and records it has written, sync() waits for one to catch up
+    private final Lock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private long enqueuedCount;
+    private long writtenCount;
+
+    private volatile boolean running;
+    private Thread writer;
+    private FileChannel lockChannel;
+    private FileLock directoryLock;
+
+    // only touched by the writer thread
+    private AuditSegment segment;
+    private long nextSequence;
+
+    /**
+     * Constructs a new {@code AuditLog}.
+     *
+     * @param enabled       whether changes are recorded at all
+     * @param directory     the directory holding the segments
+     * @param segmentSize   the size of each segment file
+     * @param queueCapacity the number of records that can wait for the writer
+     */
+    public AuditLog(@Value("${doc-control.audit.enabled:true}") final boolean enabled,
+                    @Value("${doc-control.audit.dir:audit}") final Path directory,
+                    @Value("${doc-control.audit.segment-size:64MB}") final DataSize segmentSize,
+                    @Value("${doc-control.audit.queue-capacity:65536}") final int queueCapacity) {
+
+        if (segmentSize.toBytes() < MIN_SEGMENT_SIZE || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("doc-control.audit.segment-size must be between 4KB and 2GB");
+        }
+
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize.toBytes();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Locks the directory against other writers, finds where the log ends and starts the writer thread.
+     * Records are appended to a new segment, so a torn record at the end of the previous one is never
+     * followed by valid data.
+     *
+     * @throws IOException           if the directory cannot be created or locked
+     * @throws IllegalStateException if another writer holds the directory
+     */
+    @PostConstruct
+    public void start() throws IOException {
+
+        if (!enabled) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            directoryLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            directoryLock = null;
+        }
+        if (directoryLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("audit log directory " + directory + " is used by another writer");
+        }
+
+        nextSequence = new AuditLogReader(directory).lastSequence() + 1;
+        running = true;
+        writer = new Thread(this::drain, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Hands a record to the writer thread.
+     *
+     * @param record the record
+     */
+    public void append(final AuditRecord record) {
+        appendAll(List.of(record));
+    }
+
+    /**
+     * Hands records to the writer thread, in order.
+     *
+     * @param records the records
+     * @throws IllegalStateException if the thread is interrupted while the queue is full
+     */
+    public void appendAll(final Collection<AuditRecord> records) {
+
+        if (!enabled || records.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (AuditRecord record : records) {
+                queue.put(record);
+                lock.lock();
+                try {
+                    enqueuedCount++;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while recording an audit record", e);
+        }
+    }
+
+    /**
+     * Waits until every record appended so far has been written and forced to disk.
+     *
+     * @throws IllegalStateException if the thread is interrupted while waiting
+     */
+    public void sync() {
+
+        if (!enabled) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            long target = enqueuedCount;
+            while (writtenCount < target) {
+                written.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while syncing the audit log", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a reader over this log's directory.
+     *
+     * @return the reader
+     */
+    public AuditLogReader reader() {
+        return new AuditLogReader(directory);
+    }
+
+    /**
+     * Writes the records still queued, stops the writer thread and releases the directory.
+     *
+     * @throws IOException if the last segment or the lock cannot be released
+     * @throws InterruptedException if interrupted while waiting for the writer
+     */
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+
+        if (!enabled || !running) {
+            return;
+        }
+
+        running = false;
+        writer.join();
+
+        if (segment != null) {
+            segment.close();
+        }
+        directoryLock.release();
+        lockChannel.close();
+    }
+
+    /**
+     * Writer thread loop: takes whatever is queued, up to {@value #MAX_BATCH} records,
+     * writes it and forces it to disk once.
+     */
+    private void drain() {
+
+        List<AuditRecord> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditRecord first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                if (!batch.isEmpty()) {
+                    signalWritten(batch.size());
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends a batch, rolling to a new segment whenever the current one is full, then forces it.
+     *
+     * @param batch the records, without sequences
+     */
+    private void write(final List<AuditRecord> batch) {
+
+        try {
+            for (AuditRecord record : batch) {
+                AuditRecord sequenced = record.withSequence(nextSequence);
+                if (segment == null || !segment.append(sequenced)) {
+                    roll();
+                    if (!segment.append(sequenced)) {
+                        throw new IllegalArgumentException("audit record larger than a segment");
+                    }
+                }
+                nextSequence++;
+            }
+            segment.force();
+        } catch (IOException | RuntimeException e) {
+            // the changes themselves are committed, losing their audit records must not go unnoticed
+            LOG.error("Failed to write {} audit records from sequence {}", batch.size(), nextSequence, e);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one at the next sequence.
+     *
+     * @throws IOException if a segment cannot be closed or created
+     */
+    private void roll() throws IOException {
+
+        if (segment != null) {
+            AuditSegment full = segment;
+            segment = null;
+            full.close();
+        }
+        segment = AuditSegment.create(directory, nextSequence, segmentSize);
+    }
+
+    private void signalWritten(final int count) {
+
+        lock.lock();
+        try {
+            writtenCount += count;
+            written.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether changes are recorded.
+     *
+     * @return {@code true} if the log is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,86 @@
+package com.raadkhatatbeh.doc_control_system.service.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the records of an {@link AuditLog} directory in log order.
+ * It can run while the log is being written, from another process too; each segment is read up to
+ * its last complete record.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class AuditLogReader {
+
+    private final Path directory;
+
+    /**
+     * Constructs a new {@code AuditLogReader} over the given directory.
+     *
+     * @param directory the log directory
+     */
+    public AuditLogReader(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Passes every record from the given sequence on to the consumer, in log order.
+     * Segments that end before the sequence are skipped without being read.
+     *
+     * @param fromSequence the sequence of the first record wanted, {@code 0} for the whole log
+     * @param consumer     receives each record in turn
+     * @throws UncheckedIOException if a segment cannot be read
+     */
+    public void read(final long fromSequence, final Consumer<AuditRecord> consumer) {
+
+        try {
+            List<Path> segments = AuditSegment.list(directory);
+            for (int i = 0; i < segments.size(); i++) {
+
+                // the next segment starts at or before the wanted sequence, nothing to read here
+                if (i + 1 < segments.size() && AuditSegment.firstSequence(segments.get(i + 1)) <= fromSequence) {
+                    continue;
+                }
+
+                try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    AuditRecord record;
+                    while ((record = AuditCodec.decode(buffer)) != null) {
+                        if (record.sequence() >= fromSequence) {
+                            consumer.accept(record);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the sequence of the last record of the log.
+     *
+     * @return the last sequence, {@code 0} if the log is empty
+     */
+    public long lastSequence() {
+
+        try {
+            List<Path> segments = AuditSegment.list(directory);
+            long[] last = {0L};
+            // the last segment can hold a torn first record only, walk back to the latest complete one
+            for (int i = segments.size() - 1; i >= 0 && last[0] == 0L; i--) {
+                read(AuditSegment.firstSequence(segments.get(i)), record -> last[0] = record.sequence());
+            }
+            return last[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
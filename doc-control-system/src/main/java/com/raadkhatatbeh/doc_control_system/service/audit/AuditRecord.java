@@ -0,0 +1,70 @@
+package com.raadkhatatbeh.doc_control_system.service.audit;
+
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+
+/**
+ * One entry of the {@link AuditLog}.
+ *
+ * @param sequence   the position in the log, assigned when the record is written, {@code 0} before
+ * @param timestamp  when the change was made, in milliseconds since the epoch
+ * @param action     the kind of change
+ * @param actor      the user who made the change
+ * @param documentId the document changed
+ * @param username   the user receiving the permission, {@code null} unless a permission was granted
+ * @param permission the permission granted, {@code null} unless a permission was granted
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public record AuditRecord(long sequence, long timestamp, AuditAction action, String actor, long documentId,
+                          String username, PermissionType permission) {
+
+    /**
+     * Records the creation of a document, its initial permissions are recorded as separate grants.
+     *
+     * @param actor      the creator
+     * @param documentId the document ID
+     * @return the record
+     */
+    public static AuditRecord created(final String actor, final long documentId) {
+        return new AuditRecord(0L, System.currentTimeMillis(), AuditAction.DOCUMENT_CREATED, actor, documentId,
+                null, null);
+    }
+
+    /**
+     * Records a permission grant.
+     *
+     * @param actor      the user granting the permission
+     * @param documentId the document ID
+     * @param username   the user receiving the permission
+     * @param permission the permission granted
+     * @return the record
+     */
+    public static AuditRecord granted(final String actor, final long documentId, final String username,
+                                      final PermissionType permission) {
+        return new AuditRecord(0L, System.currentTimeMillis(), AuditAction.PERMISSION_GRANTED, actor, documentId,
+                username, permission);
+    }
+
+    /**
+     * Records the deletion of a document, which drops all of its permissions.
+     *
+     * @param actor      the user deleting the document
+     * @param documentId the document ID
+     * @return the record
+     */
+    public static AuditRecord deleted(final String actor, final long documentId) {
+        return new AuditRecord(0L, System.currentTimeMillis(), AuditAction.DOCUMENT_DELETED, actor, documentId,
+                null, null);
+    }
+
+    /**
+     * Returns a copy of this record at the given position of the log.
+     *
+     * @param sequence the position in the log
+     * @return the record
+     */
+    AuditRecord withSequence(final long sequence) {
+        return new AuditRecord(sequence, timestamp, action, actor, documentId, username, permission);
+    }
+}
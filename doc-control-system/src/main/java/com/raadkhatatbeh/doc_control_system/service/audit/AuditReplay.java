@@ -0,0 +1,75 @@
+package com.raadkhatatbeh.doc_control_system.service.audit;
+
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the access control lists recorded in an {@link AuditLog} as they stood at a point in time.
+ * Also runs from the command line against a copy of the log directory:
+ * <pre>
+ * java -cp doc-control-system.jar -Dloader.main=com.raadkhatatbeh.doc_control_system.service.audit.AuditReplay \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher &lt;audit dir&gt; [ISO-8601 instant]
+ * </pre>
+ * which prints one {@code documentId username permission} line per permission held.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public final class AuditReplay {
+
+    private AuditReplay() {
+    }
+
+    /**
+     * Replays the log up to the given time.
+     *
+     * @param reader the log to replay
+     * @param until  only changes made at or before this time are applied
+     * @return the permissions of every live document, by document ID then username
+     */
+    public static Map<Long, Map<String, Set<PermissionType>>> replay(final AuditLogReader reader, final Instant until) {
+
+        long untilMillis = until.toEpochMilli();
+        Map<Long, Map<String, Set<PermissionType>>> acls = new TreeMap<>();
+
+        reader.read(0L, record -> {
+            if (record.timestamp() > untilMillis) {
+                return;
+            }
+
+            switch (record.action()) {
+                case DOCUMENT_CREATED -> acls.put(record.documentId(), new TreeMap<>());
+                case PERMISSION_GRANTED -> acls.computeIfAbsent(record.documentId(), id -> new TreeMap<>())
+                        .computeIfAbsent(record.username(), user -> EnumSet.noneOf(PermissionType.class))
+                        .add(record.permission());
+                case DOCUMENT_DELETED -> acls.remove(record.documentId());
+            }
+        });
+
+        return acls;
+    }
+
+    /**
+     * Prints the permissions held at the given time, now by default.
+     *
+     * @param args the log directory, optionally followed by an ISO-8601 instant
+     */
+    public static void main(final String[] args) {
+
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: AuditReplay <audit dir> [ISO-8601 instant]");
+            System.exit(2);
+        }
+
+        Instant until = args.length == 2 ? Instant.parse(args[1]) : Instant.now();
+        replay(new AuditLogReader(Path.of(args[0])), until).forEach((documentId, users) ->
+                users.forEach((username, permissions) ->
+                        permissions.forEach(permission ->
+                                System.out.println(documentId + " " + username + " " + permission))));
+    }
+}
@@ -0,0 +1,119 @@
+package com.raadkhatatbeh.doc_control_system.service.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * One file of the {@link AuditLog}, named after the sequence of its first record and
+ * allocated at its full size up front so that appends are plain writes to a memory-mapped buffer.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+final class AuditSegment implements AutoCloseable {
+
+    private static final Pattern NAME = Pattern.compile("audit-(\\d{20})\\.log");
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private AuditSegment(final FileChannel channel, final MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates and maps a new, zero-filled segment.
+     * A file left with the same name can only hold a torn first record, it is overwritten.
+     *
+     * @param directory     the log directory
+     * @param firstSequence the sequence of the first record the segment will hold
+     * @param size          the segment size in bytes
+     * @return the segment, positioned at its start
+     * @throws IOException if the file cannot be created or mapped
+     */
+    static AuditSegment create(final Path directory, final long firstSequence, final long size) throws IOException {
+
+        FileChannel channel = FileChannel.open(directory.resolve(String.format("audit-%020d.log", firstSequence)),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new AuditSegment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lists the segments of a log directory in log order.
+     *
+     * @param directory the log directory
+     * @return the segment files, oldest first
+     * @throws IOException if the directory cannot be listed
+     */
+    static List<Path> list(final Path directory) throws IOException {
+
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Returns the sequence of the first record of a segment, from its name.
+     *
+     * @param segment the segment file
+     * @return the first sequence
+     */
+    static long firstSequence(final Path segment) {
+
+        Matcher matcher = NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("not an audit segment: " + segment);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * Appends a record if it fits in the space left.
+     *
+     * @param record the record, with its sequence
+     * @return {@code false} if the segment is full
+     */
+    boolean append(final AuditRecord record) {
+
+        if (AuditCodec.size(record) > buffer.remaining()) {
+            return false;
+        }
+
+        AuditCodec.encode(record, buffer);
+        return true;
+    }
+
+    /**
+     * Writes the appended records to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,207 @@
+package com.raadkhatatbeh.doc_control_system.service.batch;
+
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import com.raadkhatatbeh.doc_control_system.repo.DocumentRepo;
+import com.raadkhatatbeh.doc_control_system.repo.projection.DocumentPermissionView;
+import com.raadkhatatbeh.doc_control_system.service.shard.ShardRouter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Combines concurrent database access checks for the same {@link PermissionType} and shard into one query.
+ * The first call of a batch waits up to {@code doc-control.access-check-batch.window}, or until
+ * {@code doc-control.access-check-batch.max-size} calls have joined, then reads the permission rows of every
+ * user and document of the batch at once and hands each call the IDs granted to its own user among its own IDs.
+ * Used when the permission index is disabled; batch sizes are published as the
+ * {@code access.check.batch.size} metric. Disabled with {@code doc-control.access-check-batch.enabled=false}.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Component
+public class AccessCheckBatcher {
+
+    // keeps IN lists well below the database limits
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private record Key(int shard, PermissionType permission) {
+    }
+
+    private record Call(String username, List<Long> documentIds, CompletableFuture<List<Long>> result) {
+    }
+
+    private static final class Batch {
+
+        private final List<Call> calls = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+
+    private final DocumentRepo documentRepo;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxSize;
+    private final DistributionSummary batchSizes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock, the batch still accepting calls per shard and permission type
+    private final Map<Key, Batch> open = new HashMap<>();
+
+    /**
+     * Constructs a new {@code AccessCheckBatcher}.
+     *
+     * @param documentRepo  the repository running the combined queries
+     * @param enabled       whether calls are batched at all
+     * @param window        how long the first call of a batch waits for others
+     * @param maxSize       the number of calls that closes a batch before the window ends
+     * @param meterRegistry the registry receiving the batch size metric
+     */
+    public AccessCheckBatcher(final DocumentRepo documentRepo,
+                              @Value("${doc-control.access-check-batch.enabled:true}") final boolean enabled,
+                              @Value("${doc-control.access-check-batch.window:2ms}") final Duration window,
+                              @Value("${doc-control.access-check-batch.max-size:64}") final int maxSize,
+                              final MeterRegistry meterRegistry) {
+
+        if (window.isNegative() || maxSize < 1) {
+            throw new IllegalArgumentException("doc-control.access-check-batch.window and max-size must be positive");
+        }
+
+        this.documentRepo = documentRepo;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        this.batchSizes = DistributionSummary.builder("access.check.batch.size")
+                .description("Access checks answered by one combined query")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tells whether calls are batched.
+     *
+     * @return {@code true} if {@link #findAccessibleIds} should be used
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the given IDs of existing documents on which the user holds the permission,
+     * answered together with the concurrent calls for the same permission on the shard bound to the current thread.
+     *
+     * @param username    the username of the requester
+     * @param permission  the permission type to check
+     * @param documentIds the document IDs to check
+     * @return the accessible document IDs, in ascending order without duplicates
+     */
+    public List<Long> findAccessibleIds(final String username, final PermissionType permission,
+                                        final List<Long> documentIds) {
+
+        Key key = new Key(ShardRouter.currentShard(), permission);
+        Call call = new Call(username, documentIds, new CompletableFuture<>());
+        Batch batch;
+        boolean first;
+
+        lock.lock();
+        try {
+            batch = open.get(key);
+            first = batch == null;
+            if (first) {
+                batch = new Batch();
+                open.put(key, batch);
+            }
+            batch.calls.add(call);
+            if (batch.calls.size() >= maxSize) {
+                open.remove(key);
+                batch.full.countDown();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (first) {
+            await(batch);
+            lock.lock();
+            try {
+                // no call joins once the batch is closed, its list can be read without the lock
+                open.remove(key, batch);
+            } finally {
+                lock.unlock();
+            }
+            run(permission, batch.calls);
+        }
+
+        try {
+            return call.result().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Waits until the window ends or the batch is full.
+     *
+     * @param batch the batch
+     */
+    private void await(final Batch batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // answered at once, the flag is kept for the caller
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the combined query of a batch and completes each of its calls.
+     *
+     * @param permission the permission type of the batch
+     * @param calls      the calls of the batch
+     */
+    private void run(final PermissionType permission, final List<Call> calls) {
+
+        batchSizes.record(calls.size());
+        try {
+            List<String> usernames = calls.stream().map(Call::username).distinct().toList();
+            List<Long> ids = calls.stream()
+                    .flatMap(call -> call.documentIds().stream())
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .toList();
+
+            Map<String, Set<Long>> granted = new HashMap<>();
+            for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+                for (DocumentPermissionView row : documentRepo.findPermissions(usernames, permission, chunk)) {
+                    granted.computeIfAbsent(row.getUsername(), username -> new HashSet<>()).add(row.getDocumentId());
+                }
+            }
+
+            // each call only sees the rows of its own user, among the IDs it asked for
+            for (Call call : calls) {
+                Set<Long> accessible = granted.getOrDefault(call.username(), Set.of());
+                call.result().complete(call.documentIds().stream()
+                        .filter(accessible::contains)
+                        .distinct()
+                        .sorted()
+                        .toList());
+            }
+        } catch (RuntimeException | Error e) {
+            calls.forEach(call -> call.result().completeExceptionally(e));
+        }
+    }
+}
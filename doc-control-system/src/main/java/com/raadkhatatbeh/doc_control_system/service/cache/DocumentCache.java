@@ -0,0 +1,98 @@
+package com.raadkhatatbeh.doc_control_system.service.cache;
+
+import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of {@link DocumentModel} keyed by document ID.
+ * Size, TTL and statistics are configured with {@code spring.cache.caffeine.spec};
+ * hit, miss and eviction counters are published as {@code cache.*} metrics.
+ * Concurrent misses on the same document share a single database load, see {@link SingleFlight};
+ * how often that happens is published as the {@code documents.loads} metric tagged {@code result=coalesced}.
+ * Entries are shared by every user, permission checks must happen before {@link #get}.
+ * Evictions only reach the cache of this instance: when several instances write, callers pass the current
+ * version of the document and a cached copy of another version is loaded again.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Component
+public class DocumentCache {
+
+    public static final String NAME = "documents";
+
+    private final Cache cache;
+    private final SingleFlight<Long, DocumentModel> loads;
+    private final LoadGenerations<Long> generations = new LoadGenerations<>();
+
+    /**
+     * Constructs a new {@code DocumentCache} backed by the {@value #NAME} cache of the given {@link CacheManager}.
+     *
+     * @param cacheManager  the cache manager holding the documents cache
+     * @param meterRegistry the registry receiving the load metrics
+     */
+    public DocumentCache(final CacheManager cacheManager, final MeterRegistry meterRegistry) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(NAME), "cache '" + NAME + "' is not configured");
+        this.loads = new SingleFlight<>(NAME, meterRegistry);
+    }
+
+    /**
+     * Returns the cached document, loading and caching it on a miss.
+     * The loader runs outside the cache: a computing get would hold a lock of the underlying map
+     * for the whole database load, pinning the carrier thread when requests run on virtual threads.
+     * Callers missing at the same time share one load.
+     * A document loaded while it was evicted may predate the change and is dropped again,
+     * evictions of other documents leave it cached.
+     * Exceptions of the loader, e.g. {@code ResourceNotFoundException}, reach the caller and nothing is cached.
+     *
+     * @param documentId the document ID
+     * @param version    reads the current version of the document, empty if it does not exist,
+     *                   or {@code null} when every change goes through this instance and hits are trusted
+     * @param loader     loads the document from the database
+     * @return the {@link DocumentModel}
+     */
+    public DocumentModel get(final Long documentId, final Supplier<Optional<Long>> version,
+                             final Supplier<DocumentModel> loader) {
+
+        Cache.ValueWrapper cached = cache.get(documentId);
+        if (cached != null) {
+            DocumentModel model = (DocumentModel) cached.get();
+            if (version == null || version.get().equals(Optional.ofNullable(model.getVersion()))) {
+                return model;
+            }
+            // changed through another instance
+            evict(documentId);
+        }
+
+        long generation = generations.begin(documentId);
+        DocumentModel model;
+        try {
+            model = loads.load(documentId, loader);
+            cache.put(documentId, model);
+        } finally {
+            if (generations.end(documentId, generation)) {
+                cache.evict(documentId);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Removes the document from the cache, the next read loads it again.
+     *
+     * @param documentId the document ID
+     */
+    public void evict(final Long documentId) {
+        // a load running now may predate the change, later misses must not join it
+        loads.forget(documentId);
+        // marked next, a load of the document finishing after this point drops what it cached
+        generations.invalidate(documentId);
+        cache.evict(documentId);
+    }
+}
@@ -0,0 +1,68 @@
+package com.raadkhatatbeh.doc_control_system.service.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells whether a key was invalidated while a value of it was being loaded, so that a read-through cache
+ * drops a value that may predate the change. Generations are kept per key and only while loads of the key run,
+ * a write to one key never discards the loads of another.
+ *
+ * @param <K> the key type
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class LoadGenerations<K> {
+
+    private static final class Generation {
+        // only changed inside a compute of the map
+        private int loads;
+        private final AtomicLong invalidations = new AtomicLong();
+    }
+
+    private final Map<K, Generation> running = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a load of the key, to be called before the value is read.
+     *
+     * @param key the key
+     * @return the generation to pass to {@link #end}
+     */
+    public long begin(final K key) {
+
+        Generation generation = running.compute(key, (k, current) -> {
+            Generation next = current == null ? new Generation() : current;
+            next.loads++;
+            return next;
+        });
+        return generation.invalidations.get();
+    }
+
+    /**
+     * Ends a load of the key registered with {@link #begin}, to be called once the value is cached.
+     *
+     * @param key        the key
+     * @param generation the generation returned by {@link #begin}
+     * @return {@code true} if the key was invalidated since, the cached value must be dropped
+     */
+    public boolean end(final K key, final long generation) {
+
+        boolean stale = running.get(key).invalidations.get() != generation;
+        running.computeIfPresent(key, (k, current) -> --current.loads == 0 ? null : current);
+        return stale;
+    }
+
+    /**
+     * Marks the loads of the key running now as stale, to be called before the cached value is removed.
+     *
+     * @param key the key
+     */
+    public void invalidate(final K key) {
+
+        Generation generation = running.get(key);
+        if (generation != null) {
+            generation.invalidations.incrementAndGet();
+        }
+    }
+}
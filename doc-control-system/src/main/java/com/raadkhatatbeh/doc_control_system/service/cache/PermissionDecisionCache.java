@@ -0,0 +1,137 @@
+package com.raadkhatatbeh.doc_control_system.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of permission check outcomes keyed by (username, document ID, {@link PermissionType}).
+ * Denials and missing documents are cached like grants, so repeated probes for documents
+ * a user cannot read are rejected without a query.
+ * Size and TTL are configured with {@code doc-control.decision-cache.spec};
+ * hit, miss and eviction counters are published as {@code cache.*} metrics under {@value #NAME}.
+ * Evictions only reach the cache of this instance: when several instances write, callers pass the current
+ * version of the document and a decision made on another version is computed again.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Component
+public class PermissionDecisionCache {
+
+    public static final String NAME = "permissionDecisions";
+
+    /**
+     * The outcome of a permission check.
+     */
+    public enum Decision {
+        GRANTED,
+        DENIED,
+        NOT_FOUND
+    }
+
+    private record Key(String username, Long documentId, PermissionType permissionType) {
+    }
+
+    // the version of the document read before the decision was made, empty if it did not exist
+    private record Entry(Decision decision, Optional<Long> version) {
+    }
+
+    private final Cache<Key, Entry> cache;
+    // marked before every eviction of a document, a decision on it computed across one is not kept
+    private final LoadGenerations<Long> generations = new LoadGenerations<>();
+
+    /**
+     * Constructs a new {@code PermissionDecisionCache} and registers its metrics.
+     *
+     * @param spec          the Caffeine specification, e.g. {@code maximumSize=100000,expireAfterWrite=30s}
+     * @param meterRegistry the registry receiving the cache metrics
+     */
+    public PermissionDecisionCache(@Value("${doc-control.decision-cache.spec:maximumSize=100000,expireAfterWrite=30s,recordStats}")
+                                   final String spec,
+                                   final MeterRegistry meterRegistry) {
+        this.cache = Caffeine.from(spec).build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * Returns the cached decision, computing and caching it on a miss.
+     * The loader runs outside the cache, see {@link DocumentCache#get}.
+     * A decision computed while the document was evicted is dropped again.
+     *
+     * @param username       the username
+     * @param documentId     the document ID
+     * @param permissionType the required permission
+     * @param version        reads the current version of the document, empty if it does not exist,
+     *                       or {@code null} when every change goes through this instance and hits are trusted
+     * @param loader         computes the decision from the database
+     * @return the {@link Decision}
+     */
+    public Decision get(final String username, final Long documentId, final PermissionType permissionType,
+                        final Supplier<Optional<Long>> version, final Supplier<Decision> loader) {
+
+        Key key = new Key(username, documentId, permissionType);
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && (version == null || version.get().equals(entry.version()))) {
+            return entry.decision();
+        }
+
+        long generation = generations.begin(documentId);
+        try {
+            // read first, a change made meanwhile leaves an older version and the decision is computed again
+            Optional<Long> current = version == null ? Optional.empty() : version.get();
+            entry = new Entry(loader.get(), current);
+            cache.put(key, entry);
+        } finally {
+            if (generations.end(documentId, generation)) {
+                cache.invalidate(key);
+            }
+        }
+        return entry.decision();
+    }
+
+    /**
+     * Removes the decisions of one user on one document, after a grant.
+     *
+     * @param documentId the document ID
+     * @param username   the user whose permissions changed
+     */
+    public void evict(final Long documentId, final String username) {
+        generations.invalidate(documentId);
+        for (PermissionType permissionType : PermissionType.values()) {
+            cache.invalidate(new Key(username, documentId, permissionType));
+        }
+    }
+
+    /**
+     * Removes every decision on a document, after it is created or deleted.
+     * This walks the whole cache, which is acceptable because writes are rare compared to checks.
+     *
+     * @param documentId the document ID
+     */
+    public void evictDocument(final Long documentId) {
+        generations.invalidate(documentId);
+        cache.asMap().keySet().removeIf(key -> key.documentId().equals(documentId));
+    }
+
+    /**
+     * Removes every decision on the given documents in a single walk of the cache.
+     *
+     * @param documentIds the document IDs
+     */
+    public void evictDocuments(final Collection<Long> documentIds) {
+
+        Set<Long> ids = new HashSet<>(documentIds);
+        ids.forEach(generations::invalidate);
+        cache.asMap().keySet().removeIf(key -> ids.contains(key.documentId()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.raadkhatatbeh.doc_control_system.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader on its own thread,
+ * callers arriving while it runs wait for and share its result, or its exception.
+ * Nothing is kept once the load completes, caching the result is up to the caller.
+ * Publishes {@code <name>.loads} counters tagged {@code result=executed} for loads that ran
+ * and {@code result=coalesced} for callers served by another caller's load,
+ * and a {@code <name>.loads.in.flight} gauge.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    /**
+     * Constructs a new {@code SingleFlight} and registers its metrics.
+     *
+     * @param name          the metric name prefix
+     * @param meterRegistry the registry receiving the metrics
+     */
+    public SingleFlight(final String name, final MeterRegistry meterRegistry) {
+        this.executed = Counter.builder(name + ".loads")
+                .description("Loads that ran")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder(name + ".loads")
+                .description("Loads served by a concurrent load of the same key")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder(name + ".loads.in.flight", inFlight, Map::size)
+                .description("Loads currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the value of the load running for the key, running the loader if there is none.
+     *
+     * @param key    the key
+     * @param loader loads the value, runs on the calling thread
+     * @return the loaded value
+     * @throws RuntimeException the exception of the loader, rethrown to every caller sharing the load
+     */
+    public V load(final K key, final Supplier<V> loader) {
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, load);
+
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        executed.increment();
+        try {
+            V value = loader.get();
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * Detaches the load running for the key, if any, so that later callers start a new load
+     * instead of sharing one that may have read the value before a change.
+     * Callers already waiting still receive its result.
+     *
+     * @param key the key
+     */
+    public void forget(final K key) {
+        inFlight.remove(key);
+    }
+}
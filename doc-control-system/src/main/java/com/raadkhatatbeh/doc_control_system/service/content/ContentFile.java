@@ -0,0 +1,31 @@
+package com.raadkhatatbeh.doc_control_system.service.content;
+
+import com.raadkhatatbeh.doc_control_system.model.ContentEncoding;
+import com.raadkhatatbeh.doc_control_system.model.FileType;
+import java.nio.file.Path;
+
+/**
+ * A document body ready to be sent.
+ *
+ * @param file     the file holding the body
+ * @param length   the size of the original body in bytes
+ * @param fileType the document type, {@code null} if unknown
+ * @param version  the document version, bumped by every upload, used as the validator of range requests
+ * @param encoding how the file is encoded
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public record ContentFile(Path file, long length, FileType fileType, Long version, ContentEncoding encoding) {
+
+    private static final String DEFAULT_MEDIA_TYPE = "application/octet-stream";
+
+    /**
+     * Returns the media type of the body, derived from the {@link FileType}.
+     *
+     * @return the media type
+     */
+    public String mediaType() {
+        return fileType == null ? DEFAULT_MEDIA_TYPE : fileType.getMediaType();
+    }
+}
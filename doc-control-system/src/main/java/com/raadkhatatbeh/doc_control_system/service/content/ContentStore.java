@@ -0,0 +1,477 @@
+package com.raadkhatatbeh.doc_control_system.service.content;
+
+import com.raadkhatatbeh.doc_control_system.exception.BadRequestException;
+import com.raadkhatatbeh.doc_control_system.exception.ConflictException;
+import com.raadkhatatbeh.doc_control_system.exception.ErrorMessages;
+import com.raadkhatatbeh.doc_control_system.exception.ResourceNotFoundException;
+import com.raadkhatatbeh.doc_control_system.model.ContentEncoding;
+import com.raadkhatatbeh.doc_control_system.model.FileType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Keeps document bodies as files under {@code doc-control.content.dir}, spread over
+ * {@value #SHARDS} directories by document ID so that no directory grows too large.
+ * Bodies are encoded as they are written with the storage encoding and level of their
+ * {@link FileType}, so text formats take a fraction of their size on disk.
+ * Every upload goes to a new file, written aside and moved into place once complete,
+ * so a reader never sees a partial body and the previous file stays valid until the
+ * database points at the new one.
+ * <p>
+ * Resumable uploads are assembled chunk by chunk in {@value #UPLOADS}, the size of the partial file
+ * being the offset at which the next chunk goes, so an interrupted upload resumes where the
+ * last durable byte was written, across restarts too. Uploads left untouched for
+ * {@code doc-control.content.upload-expiry} are removed.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Component
+public class ContentStore {
+
+    private static final int SHARDS = 1000;
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+    private static final String PART_SUFFIX = ".part";
+    private static final String UPLOADS = "uploads";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final long maxSize;
+    private final Duration uploadExpiry;
+
+    /**
+     * Constructs a new {@code ContentStore}.
+     *
+     * @param root         the directory holding the bodies
+     * @param maxSize      the largest body accepted
+     * @param uploadExpiry how long an unfinished resumable upload is kept after its last chunk
+     */
+    public ContentStore(@Value("${doc-control.content.dir:content}") final Path root,
+                        @Value("${doc-control.content.max-size:100MB}") final DataSize maxSize,
+                        @Value("${doc-control.content.upload-expiry:P1D}") final Duration uploadExpiry) {
+        this.root = root;
+        this.maxSize = maxSize.toBytes();
+        this.uploadExpiry = uploadExpiry;
+    }
+
+    /**
+     * Writes a body to a new file, encoded for its file type.
+     *
+     * @param documentId the document the body belongs to
+     * @param fileType   the document type, {@code null} to store the body as is
+     * @param body       the body, read to its end but not closed
+     * @return the stored file
+     * @throws BadRequestException  if the body is larger than {@code doc-control.content.max-size}
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public StoredContent write(final long documentId, final FileType fileType, final InputStream body) {
+
+        String path = newPath(documentId);
+        Path target = root.resolve(path);
+        Path part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+
+        try {
+            Files.createDirectories(target.getParent());
+
+            long length = writeEncoded(part, fileType, body);
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+            return new StoredContent(path, length, encoding(fileType));
+        } catch (IOException e) {
+            deleteQuietly(part);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(part);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a resumable upload with an empty partial file.
+     *
+     * @param documentId the document the body belongs to
+     * @return the upload ID, to pass with every chunk
+     * @throws UncheckedIOException if the file cannot be created
+     */
+    public String startUpload(final long documentId) {
+
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Files.createDirectories(root.resolve(UPLOADS));
+            Files.createFile(uploadPart(documentId, uploadId));
+            return uploadId;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of bytes of a resumable upload already stored, the offset of the next chunk.
+     *
+     * @param documentId the document the body belongs to
+     * @param uploadId   the upload ID returned by {@link #startUpload}
+     * @return the offset
+     * @throws ResourceNotFoundException if the upload does not exist
+     */
+    public long uploadOffset(final long documentId, final String uploadId) {
+
+        try {
+            return Files.size(uploadPart(documentId, uploadId));
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends a chunk to a resumable upload. The chunk is written straight to the partial file
+     * and forced to disk before the new offset is returned. A chunk cut short by the client
+     * keeps the bytes received, {@link #uploadOffset} tells where to resume.
+     *
+     * @param documentId the document the body belongs to
+     * @param uploadId   the upload ID returned by {@link #startUpload}
+     * @param offset     the offset the client believes the upload is at
+     * @param chunk      the chunk, read to its end but not closed
+     * @return the offset after the chunk
+     * @throws ResourceNotFoundException if the upload does not exist
+     * @throws ConflictException         if the upload is at another offset or another chunk is being written
+     * @throws BadRequestException       if the upload would exceed {@code doc-control.content.max-size}
+     */
+    public long appendUpload(final long documentId, final String uploadId, final long offset, final InputStream chunk) {
+
+        try (FileChannel file = openUpload(documentId, uploadId);
+             FileLock lock = lock(file)) {
+
+            long size = file.size();
+            if (size != offset) {
+                throw new ConflictException(ErrorMessages.UPLOAD_OFFSET_MISMATCH, size, offset);
+            }
+
+            long end;
+            try {
+                end = transfer(chunk, file, offset);
+            } catch (BadRequestException e) {
+                // drop the part of the chunk above the limit, the upload stays resumable at its offset
+                file.truncate(offset);
+                throw e;
+            } finally {
+                file.force(false);
+            }
+            return end;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Completes a resumable upload, moving the assembled file into place.
+     * Chunks are stored as received, a body to be compressed is encoded once here, streamed from the upload.
+     *
+     * @param documentId the document the body belongs to
+     * @param uploadId   the upload ID returned by {@link #startUpload}
+     * @param fileType   the document type, {@code null} to store the body as is
+     * @return the stored file
+     * @throws ResourceNotFoundException if the upload does not exist
+     * @throws ConflictException         if a chunk is being written
+     */
+    public StoredContent completeUpload(final long documentId, final String uploadId, final FileType fileType) {
+
+        String path = newPath(documentId);
+        Path target = root.resolve(path);
+        Path part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        Path upload = uploadPart(documentId, uploadId);
+
+        try {
+            Files.createDirectories(target.getParent());
+
+            // moved under the lock, so no chunk can land between measuring and moving the file
+            try (FileChannel file = openUpload(documentId, uploadId);
+                 FileLock lock = lock(file)) {
+                long length = file.size();
+
+                if (encoding(fileType) == ContentEncoding.IDENTITY) {
+                    file.force(true);
+                    Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+                } else {
+                    writeEncoded(part, fileType, StreamUtils.nonClosing(Channels.newInputStream(file)));
+                    Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+                    Files.delete(upload);
+                }
+                return new StoredContent(path, length, encoding(fileType));
+            }
+        } catch (NoSuchFileException e) {
+            // completed by a concurrent request
+            deleteQuietly(part);
+            throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+        } catch (IOException e) {
+            deleteQuietly(part);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(part);
+            throw e;
+        }
+    }
+
+    /**
+     * Abandons a resumable upload.
+     *
+     * @param documentId the document the body belongs to
+     * @param uploadId   the upload ID returned by {@link #startUpload}
+     */
+    public void cancelUpload(final long documentId, final String uploadId) {
+        deleteQuietly(uploadPart(documentId, uploadId));
+    }
+
+    /**
+     * Removes the resumable uploads that received no chunk for {@code doc-control.content.upload-expiry}.
+     *
+     * @return the number of uploads removed
+     */
+    @Scheduled(initialDelayString = "${doc-control.content.upload-cleanup-interval:PT1H}",
+            fixedDelayString = "${doc-control.content.upload-cleanup-interval:PT1H}")
+    public int deleteExpiredUploads() {
+
+        Path uploads = root.resolve(UPLOADS);
+        if (!Files.isDirectory(uploads)) {
+            return 0;
+        }
+
+        FileTime expiredBefore = FileTime.from(Instant.now().minus(uploadExpiry));
+        List<Path> expired;
+        try (Stream<Path> files = Files.list(uploads)) {
+            expired = files.filter(file -> isModifiedBefore(file, expiredBefore)).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        expired.forEach(ContentStore::deleteQuietly);
+        return expired.size();
+    }
+
+    /**
+     * Resolves a stored body.
+     *
+     * @param path the path returned by {@link #write}
+     * @return the file
+     */
+    public Path resolve(final String path) {
+        return root.resolve(path);
+    }
+
+    /**
+     * Deletes a stored body that is no longer referenced. A file that cannot be deleted is only left behind.
+     *
+     * @param path the path returned by {@link #write}
+     */
+    public void delete(final String path) {
+        deleteQuietly(resolve(path));
+    }
+
+    /**
+     * Returns the largest body accepted.
+     *
+     * @return the size in bytes
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Builds the path of a new body file, in the shard of the document.
+     *
+     * @param documentId the document ID
+     * @return the path relative to the store root
+     */
+    private static String newPath(final long documentId) {
+        return String.format("%03d", documentId % SHARDS) + "/" + documentId + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * Resolves the partial file of a resumable upload. Upload IDs come from clients,
+     * only UUIDs are accepted so that they cannot point outside the uploads directory.
+     *
+     * @param documentId the document ID
+     * @param uploadId   the upload ID
+     * @return the partial file
+     * @throws BadRequestException if the upload ID is not a UUID
+     */
+    private Path uploadPart(final long documentId, final String uploadId) {
+
+        UUID id;
+        try {
+            id = UUID.fromString(uploadId);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(ErrorMessages.INVALID_VALUE, "uploadId");
+        }
+        return root.resolve(UPLOADS).resolve(documentId + "-" + id + PART_SUFFIX);
+    }
+
+    /**
+     * Opens the partial file of a resumable upload for writing, and reading when it is completed.
+     *
+     * @param documentId the document ID
+     * @param uploadId   the upload ID
+     * @return the open file
+     * @throws ResourceNotFoundException if the upload does not exist
+     * @throws IOException               if the file cannot be opened
+     */
+    private FileChannel openUpload(final long documentId, final String uploadId) throws IOException {
+
+        try {
+            return FileChannel.open(uploadPart(documentId, uploadId), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+        }
+    }
+
+    /**
+     * Locks a partial file so that a single request writes to it at a time.
+     *
+     * @param file the open file
+     * @return the lock
+     * @throws ConflictException if another request holds the lock
+     * @throws IOException       if the file cannot be locked
+     */
+    private static FileLock lock(final FileChannel file) throws IOException {
+
+        FileLock lock;
+        try {
+            lock = file.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new ConflictException(ErrorMessages.UPLOAD_IN_PROGRESS);
+        }
+        return lock;
+    }
+
+    /**
+     * Writes a body to a new file with the storage encoding of its type and forces it to disk.
+     *
+     * @param file     the file to create
+     * @param fileType the document type, {@code null} to store the body as is
+     * @param body     the body, read to its end but not closed
+     * @return the size of the body, before encoding
+     * @throws BadRequestException if the body is larger than {@code doc-control.content.max-size}
+     * @throws IOException         if the body cannot be read or the file cannot be written
+     */
+    private long writeEncoded(final Path file, final FileType fileType, final InputStream body) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+
+            long length;
+            ContentEncoding encoding = encoding(fileType);
+            if (encoding == ContentEncoding.IDENTITY) {
+                length = transfer(body, channel, 0);
+            } else {
+                try (OutputStream out = encoding.encode(StreamUtils.nonClosing(Channels.newOutputStream(channel)),
+                        fileType.getCompressionLevel())) {
+                    length = copy(body, out);
+                }
+            }
+
+            channel.force(true);
+            return length;
+        }
+    }
+
+    /**
+     * Returns the storage encoding of a file type.
+     *
+     * @param fileType the document type, may be {@code null}
+     * @return the {@link ContentEncoding}
+     */
+    private static ContentEncoding encoding(final FileType fileType) {
+        return fileType == null ? ContentEncoding.IDENTITY : fileType.getStorageEncoding();
+    }
+
+    /**
+     * Copies a stream into an encoding stream through a fixed buffer, stopping at the size limit.
+     *
+     * @param body the source, read to its end
+     * @param out  the encoding stream
+     * @return the number of bytes copied
+     * @throws BadRequestException if the body is larger than {@code doc-control.content.max-size}
+     * @throws IOException         if the source cannot be read or the target cannot be written
+     */
+    private long copy(final InputStream body, final OutputStream out) throws IOException {
+
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long length = 0;
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            length += read;
+            if (length > maxSize) {
+                throw new BadRequestException(ErrorMessages.CONTENT_TOO_LARGE, maxSize);
+            }
+            out.write(buffer, 0, read);
+        }
+        return length;
+    }
+
+    /**
+     * Copies a stream into a file with {@link FileChannel#transferFrom}, stopping at the size limit.
+     *
+     * @param body     the source, read to its end
+     * @param file     the target file
+     * @param position where the first byte goes
+     * @return the position after the last byte
+     * @throws BadRequestException if the file would exceed {@code doc-control.content.max-size}
+     * @throws IOException         if the source cannot be read or the file cannot be written
+     */
+    private long transfer(final InputStream body, final FileChannel file, final long position) throws IOException {
+
+        ReadableByteChannel source = Channels.newChannel(body);
+        long end = position;
+        long transferred;
+        // ask for one byte more than allowed, getting it means the body is too large
+        while (end <= maxSize
+                && (transferred = file.transferFrom(source, end, Math.min(TRANSFER_CHUNK, maxSize + 1 - end))) > 0) {
+            end += transferred;
+        }
+        if (end > maxSize) {
+            throw new BadRequestException(ErrorMessages.CONTENT_TOO_LARGE, maxSize);
+        }
+        return end;
+    }
+
+    private static boolean isModifiedBefore(final Path file, final FileTime time) {
+        try {
+            return Files.getLastModifiedTime(file).compareTo(time) < 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // an orphan file wastes space but references nothing
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.raadkhatatbeh.doc_control_system.service.content;
+
+import com.raadkhatatbeh.doc_control_system.model.ContentEncoding;
+
+/**
+ * A body written to the {@link ContentStore}.
+ *
+ * @param path     the location of the file, relative to the store root, as referenced from {@code DOCUMENT}
+ * @param length   the size of the original body in bytes
+ * @param encoding how the file is encoded
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public record StoredContent(String path, long length, ContentEncoding encoding) {
+}
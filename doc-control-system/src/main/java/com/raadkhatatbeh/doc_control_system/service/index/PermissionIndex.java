@@ -0,0 +1,300 @@
+package com.raadkhatatbeh.doc_control_system.service.index;
+
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import com.raadkhatatbeh.doc_control_system.repo.DocumentRepo;
+import com.raadkhatatbeh.doc_control_system.repo.entity.Document;
+import com.raadkhatatbeh.doc_control_system.repo.entity.DocumentPermission;
+import com.raadkhatatbeh.doc_control_system.repo.projection.DocumentPermissionView;
+import com.raadkhatatbeh.doc_control_system.service.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory permission index.
+ * Keeps one compressed {@link Roaring64Bitmap} of document IDs per (username, {@link PermissionType}),
+ * plus a bitmap of every existing document ID, so that permission checks and batch access checks
+ * can be answered without touching the database.
+ * It is loaded from {@code DOCUMENT_PERMISSION} of every shard at startup and must be kept up to date
+ * by every operation that creates, grants or deletes.
+ * The index only sees writes made through this instance; deployments running several instances
+ * against one database disable it with {@code doc-control.permission-index.enabled=false}
+ * and answer checks from the database instead.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Component
+public class PermissionIndex {
+
+    private final DocumentRepo documentRepo;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+
+    // Roaring bitmaps are not thread safe, every access goes through this lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Roaring64Bitmap documentIds = new Roaring64Bitmap();
+    private final Map<String, Map<PermissionType, Roaring64Bitmap>> permissions = new HashMap<>();
+
+    /**
+     * Constructs a new {@code PermissionIndex} backed by the provided {@link DocumentRepo}.
+     *
+     * @param documentRepo the repository used to load the index
+     * @param shardRouter  reads every shard
+     * @param enabled      whether the index is used at all
+     */
+    public PermissionIndex(final DocumentRepo documentRepo, final ShardRouter shardRouter,
+                           @Value("${doc-control.permission-index.enabled:true}") final boolean enabled) {
+        this.documentRepo = documentRepo;
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether permission checks should be answered by this index.
+     *
+     * @return {@code true} if the index is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Loads every document ID and permission row from the database, replacing the current content.
+     * Shards are read in parallel.
+     */
+    @PostConstruct
+    public void load() {
+
+        if (!enabled) {
+            return;
+        }
+
+        List<List<Long>> ids = shardRouter.scatter(shard -> documentRepo.findAllIds());
+        List<List<DocumentPermissionView>> views = shardRouter.scatter(shard -> documentRepo.findAllPermissions());
+
+        write(() -> {
+            documentIds.clear();
+            permissions.clear();
+
+            ids.forEach(shardIds -> shardIds.forEach(documentIds::addLong));
+            views.forEach(shardViews -> shardViews.forEach(view ->
+                    bitmap(view.getUsername(), view.getPermissionType()).addLong(view.getDocumentId())));
+        });
+    }
+
+    /**
+     * Checks whether a document with the given ID exists.
+     *
+     * @param documentId the document ID
+     * @return {@code true} if the document exists
+     */
+    public boolean exists(final Long documentId) {
+        return documentId != null && read(() -> documentIds.contains(documentId));
+    }
+
+    /**
+     * Checks whether the user holds the given permission on the document.
+     *
+     * @param username       the username
+     * @param documentId     the document ID
+     * @param permissionType the required permission
+     * @return {@code true} if the permission has been granted
+     */
+    public boolean hasPermission(final String username, final Long documentId, final PermissionType permissionType) {
+
+        if (username == null || documentId == null) {
+            return false;
+        }
+
+        return read(() -> {
+            Roaring64Bitmap ids = find(username, permissionType);
+            return ids != null && ids.contains(documentId) && documentIds.contains(documentId);
+        });
+    }
+
+    /**
+     * Intersects the requested IDs with the existing documents.
+     *
+     * @param requestedIds the document IDs to check
+     * @return the requested IDs that exist, in ascending order without duplicates
+     */
+    public List<Long> filterExisting(final Collection<Long> requestedIds) {
+
+        Roaring64Bitmap requested = toBitmap(requestedIds);
+        return read(() -> {
+            requested.and(documentIds);
+            return toList(requested);
+        });
+    }
+
+    /**
+     * Intersects the requested IDs with the documents on which the user holds the given permission.
+     * The cost depends on the size of the request, not on how many documents the user can access.
+     *
+     * @param username       the username
+     * @param permissionType the required permission
+     * @param requestedIds   the document IDs to check
+     * @return the accessible IDs, in ascending order without duplicates
+     */
+    public List<Long> filterAccessible(final String username,
+                                       final PermissionType permissionType,
+                                       final Collection<Long> requestedIds) {
+
+        Roaring64Bitmap requested = toBitmap(requestedIds);
+        return read(() -> {
+            Roaring64Bitmap ids = find(username, permissionType);
+            if (ids == null) {
+                return List.of();
+            }
+            requested.and(ids);
+            requested.and(documentIds);
+            return toList(requested);
+        });
+    }
+
+    /**
+     * Registers a newly created document together with its initial permissions.
+     *
+     * @param document the saved {@link Document} entity
+     */
+    public void addDocument(final Document document) {
+        addDocuments(List.of(document));
+    }
+
+    /**
+     * Registers newly created documents together with their initial permissions, under a single lock.
+     *
+     * @param documents the saved {@link Document} entities
+     */
+    public void addDocuments(final Collection<Document> documents) {
+
+        if (!enabled) {
+            return;
+        }
+
+        write(() -> {
+            for (Document document : documents) {
+                documentIds.addLong(document.getId());
+                for (DocumentPermission permission : document.getAccessibleUsers()) {
+                    bitmap(permission.getUsername(), permission.getPermissionType()).addLong(document.getId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Registers a permission granted to a user on a document.
+     *
+     * @param documentId     the document ID
+     * @param username       the user receiving the permission
+     * @param permissionType the granted permission
+     */
+    public void grant(final Long documentId, final String username, final PermissionType permissionType) {
+
+        if (!enabled) {
+            return;
+        }
+
+        write(() -> bitmap(username, permissionType).addLong(documentId));
+    }
+
+    /**
+     * Registers many granted permissions under a single lock.
+     *
+     * @param granted the granted permission rows
+     */
+    public void grantAll(final Collection<DocumentPermissionView> granted) {
+
+        if (!enabled) {
+            return;
+        }
+
+        write(() -> granted.forEach(row ->
+                bitmap(row.getUsername(), row.getPermissionType()).addLong(row.getDocumentId())));
+    }
+
+    /**
+     * Removes a deleted document. Its bits stay in the permission bitmaps until the index is next loaded:
+     * every lookup intersects with the existing documents and document IDs are never reused,
+     * so a removal costs the same whatever the number of users.
+     *
+     * @param documentId the ID of the deleted document
+     */
+    public void removeDocument(final Long documentId) {
+
+        if (!enabled) {
+            return;
+        }
+
+        write(() -> documentIds.removeLong(documentId));
+    }
+
+    /**
+     * Returns the bitmap for the given user and permission, or {@code null} if none exists.
+     * Must be called while holding the read or write lock.
+     */
+    private Roaring64Bitmap find(final String username, final PermissionType permissionType) {
+
+        Map<PermissionType, Roaring64Bitmap> userPermissions = permissions.get(username);
+        return userPermissions == null || permissionType == null ? null : userPermissions.get(permissionType);
+    }
+
+    /**
+     * Returns the bitmap for the given user and permission, creating it if needed.
+     * Must be called while holding the write lock.
+     */
+    private Roaring64Bitmap bitmap(final String username, final PermissionType permissionType) {
+
+        return permissions
+          .computeIfAbsent(username, key -> new EnumMap<>(PermissionType.class))
+          .computeIfAbsent(permissionType, key -> new Roaring64Bitmap());
+    }
+
+    private static Roaring64Bitmap toBitmap(final Collection<Long> ids) {
+
+        Roaring64Bitmap bitmap = new Roaring64Bitmap();
+        ids.stream()
+           .filter(Objects::nonNull)
+           .forEach(bitmap::addLong);
+        return bitmap;
+    }
+
+    private static List<Long> toList(final Roaring64Bitmap bitmap) {
+        return Arrays.stream(bitmap.toArray()).boxed().toList();
+    }
+
+    private <T> T read(final Supplier<T> action) {
+
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return action.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void write(final Runnable action) {
+
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
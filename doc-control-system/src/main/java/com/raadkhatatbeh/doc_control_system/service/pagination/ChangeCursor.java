@@ -0,0 +1,106 @@
+package com.raadkhatatbeh.doc_control_system.service.pagination;
+
+import com.raadkhatatbeh.doc_control_system.exception.BadRequestException;
+import com.raadkhatatbeh.doc_control_system.exception.ErrorMessages;
+import com.raadkhatatbeh.doc_control_system.service.shard.ShardRouter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * ChangeCursor, the position of a consumer in the change feed.
+ * It wraps the {@code CHANGE_SEQ} of the last change read on each shard, each shard numbering its own changes,
+ * and is handed to clients as an opaque token. With a single shard the token is the one of an unsharded feed.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public final class ChangeCursor {
+
+    private static final String CURSOR = "cursor";
+    private static final String PREFIX = "changes|";
+
+    private final long[] changeSeqs;
+
+    private ChangeCursor(final long... changeSeqs) {
+        this.changeSeqs = changeSeqs;
+    }
+
+    /**
+     * Returns the position after the given changes.
+     *
+     * @param changeSeqs the change sequence of the last change read on each shard, by shard
+     * @return the cursor
+     */
+    public static ChangeCursor after(final long... changeSeqs) {
+        return new ChangeCursor(changeSeqs.clone());
+    }
+
+    /**
+     * Decodes a continuation token.
+     *
+     * @param token the token received from the client, or {@code null} to read the feed from the start
+     * @return the decoded cursor
+     * @throws BadRequestException if the token is malformed
+     */
+    public static ChangeCursor decode(final String token) {
+
+        if (token == null || token.isBlank()) {
+            return new ChangeCursor(0L);
+        }
+
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!key.startsWith(PREFIX)) {
+                throw new BadRequestException(ErrorMessages.INVALID_VALUE, CURSOR);
+            }
+
+            String[] values = key.substring(PREFIX.length()).split(",", -1);
+            if (values.length > ShardRouter.MAX_SHARDS) {
+                throw new BadRequestException(ErrorMessages.INVALID_VALUE, CURSOR);
+            }
+
+            long[] changeSeqs = new long[values.length];
+            for (int shard = 0; shard < values.length; shard++) {
+                changeSeqs[shard] = Long.parseLong(values[shard]);
+                if (changeSeqs[shard] < 0) {
+                    throw new BadRequestException(ErrorMessages.INVALID_VALUE, CURSOR);
+                }
+            }
+            return new ChangeCursor(changeSeqs);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(ErrorMessages.INVALID_VALUE, CURSOR);
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque, URL safe continuation token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + Arrays.stream(changeSeqs).mapToObj(Long::toString)
+                        .collect(Collectors.joining(","))).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the change sequence of the last change read on shard {@code 0}, the only one of an unsharded feed.
+     *
+     * @return the change sequence
+     */
+    public long getChangeSeq() {
+        return getChangeSeq(0);
+    }
+
+    /**
+     * Returns the change sequence of the last change read on a shard.
+     *
+     * @param shard the shard number
+     * @return the change sequence, {@code 0} for a shard the cursor does not know yet
+     */
+    public long getChangeSeq(final int shard) {
+        return shard < changeSeqs.length ? changeSeqs[shard] : 0L;
+    }
+}
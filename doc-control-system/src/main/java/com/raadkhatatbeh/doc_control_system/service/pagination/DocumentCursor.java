@@ -0,0 +1,111 @@
+package com.raadkhatatbeh.doc_control_system.service.pagination;
+
+import com.raadkhatatbeh.doc_control_system.exception.BadRequestException;
+import com.raadkhatatbeh.doc_control_system.exception.ErrorMessages;
+import com.raadkhatatbeh.doc_control_system.model.DocumentSort;
+import com.raadkhatatbeh.doc_control_system.repo.entity.Document;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * DocumentCursor, the keyset position of the last document of a page.
+ * It is handed to clients as an opaque continuation token and the next page
+ * starts strictly after it, so no OFFSET is ever needed.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public final class DocumentCursor {
+
+    private static final String CURSOR = "cursor";
+    private static final String SEPARATOR = "|";
+
+    // sorts before every real key, used for the first page
+    private static final LocalDateTime MIN_UPDATED_AT = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final long MIN_ID = 0L;
+
+    private final DocumentSort sort;
+    private final LocalDateTime updatedAt;
+    private final long id;
+
+    private DocumentCursor(final DocumentSort sort, final LocalDateTime updatedAt, final long id) {
+        this.sort = sort;
+        this.updatedAt = updatedAt;
+        this.id = id;
+    }
+
+    /**
+     * Returns the position before the first document.
+     *
+     * @param sort the listing order
+     * @return the first page cursor
+     */
+    public static DocumentCursor first(final DocumentSort sort) {
+        return new DocumentCursor(sort, MIN_UPDATED_AT, MIN_ID);
+    }
+
+    /**
+     * Returns the position of the given document.
+     *
+     * @param sort     the listing order
+     * @param document the last document of a page
+     * @return the cursor of the page that follows it
+     */
+    public static DocumentCursor after(final DocumentSort sort, final Document document) {
+        return new DocumentCursor(sort, document.getUpdatedAt(), document.getId());
+    }
+
+    /**
+     * Decodes a continuation token.
+     *
+     * @param token the token received from the client, or {@code null} for the first page
+     * @param sort  the listing order requested by the client
+     * @return the decoded cursor
+     * @throws BadRequestException if the token is malformed or was issued for another order
+     */
+    public static DocumentCursor decode(final String token, final DocumentSort sort) {
+
+        if (token == null || token.isBlank()) {
+            return first(sort);
+        }
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+
+            if (parts.length != 3 || !sort.name().equals(parts[0])) {
+                throw new BadRequestException(ErrorMessages.INVALID_VALUE, CURSOR);
+            }
+
+            LocalDateTime updatedAt = parts[1].isEmpty() ? MIN_UPDATED_AT : LocalDateTime.parse(parts[1]);
+            return new DocumentCursor(sort, updatedAt, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException(ErrorMessages.INVALID_VALUE, CURSOR);
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque, URL safe continuation token.
+     *
+     * @return the token
+     */
+    public String encode() {
+
+        String key = sort + SEPARATOR + (sort == DocumentSort.UPDATED_AT ? updatedAt : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public DocumentSort getSort() {
+        return sort;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,103 @@
+package com.raadkhatatbeh.doc_control_system.service.purge;
+
+import com.raadkhatatbeh.doc_control_system.service.DocumentService;
+import com.raadkhatatbeh.doc_control_system.service.shard.ShardRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes deleted documents in the background, once their tombstone is older than
+ * {@code doc-control.purge.retention} so change feed consumers have time to see the delete.
+ * Each run purges batches of {@code doc-control.purge.batch-size} documents, one transaction per batch,
+ * until no tombstone is left on any shard, shards one after the other, pausing between batches so that no more than
+ * {@code doc-control.purge.rows-per-second} documents are removed per second.
+ * Disabled with {@code doc-control.purge.enabled=false}.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Component
+@ConditionalOnProperty(name = "doc-control.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class DocumentPurger {
+
+    private final DocumentService documentService;
+    private final ShardRouter shardRouter;
+    private final Duration retention;
+    private final int batchSize;
+    private final long nanosPerRow;
+
+    /**
+     * Constructs a new {@code DocumentPurger}.
+     *
+     * @param documentService the service removing the deleted documents
+     * @param shardRouter     binds each shard in turn
+     * @param retention       how long tombstones are kept
+     * @param batchSize       the number of documents removed per transaction
+     * @param rowsPerSecond   the maximum number of documents removed per second
+     */
+    public DocumentPurger(final DocumentService documentService, final ShardRouter shardRouter,
+                          @Value("${doc-control.purge.retention:P1D}") final Duration retention,
+                          @Value("${doc-control.purge.batch-size:500}") final int batchSize,
+                          @Value("${doc-control.purge.rows-per-second:2000}") final int rowsPerSecond) {
+
+        if (batchSize < 1 || rowsPerSecond < 1) {
+            throw new IllegalArgumentException("doc-control.purge.batch-size and rows-per-second must be positive");
+        }
+
+        this.documentService = documentService;
+        this.shardRouter = shardRouter;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.nanosPerRow = TimeUnit.SECONDS.toNanos(1) / rowsPerSecond;
+    }
+
+    /**
+     * Scheduled entry point, see {@link #purge()}.
+     */
+    @Scheduled(initialDelayString = "${doc-control.purge.interval:PT30S}",
+            fixedDelayString = "${doc-control.purge.interval:PT30S}")
+    public void run() {
+        purge();
+    }
+
+    /**
+     * Purges deleted documents batch by batch until none is left, within the configured rate.
+     *
+     * @return the number of documents removed
+     */
+    public int purge() {
+
+        long start = System.nanoTime();
+        LocalDateTime deletedBefore = LocalDateTime.now().minus(retention);
+        int purged = 0;
+
+        for (int shard = 0; shard < shardRouter.getCount(); shard++) {
+            int current = shard;
+            while (true) {
+                int removed = shardRouter.onShard(current, () -> documentService.purgeDeleted(deletedBefore, batchSize));
+                purged += removed;
+
+                if (removed < batchSize) {
+                    break;
+                }
+
+                // wait until the rows removed so far fit in the allowed rate
+                long wait = purged * nanosPerRow - (System.nanoTime() - start);
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return purged;
+                    }
+                }
+            }
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,88 @@
+package com.raadkhatatbeh.doc_control_system.service.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raadkhatatbeh.doc_control_system.repo.routing.ReadWriteRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Decides whether a read-only service call may read from the replica.
+ * Users who wrote, and documents that changed, within {@code doc-control.replica.read-your-writes-window}
+ * are read from the primary, so a caller sees what it just created, granted or deleted and the shared caches
+ * are never filled from a replica that has not caught up with a change yet.
+ * The window must exceed the replica lag. Does nothing unless {@code doc-control.replica.enabled=true}.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Component
+public class ReadYourWrites {
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> recentWriters;
+    private final Cache<Long, Boolean> recentDocuments;
+
+    /**
+     * Constructs a new {@code ReadYourWrites}.
+     *
+     * @param enabled whether a replica is configured
+     * @param window  how long after a write its user and documents are read from the primary
+     */
+    public ReadYourWrites(@Value("${doc-control.replica.enabled:false}") final boolean enabled,
+                          @Value("${doc-control.replica.read-your-writes-window:5s}") final Duration window) {
+        this.enabled = enabled;
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(window).build();
+        this.recentDocuments = Caffeine.newBuilder().expireAfterWrite(window).build();
+    }
+
+    /**
+     * Records a committed write, its user and documents are read from the primary for the window.
+     *
+     * @param username    the user who wrote
+     * @param documentIds the documents that changed
+     */
+    public void recordWrite(final String username, final Collection<Long> documentIds) {
+
+        if (!enabled) {
+            return;
+        }
+
+        recentWriters.put(username, Boolean.TRUE);
+        documentIds.forEach(id -> recentDocuments.put(id, Boolean.TRUE));
+    }
+
+    /**
+     * Sends the reads of the current read-only transaction to the replica,
+     * unless the user or one of the documents was written within the window.
+     * Must be called before the first query of the transaction.
+     *
+     * @param username    the user reading
+     * @param documentIds the documents read, empty for listings
+     * @return {@code true} if the reads stay on the primary because of a recent write
+     */
+    public boolean routeReads(final String username, final Collection<Long> documentIds) {
+
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+
+        if (recentWriters.getIfPresent(username) != null
+                || documentIds.stream().anyMatch(id -> id != null && recentDocuments.getIfPresent(id) != null)) {
+            return true;
+        }
+
+        ReadWriteRoutingDataSource.useReplica();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(final int status) {
+                ReadWriteRoutingDataSource.usePrimary();
+            }
+        });
+        return false;
+    }
+}
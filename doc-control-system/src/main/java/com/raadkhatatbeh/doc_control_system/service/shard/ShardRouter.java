@@ -0,0 +1,299 @@
+package com.raadkhatatbeh.doc_control_system.service.shard;
+
+import com.raadkhatatbeh.doc_control_system.exception.ErrorMessages;
+import com.raadkhatatbeh.doc_control_system.exception.ResourceNotFoundException;
+import com.raadkhatatbeh.doc_control_system.repo.routing.ShardRoutingDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Places documents on the shards configured with {@code doc-control.shards.count}.
+ * The shard of a document is encoded in the high bits of its ID: the ID sequence of shard {@code k} starts at
+ * {@code k << }{@value #SHARD_SHIFT}, so a document is found from its ID alone, IDs stay unique across shards,
+ * and ordering by ID orders by shard first. Existing IDs all belong to shard {@code 0}.
+ * New documents are spread round-robin.
+ * Single-document operations run on the shard of their document, listings and batch checks query every shard
+ * in parallel on the application task executor, one read-only transaction per shard.
+ * With a single shard, the default, everything runs inline in the caller's transaction.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Component
+public class ShardRouter {
+
+    // keeps shard prefixed IDs below 2^53, the largest integer JSON clients read exactly
+    public static final int SHARD_SHIFT = 48;
+    public static final int MAX_SHARDS = 32;
+
+    private final int count;
+    private final AsyncTaskExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Constructs a new {@code ShardRouter}.
+     *
+     * @param count              the number of shards
+     * @param executor           runs the queries of the shards in parallel
+     * @param transactionManager opens the transaction of each shard
+     */
+    public ShardRouter(@Value("${doc-control.shards.count:1}") final int count,
+                       @Qualifier("applicationTaskExecutor") final AsyncTaskExecutor executor,
+                       final PlatformTransactionManager transactionManager) {
+
+        if (count < 1 || count > MAX_SHARDS) {
+            throw new IllegalArgumentException("doc-control.shards.count must be between 1 and " + MAX_SHARDS);
+        }
+
+        this.count = count;
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Tells whether documents are spread over several shards.
+     *
+     * @return {@code true} if there is more than one shard
+     */
+    public boolean isEnabled() {
+        return count > 1;
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the shard count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the shard a document lives on.
+     *
+     * @param documentId the document ID
+     * @return the shard number, possibly beyond the configured shards for IDs that cannot exist
+     */
+    public static int shardOf(final long documentId) {
+        return (int) (documentId >>> SHARD_SHIFT);
+    }
+
+    /**
+     * Returns the first document ID of a shard, where its ID sequence starts.
+     *
+     * @param shard the shard number
+     * @return the first ID
+     */
+    public static long firstId(final int shard) {
+        return (long) shard << SHARD_SHIFT;
+    }
+
+    /**
+     * Returns the shard bound to the current thread.
+     *
+     * @return the shard number
+     */
+    public static int currentShard() {
+        return ShardRoutingDataSource.currentShard();
+    }
+
+    /**
+     * Picks the shard of a new document, round-robin.
+     *
+     * @return the shard number
+     */
+    public int nextShard() {
+        return isEnabled() ? Math.floorMod(next.getAndIncrement(), count) : 0;
+    }
+
+    /**
+     * Runs an action with the connections of the current thread going to the given shard.
+     * Transactions the action joins must not have run a statement yet.
+     *
+     * @param shard  the shard number
+     * @param action the action
+     * @param <T>    the result type
+     * @return the result of the action
+     */
+    public <T> T onShard(final int shard, final Supplier<T> action) {
+
+        if (!isEnabled()) {
+            return action.get();
+        }
+
+        int previous = ShardRoutingDataSource.bind(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardRoutingDataSource.restore(previous);
+        }
+    }
+
+    /**
+     * Runs an action on the shard of a document, see {@link #onShard}.
+     *
+     * @param documentId the document ID, {@code null} runs on shard {@code 0}
+     * @param action     the action
+     * @param <T>        the result type
+     * @return the result of the action
+     * @throws ResourceNotFoundException if the ID belongs to no configured shard
+     */
+    public <T> T onShardOf(final Long documentId, final Supplier<T> action) {
+
+        if (!isEnabled()) {
+            return action.get();
+        }
+
+        int shard = documentId == null ? 0 : shardOf(documentId);
+        if (shard >= count) {
+            throw new ResourceNotFoundException(ErrorMessages.RESOURCE_NOT_FOUND);
+        }
+        return onShard(shard, action);
+    }
+
+    /**
+     * Runs an action without result on the shard of a document, see {@link #onShardOf(Long, Supplier)}.
+     *
+     * @param documentId the document ID
+     * @param action     the action
+     * @throws ResourceNotFoundException if the ID belongs to no configured shard
+     */
+    public void runOnShardOf(final Long documentId, final Runnable action) {
+        onShardOf(documentId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Groups document IDs by shard, IDs belonging to no configured shard are dropped since no such document exists.
+     *
+     * @param documentIds the document IDs, {@code null} elements are dropped too
+     * @return the IDs of each shard in input order, by ascending shard
+     */
+    public Map<Integer, List<Long>> groupByShard(final Collection<Long> documentIds) {
+
+        Map<Integer, List<Long>> groups = new TreeMap<>();
+        for (Long id : documentIds) {
+            if (id == null) {
+                continue;
+            }
+            int shard = isEnabled() ? shardOf(id) : 0;
+            if (shard < count) {
+                groups.computeIfAbsent(shard, key -> new ArrayList<>()).add(id);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Runs a read-only task on every shard, see {@link #scatter(Collection, IntFunction)}.
+     *
+     * @param task the task, receiving the shard number
+     * @param <T>  the result type
+     * @return the result of each shard, by ascending shard
+     */
+    public <T> List<T> scatter(final IntFunction<T> task) {
+        return scatter(IntStream.range(0, count).boxed().toList(), task);
+    }
+
+    /**
+     * Runs a read-only task on the given shards in parallel, each in its own read-only transaction,
+     * and waits for all of them. With a single shard the task runs inline in the caller's transaction.
+     *
+     * @param shards the shard numbers
+     * @param task   the task, receiving the shard number
+     * @param <T>    the result type
+     * @return the result of each shard, in the order of {@code shards}
+     */
+    public <T> List<T> scatter(final Collection<Integer> shards, final IntFunction<T> task) {
+
+        if (!isEnabled()) {
+            return shards.isEmpty() ? List.of() : Collections.singletonList(task.apply(0));
+        }
+
+        if (shards.size() == 1) {
+            int shard = shards.iterator().next();
+            return Collections.singletonList(inTransaction(shard, true, () -> task.apply(shard)));
+        }
+
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            futures.add(executor.submit(() -> inTransaction(shard, true, () -> task.apply(shard))));
+        }
+        return gather(futures);
+    }
+
+    /**
+     * Runs an action on a shard in a new transaction, suspending the caller's.
+     * With a single shard the action runs inline in the caller's transaction.
+     *
+     * @param shard    the shard number
+     * @param readOnly whether the transaction is read-only
+     * @param action   the action
+     * @param <T>      the result type
+     * @return the result of the action
+     */
+    public <T> T inTransaction(final int shard, final boolean readOnly, final Supplier<T> action) {
+        if (!isEnabled()) {
+            return action.get();
+        }
+
+        TransactionTemplate transaction = readOnly ? readOnlyTransaction : writeTransaction;
+        return onShard(shard, () -> transaction.execute(status -> action.get()));
+    }
+
+    /**
+     * Waits for the tasks of a scatter, the first failure cancels the others and is rethrown as is.
+     *
+     * @param futures the running tasks
+     * @param <T>     the result type
+     * @return the results, in task order
+     */
+    private static <T> List<T> gather(final List<Future<T>> futures) {
+
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while querying the shards", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+-- Insert sample documents
+   INSERT INTO DOCUMENT (ID, NAME, FILE_TYPE, CREATED_BY, CREATED_AT, UPDATED_AT) VALUES
+       (90000, 'Sample Document', 'PDF', 'admin', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+       (20000, 'Project Plan', 'PDF', 'manager1', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+
+   INSERT INTO DOCUMENT_CONTENT (DOCUMENT_ID, CONTENT) VALUES
+       (90000, 'This is a test document for permission testing.'),
+       (20000, 'This document outline.');
+
+-- Insert permissions for document ID 1
+   INSERT INTO DOCUMENT_PERMISSION (DOCUMENT_ID, USERNAME, PERMISSION_TYPE, CREATED_AT) VALUES
+        (90000, 'user2', 'READ', CURRENT_TIMESTAMP),
+        (90000, 'user3', 'WRITE', CURRENT_TIMESTAMP);
+
+-- Insert permissions for document ID 2
+   INSERT INTO DOCUMENT_PERMISSION (DOCUMENT_ID, USERNAME, PERMISSION_TYPE, CREATED_AT) VALUES
+        (20000, 'user2', 'READ', CURRENT_TIMESTAMP),
+        (20000, 'user4', 'WRITE', CURRENT_TIMESTAMP),
+        (20000, 'admin', 'DELETE', CURRENT_TIMESTAMP);
\ No newline at end of file
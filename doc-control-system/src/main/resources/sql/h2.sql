@@ -1,39 +1,75 @@
 
-   -- create table DOCUMENT
+   -- drop DOCUMENT_PERMISSION and DOCUMENT_CONTENT first, they reference DOCUMENT
+    DROP TABLE IF EXISTS DOCUMENT_PERMISSION;
+    DROP TABLE IF EXISTS DOCUMENT_CONTENT;
     DROP TABLE IF EXISTS DOCUMENT;
+    DROP TABLE IF EXISTS DOCUMENT_CHANGE_LOCK;
+    DROP SEQUENCE IF EXISTS DOCUMENT_PERMISSION_SEQ;
+    DROP SEQUENCE IF EXISTS DOCUMENT_SEQ;
+    DROP SEQUENCE IF EXISTS DOCUMENT_CHANGE_SEQ;
+
+   -- IDs come from sequences so Hibernate can batch inserts, it reserves INCREMENT BY values per call
+    CREATE SEQUENCE DOCUMENT_SEQ START WITH 100000 INCREMENT BY 50;
+    CREATE SEQUENCE DOCUMENT_PERMISSION_SEQ START WITH 1 INCREMENT BY 50;
+
+   -- orders the change feed, every insert, grant and delete of a document takes the next value when it commits
+    CREATE SEQUENCE DOCUMENT_CHANGE_SEQ START WITH 1;
+
+   -- one row, locked by each writing transaction while it draws its change sequences right before committing,
+   -- so that changes commit in sequence order, see DocumentRepo#lockChangeFeed
+    CREATE TABLE DOCUMENT_CHANGE_LOCK (
+      ID INT PRIMARY KEY
+    );
+    INSERT INTO DOCUMENT_CHANGE_LOCK (ID) VALUES (1);
+
+   -- create table DOCUMENT
     CREATE TABLE DOCUMENT (
-      ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+      ID BIGINT DEFAULT NEXT VALUE FOR DOCUMENT_SEQ PRIMARY KEY,
       NAME VARCHAR(255),
-      CONTENT TEXT,
       FILE_TYPE VARCHAR(10),
       CREATED_BY VARCHAR(255),
       CREATED_AT TIMESTAMP,
-      UPDATED_AT TIMESTAMP
+      UPDATED_AT TIMESTAMP,
+      -- bumped on every content or ACL change, served as the ETag
+      VERSION BIGINT DEFAULT 0 NOT NULL,
+      -- set by delete, the row and its children are removed later by the purger
+      DELETED_AT TIMESTAMP,
+      CHANGE_SEQ BIGINT DEFAULT NEXT VALUE FOR DOCUMENT_CHANGE_SEQ NOT NULL,
+      -- uploaded body, a file of the content store, relative to doc-control.content.dir
+      CONTENT_PATH VARCHAR(255),
+      CONTENT_LENGTH BIGINT,
+      -- how the file is stored, see FileType#getStorageEncoding, CONTENT_LENGTH is the size before encoding
+      CONTENT_ENCODING VARCHAR(10)
+    );
+
+    -- keyset pagination ordered by update time, over live documents only:
+    -- without the tombstone column the planner walks every live row through IDX_DOCUMENT_DELETED_AT
+    CREATE INDEX IDX_DOCUMENT_UPDATED_AT ON DOCUMENT (DELETED_AT, UPDATED_AT, ID);
+
+    -- the purger reads the oldest tombstones first
+    CREATE INDEX IDX_DOCUMENT_DELETED_AT ON DOCUMENT (DELETED_AT, ID);
+
+    -- the change feed reads documents in change order
+    CREATE UNIQUE INDEX IDX_DOCUMENT_CHANGE_SEQ ON DOCUMENT (CHANGE_SEQ);
+
+    -- create table DOCUMENT_CONTENT, the body is only read when a single document is requested
+    CREATE TABLE DOCUMENT_CONTENT (
+     DOCUMENT_ID BIGINT PRIMARY KEY,
+     CONTENT CLOB,
+     FOREIGN KEY (DOCUMENT_ID) REFERENCES DOCUMENT(ID)
     );
 
     -- create table DOCUMENT_PERMISSION
-    DROP TABLE IF EXISTS DOCUMENT_PERMISSION;
     CREATE TABLE DOCUMENT_PERMISSION (
-     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-     DOCUMENT_ID BIGINT,
+     id BIGINT DEFAULT NEXT VALUE FOR DOCUMENT_PERMISSION_SEQ PRIMARY KEY,
+     DOCUMENT_ID BIGINT NOT NULL,
      USERNAME VARCHAR(255),
      PERMISSION_TYPE VARCHAR(10),
      CREATED_AT TIMESTAMP,
-     FOREIGN KEY (document_id) REFERENCES document(id)
+     FOREIGN KEY (document_id) REFERENCES document(id),
+     -- one row per document, user and permission, also checked by hasPermission
+     CONSTRAINT UK_DOCUMENT_PERMISSION UNIQUE (DOCUMENT_ID, USERNAME, PERMISSION_TYPE)
     );
 
--- Insert sample documents
-   INSERT INTO DOCUMENT (ID, NAME, CONTENT, FILE_TYPE, CREATED_BY, CREATED_AT, UPDATED_AT) VALUES
-       (90000, 'Sample Document', 'This is a test document for permission testing.', 'PDF', 'admin', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-       (20000, 'Project Plan', 'This document outline.', 'PDF', 'manager1', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
-
--- Insert permissions for document ID 1
-   INSERT INTO DOCUMENT_PERMISSION (DOCUMENT_ID, USERNAME, PERMISSION_TYPE, CREATED_AT) VALUES
-        (90000, 'user2', 'READ', CURRENT_TIMESTAMP),
-        (90000, 'user3', 'WRITE', CURRENT_TIMESTAMP);
-
--- Insert permissions for document ID 2
-   INSERT INTO DOCUMENT_PERMISSION (DOCUMENT_ID, USERNAME, PERMISSION_TYPE, CREATED_AT) VALUES
-        (20000, 'user2', 'READ', CURRENT_TIMESTAMP),
-        (20000, 'user4', 'WRITE', CURRENT_TIMESTAMP),
-        (20000, 'admin', 'DELETE', CURRENT_TIMESTAMP);
\ No newline at end of file
+    -- covers lookups by user and permission, e.g. streamByUsernameAndPermission and findAccessibleIds
+    CREATE INDEX IDX_DOCUMENT_PERMISSION_USER ON DOCUMENT_PERMISSION (USERNAME, PERMISSION_TYPE, DOCUMENT_ID);
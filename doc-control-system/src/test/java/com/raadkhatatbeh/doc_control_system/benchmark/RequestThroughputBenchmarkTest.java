@@ -0,0 +1,138 @@
+package com.raadkhatatbeh.doc_control_system.benchmark;
+
+import com.raadkhatatbeh.doc_control_system.controller.path.ApiPaths;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load benchmark of the two hottest read endpoints, reporting throughput and latency percentiles.
+ * The permission index and both caches are disabled so that every request blocks on the database,
+ * which is where virtual threads and platform threads differ.
+ * Runs only with {@code mvn -Pbenchmark test}; add the {@code virtual-threads} profile (Java 21) to compare.
+ * Concurrency and request count are set with {@code -Dbenchmark.concurrency} and {@code -Dbenchmark.requests}.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "doc-control.permission-index.enabled=false",
+        "doc-control.decision-cache.spec=maximumSize=0",
+        "doc-control.audit.enabled=false",
+        "doc-control.purge.enabled=false",
+        "spring.cache.type=none"})
+class RequestThroughputBenchmarkTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 400);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 40000);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("benchmark.warmup", 4000);
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Test
+    void getDocument() throws Exception {
+        run("GET " + ApiPaths.Document.DOCUMENTS + "/{id}", () -> HttpRequest
+                .newBuilder(uri(ApiPaths.Document.DOCUMENTS + "/90000"))
+                .header("X-User", "user2")
+                .GET()
+                .build());
+    }
+
+    @Test
+    void batchAccessCheck() throws Exception {
+        run("POST " + ApiPaths.Document.DOCUMENTS + ApiPaths.Document.ACCESS_CHECK, () -> HttpRequest
+                .newBuilder(uri(ApiPaths.Document.DOCUMENTS + ApiPaths.Document.ACCESS_CHECK))
+                .header("X-User", "user2")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"permission\":\"READ\",\"documentIds\":[90000,20000]}"))
+                .build());
+    }
+
+    private URI uri(final String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void run(final String name, final Supplier<HttpRequest> request) throws Exception {
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clients)
+                    .build();
+
+            measure(client, request, WARMUP_REQUESTS);
+            long start = System.nanoTime();
+            long[] latencies = measure(client, request, REQUESTS);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("%n%s on %s threads, %d clients, %d requests: %.0f req/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    name, virtualThreads ? "virtual" : "platform", CONCURRENCY, REQUESTS,
+                    REQUESTS * (double) TimeUnit.SECONDS.toNanos(1) / elapsed,
+                    millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.99)),
+                    millis(latencies[latencies.length - 1]));
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    // CONCURRENCY workers each send requests back to back until the count is reached
+    private long[] measure(final HttpClient client, final Supplier<HttpRequest> request, final int requests)
+            throws Exception {
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                tasks.add(() -> {
+                    for (int n = next.getAndIncrement(); n < requests; n = next.getAndIncrement()) {
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request.get(), HttpResponse.BodyHandlers.discarding());
+                        latencies[n] = System.nanoTime() - sent;
+                        assertEquals(200, response.statusCode());
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : workers.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return latencies;
+    }
+
+    private static long percentile(final long[] sorted, final double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
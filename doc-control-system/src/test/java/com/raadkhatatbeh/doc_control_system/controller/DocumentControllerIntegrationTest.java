@@ -1,19 +1,40 @@
 package com.raadkhatatbeh.doc_control_system.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.raadkhatatbeh.doc_control_system.controller.path.ApiPaths;
 import com.raadkhatatbeh.doc_control_system.dto.BatchAccessCheckRequest;
+import com.raadkhatatbeh.doc_control_system.dto.BulkGrantPermissionRequest;
 import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
 import com.raadkhatatbeh.doc_control_system.model.DocumentPermissionModel;
 import com.raadkhatatbeh.doc_control_system.model.FileType;
 import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import com.raadkhatatbeh.doc_control_system.service.audit.AuditAction;
+import com.raadkhatatbeh.doc_control_system.service.audit.AuditLog;
+import com.raadkhatatbeh.doc_control_system.service.audit.AuditRecord;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -33,6 +54,9 @@ class DocumentControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AuditLog auditLog;
+
     public final String path = ApiPaths.Document.DOCUMENTS;
     public final String ADMIN = "admin";
     public final String REQUEST_HEADER = "X-User";
@@ -51,7 +75,58 @@ class DocumentControllerIntegrationTest {
                         .content(objectMapper.writeValueAsString(model))
                         .header(REQUEST_HEADER, ADMIN))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.name").value("Sample Document"));
+                .andExpect(jsonPath("$.name").value("Sample Document"))
+                .andExpect(jsonPath("$.content").isNotEmpty());
+    }
+
+    @Test
+    void testCreateDocuments() throws Exception {
+
+        DocumentModel first = new DocumentModel();
+        first.setName("Imported Document");
+        first.setContent("Imported content.");
+        first.setFileType(FileType.PDF);
+
+        DocumentPermissionModel permission = new DocumentPermissionModel();
+        permission.setUsername("user5");
+        permission.setPermission(PermissionType.READ);
+        first.setAccessibleUsers(List.of(permission));
+
+        DocumentModel second = new DocumentModel();
+        second.setName("Imported Document 2");
+        second.setContent("Imported content.");
+        second.setFileType(FileType.CSV);
+
+        mockMvc.perform(post(path + ApiPaths.Document.BULK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(first, second)))
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documentIds.length()").value(2));
+
+        mockMvc.perform(get(path)
+                        .header(REQUEST_HEADER, "user5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItem("Imported Document")));
+    }
+
+    @Test
+    void testCreateDocuments_invalidItems() throws Exception {
+
+        DocumentModel valid = new DocumentModel();
+        valid.setName("Imported Document");
+        valid.setContent("Imported content.");
+
+        DocumentModel invalid = new DocumentModel();
+        invalid.setContent("Imported content.");
+
+        mockMvc.perform(post(path + ApiPaths.Document.BULK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(valid, invalid, invalid)))
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.length()").value(2))
+                .andExpect(jsonPath("$.errors[0]", containsString("[1]")));
     }
 
     @Test
@@ -68,7 +143,53 @@ class DocumentControllerIntegrationTest {
         mockMvc.perform(get(path)
                         .header(REQUEST_HEADER, "user2"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].name").value("Sample Document"));
+                .andExpect(jsonPath("$[*].name", hasItem("Sample Document")));
+    }
+
+    @Test
+    void testGetDocuments_paged() throws Exception {
+
+        String nextCursor = mockMvc.perform(get(path)
+                        .param("limit", "1")
+                        .header(REQUEST_HEADER, "user2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().exists(DocumentController.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(DocumentController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get(path)
+                        .param("limit", "1000")
+                        .param("cursor", nextCursor)
+                        .header(REQUEST_HEADER, "user2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(DocumentController.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(get(path)
+                        .param("limit", "1")
+                        .param("cursor", nextCursor)
+                        .param("sort", "UPDATED_AT")
+                        .header(REQUEST_HEADER, "user2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportDocuments() throws Exception {
+
+        MvcResult result = mockMvc.perform(get(path + ApiPaths.Document.EXPORT)
+                        .header(REQUEST_HEADER, "user2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"name\":\"Sample Document\"")));
+
+        // rejected before the body starts streaming
+        mockMvc.perform(get(path + ApiPaths.Document.EXPORT)
+                        .header(REQUEST_HEADER, " "))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -81,12 +202,426 @@ class DocumentControllerIntegrationTest {
                 .andExpect(jsonPath("$.name").value("Sample Document"));
     }
 
+    @Test
+    void testGetDocumentById_conditional() throws Exception {
+
+        DocumentModel model = new DocumentModel();
+        model.setName("Versioned Document");
+        model.setContent("Versioned content.");
+        model.setFileType(FileType.CSV);
+
+        MvcResult created = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(model))
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isOk())
+                .andReturn();
+        long id = objectMapper.readValue(created.getResponse().getContentAsString(), DocumentModel.class).getId();
+
+        String etag = mockMvc.perform(get(path + "/" + id)
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(path + "/" + id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        DocumentPermissionModel permission = new DocumentPermissionModel();
+        permission.setUsername("user2");
+        permission.setPermission(PermissionType.READ);
+
+        mockMvc.perform(post(path + ApiPaths.Document.GRANT_PERMISSION, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(permission)))
+                .andExpect(status().isOk());
+
+        // the ACL changed, so does the ETag
+        mockMvc.perform(get(path + "/" + id)
+                        .header(REQUEST_HEADER, "user2")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.accessibleUsers.length()").value(1));
+    }
+
+    @Test
+    void testGetDocuments_conditional() throws Exception {
+
+        String etag = mockMvc.perform(get(path)
+                        .header(REQUEST_HEADER, "user2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(path)
+                        .header(REQUEST_HEADER, "user2")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetChanges() throws Exception {
+
+        // read up to the end of the feed
+        String cursor = null;
+        boolean hasMore = true;
+        while (hasMore) {
+            MvcResult result = mockMvc.perform(get(path + ApiPaths.Document.CHANGES)
+                            .header(REQUEST_HEADER, "user5")
+                            .param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            cursor = page.get("cursor").asText();
+            hasMore = page.get("hasMore").asBoolean();
+        }
+
+        DocumentModel model = new DocumentModel();
+        model.setName("Synced Document");
+        model.setContent("Synced content.");
+        model.setFileType(FileType.CSV);
+        long id = objectMapper.readValue(mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(model))
+                        .header(REQUEST_HEADER, ADMIN))
+                .andReturn().getResponse().getContentAsString(), DocumentModel.class).getId();
+
+        // not visible to user5 until a grant
+        mockMvc.perform(get(path + ApiPaths.Document.CHANGES)
+                        .header(REQUEST_HEADER, "user5")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(0))
+                .andExpect(jsonPath("$.cursor").value(cursor));
+
+        DocumentPermissionModel permission = new DocumentPermissionModel();
+        permission.setUsername("user5");
+        permission.setPermission(PermissionType.READ);
+        mockMvc.perform(post(path + ApiPaths.Document.GRANT_PERMISSION, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(permission)))
+                .andExpect(status().isOk());
+
+        MvcResult granted = mockMvc.perform(get(path + ApiPaths.Document.CHANGES)
+                        .header(REQUEST_HEADER, "user5")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(1))
+                .andExpect(jsonPath("$.changes[0].documentId").value(id))
+                .andExpect(jsonPath("$.changes[0].type").value("UPSERTED"))
+                .andExpect(jsonPath("$.changes[0].document.accessibleUsers[0].username").value("user5"))
+                .andReturn();
+        cursor = objectMapper.readTree(granted.getResponse().getContentAsString()).get("cursor").asText();
+
+        mockMvc.perform(delete(path + ApiPaths.Document.GET_DOCUMENT, id)
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get(path + ApiPaths.Document.CHANGES)
+                        .header(REQUEST_HEADER, "user5")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(1))
+                .andExpect(jsonPath("$.changes[0].type").value("DELETED"))
+                .andExpect(jsonPath("$.changes[0].document").doesNotExist());
+    }
+
+    @Test
+    void testGrantPermission_isAudited() throws Exception {
+
+        DocumentModel model = new DocumentModel();
+        model.setName("Audited Document");
+        model.setContent("Audited content.");
+        model.setFileType(FileType.CSV);
+        long id = objectMapper.readValue(mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(model))
+                        .header(REQUEST_HEADER, ADMIN))
+                .andReturn().getResponse().getContentAsString(), DocumentModel.class).getId();
+
+        DocumentPermissionModel permission = new DocumentPermissionModel();
+        permission.setUsername("user6");
+        permission.setPermission(PermissionType.WRITE);
+        mockMvc.perform(post(path + ApiPaths.Document.GRANT_PERMISSION, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(permission)))
+                .andExpect(status().isOk());
+
+        auditLog.sync();
+        List<AuditRecord> records = new ArrayList<>();
+        auditLog.reader().read(0L, record -> {
+            if (record.documentId() == id) {
+                records.add(record);
+            }
+        });
+
+        assertEquals(List.of(AuditAction.DOCUMENT_CREATED, AuditAction.PERMISSION_GRANTED),
+                records.stream().map(AuditRecord::action).toList());
+        assertEquals("user6", records.get(1).username());
+        assertEquals(PermissionType.WRITE, records.get(1).permission());
+    }
+
+    private long createDocument(final String name, final FileType fileType) throws Exception {
+
+        DocumentModel model = new DocumentModel();
+        model.setName(name);
+        model.setContent("Short description.");
+        model.setFileType(fileType);
+        return objectMapper.readValue(mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(model))
+                        .header(REQUEST_HEADER, ADMIN))
+                .andReturn().getResponse().getContentAsString(), DocumentModel.class).getId();
+    }
+
+    @Test
+    void testUploadAndDownloadContent() throws Exception {
+
+        DocumentModel model = new DocumentModel();
+        model.setName("Uploaded Document");
+        model.setContent("Short description.");
+        model.setFileType(FileType.PDF);
+        long id = objectMapper.readValue(mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(model))
+                        .header(REQUEST_HEADER, ADMIN))
+                .andReturn().getResponse().getContentAsString(), DocumentModel.class).getId();
+
+        byte[] body = new byte[300_000];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) i;
+        }
+        mockMvc.perform(put(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(body))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/pdf"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, body.length))
+                .andExpect(content().bytes(body));
+
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, "user2"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testDownloadContent_ranges() throws Exception {
+
+        long id = createDocument("Ranged Document", FileType.CSV);
+        byte[] body = new byte[1000];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        mockMvc.perform(put(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .content(body))
+                .andExpect(status().isNoContent());
+
+        String etag = mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(HttpHeaders.RANGE, "bytes=100-199")
+                        .header(HttpHeaders.IF_RANGE, etag))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/1000"))
+                .andExpect(content().bytes(Arrays.copyOfRange(body, 100, 200)));
+
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(HttpHeaders.RANGE, "bytes=-10"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 990-999/1000"))
+                .andExpect(content().bytes(Arrays.copyOfRange(body, 990, 1000)));
+
+        MockHttpServletResponse multipart = mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(HttpHeaders.RANGE, "bytes=0-9,500-509"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith("multipart/byteranges; boundary=")))
+                .andReturn().getResponse();
+        String parts = multipart.getContentAsString();
+        assertEquals(multipart.getContentAsByteArray().length, multipart.getContentLengthLong());
+        assertTrue(parts.contains("Content-Range: bytes 0-9/1000\r\n\r\n" + new String(body, 0, 10)));
+        assertTrue(parts.contains("Content-Range: bytes 500-509/1000\r\n\r\n" + new String(body, 500, 10)));
+
+        // the content changed since the client's copy, the whole body is sent again
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(HttpHeaders.RANGE, "bytes=100-199")
+                        .header(HttpHeaders.IF_RANGE, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(body));
+
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(HttpHeaders.RANGE, "bytes=2000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */1000"));
+    }
+
+    @Test
+    void testDownloadContent_compressedPassthrough() throws Exception {
+
+        long id = createDocument("Compressed Document", FileType.XML);
+        byte[] body = "<rows><row id=\"1\">value</row></rows>\n".repeat(200).getBytes(StandardCharsets.UTF_8);
+        mockMvc.perform(put(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .content(body))
+                .andExpect(status().isNoContent());
+
+        // stored gzip bytes are sent as they are, the client decodes them
+        MockHttpServletResponse encoded = mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/xml"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse();
+        assertTrue(encoded.getContentLength() < body.length / 10);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded.getContentAsByteArray()))) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+
+        // without gzip the body is decoded as it streams, under another ETag
+        MockHttpServletResponse decoded = mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, body.length))
+                .andExpect(content().bytes(body))
+                .andReturn().getResponse();
+        assertNotEquals(encoded.getHeader(HttpHeaders.ETAG), decoded.getHeader(HttpHeaders.ETAG));
+
+        // ranges address the decoded body even for a client accepting gzip
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.RANGE, "bytes=100-199")
+                        .header(HttpHeaders.IF_RANGE, decoded.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/" + body.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(body, 100, 200)));
+
+        // out of order and overlapping ranges are sorted and merged
+        MockHttpServletResponse multipart = mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(HttpHeaders.RANGE, "bytes=500-509,0-9,5-19"))
+                .andExpect(status().isPartialContent())
+                .andReturn().getResponse();
+        String parts = multipart.getContentAsString();
+        assertEquals(multipart.getContentAsByteArray().length, multipart.getContentLengthLong());
+        int first = parts.indexOf("Content-Range: bytes 0-19/" + body.length + "\r\n\r\n" + new String(body, 0, 20));
+        int second = parts.indexOf("Content-Range: bytes 500-509/" + body.length + "\r\n\r\n" + new String(body, 500, 10));
+        assertTrue(first >= 0 && second > first);
+        assertEquals(2, parts.split("Content-Range:").length - 1);
+    }
+
+    @Test
+    void testResumableUpload() throws Exception {
+
+        long id = createDocument("Resumable Document", FileType.XML);
+        String uploadId = objectMapper.readTree(mockMvc.perform(post(path + ApiPaths.Document.CONTENT_UPLOADS, id)
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, containsString("/content/uploads/")))
+                .andReturn().getResponse().getContentAsString()).get("uploadId").asText();
+
+        mockMvc.perform(patch(path + ApiPaths.Document.CONTENT_UPLOAD, id, uploadId)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(DocumentController.UPLOAD_OFFSET_HEADER, 0)
+                        .content("<doc>"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(DocumentController.UPLOAD_OFFSET_HEADER, "5"));
+
+        // a retry of the first chunk after a lost response
+        mockMvc.perform(patch(path + ApiPaths.Document.CONTENT_UPLOAD, id, uploadId)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(DocumentController.UPLOAD_OFFSET_HEADER, 0)
+                        .content("<doc>"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT_UPLOAD, id, uploadId)
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.offset").value(5));
+
+        mockMvc.perform(patch(path + ApiPaths.Document.CONTENT_UPLOAD, id, uploadId)
+                        .header(REQUEST_HEADER, ADMIN)
+                        .header(DocumentController.UPLOAD_OFFSET_HEADER, 5)
+                        .content("</doc>"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.offset").value(11));
+
+        mockMvc.perform(post(path + ApiPaths.Document.COMPLETE_CONTENT_UPLOAD, id, uploadId)
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT, id)
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/xml"))
+                .andExpect(content().string("<doc></doc>"));
+
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT_UPLOAD, id, uploadId)
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testDownloadContent_withoutUpload_returnsTextContent() throws Exception {
+
+        mockMvc.perform(get(path + ApiPaths.Document.CONTENT, 90000)
+                        .header(REQUEST_HEADER, "user2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andExpect(content().string("This is a test document for permission testing."));
+    }
+
+    @Test
+    void testGetDocumentById_publishesCacheMetrics() throws Exception {
+
+        mockMvc.perform(get(path + "/90000")
+                        .header(REQUEST_HEADER, "user2"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets")
+                        .param("tag", "cache:documents"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableTags[*].tag", hasItem("result")));
+    }
+
     @Test
     void testDeleteDocument() throws Exception {
 
         mockMvc.perform(delete(path + ApiPaths.Document.GET_DOCUMENT, 20000L)
                         .header("X-User", ADMIN))
                 .andExpect(status().isNoContent());
+
+        // the tombstone hides the document before it is purged
+        mockMvc.perform(get(path + ApiPaths.Document.GET_DOCUMENT, 20000L)
+                        .header("X-User", ADMIN))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -103,6 +638,33 @@ class DocumentControllerIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testGrantPermissions() throws Exception {
+
+        BulkGrantPermissionRequest request = new BulkGrantPermissionRequest();
+        request.setDocumentIds(List.of(90000L, 20000L));
+        request.setUsernames(List.of("user6", "user7"));
+        request.setPermissions(List.of(PermissionType.READ));
+
+        mockMvc.perform(post(path + ApiPaths.Document.BULK_GRANT_PERMISSION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header(REQUEST_HEADER, ADMIN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granted").value(4));
+
+        mockMvc.perform(get(path + "/20000")
+                        .header(REQUEST_HEADER, "user7"))
+                .andExpect(status().isOk());
+
+        // user3 holds WRITE on 90000 only
+        mockMvc.perform(post(path + ApiPaths.Document.BULK_GRANT_PERMISSION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header(REQUEST_HEADER, "user3"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void testBatchAccessCheck() throws Exception {
 
@@ -0,0 +1,310 @@
+package com.raadkhatatbeh.doc_control_system.repo;
+
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import com.raadkhatatbeh.doc_control_system.repo.entity.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DocumentRepoQueryPlanTest.
+ * Runs every {@link DocumentRepo} query, captures the SQL Hibernate sends and fails
+ * if H2 {@code EXPLAIN} shows that any of it reads a whole table, either with a table scan or by walking
+ * every live row through the tombstone index. Queries that load everything on purpose
+ * are checked against the exact list of tables they are expected to read in full.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+// the purger is off, its background statements would be captured too
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.raadkhatatbeh.doc_control_system.repo.SqlStatementCaptor",
+        "doc-control.purge.enabled=false"})
+class DocumentRepoQueryPlanTest {
+
+    // a table read in full, by a table scan or by a walk of an index with only the tombstone condition
+    private static final Pattern FULL_SCAN = Pattern.compile(
+            "\"PUBLIC\"\\.\"(\\w+)\"(?: \"\\w+\")?\\s+/\\* PUBLIC\\.\\w+(?:\\.tableScan|: DELETED_AT IS NULL) \\*/");
+
+    @Autowired
+    private DocumentRepo documentRepo;
+
+    @Autowired
+    private DocumentContentRepo documentContentRepo;
+
+    @Autowired
+    private DocumentPermissionRepo documentPermissionRepo;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testFindById_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findById(90000L));
+    }
+
+    @Test
+    void testFindWithAccessibleUsersById_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findWithAccessibleUsersById(90000L));
+    }
+
+    @Test
+    void testFindVersionById_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findVersionById(90000L));
+    }
+
+    @Test
+    void testFindContentViewById_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findContentViewById(90000L));
+    }
+
+    @Test
+    void testFindContentPaths_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findContentPaths(List.of(90000L, 20000L)));
+    }
+
+    @Test
+    void testExistsById_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.existsById(90000L));
+    }
+
+    @Test
+    void testFindPageOrderById_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findPageOrderById(0L, Limit.of(10)));
+    }
+
+    @Test
+    void testFindPageOrderByUpdatedAt_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findPageOrderByUpdatedAt(LocalDateTime.now(), 0L, Limit.of(10)));
+    }
+
+    @Test
+    void testFindPageByUsernameAndPermissionOrderById_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findPageByUsernameAndPermissionOrderById(
+                "user2", PermissionType.READ, 0L, Limit.of(10)));
+    }
+
+    @Test
+    void testFindPageByUsernameAndPermissionOrderByUpdatedAt_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findPageByUsernameAndPermissionOrderByUpdatedAt(
+                "user2", PermissionType.READ, LocalDateTime.now(), 0L, Limit.of(10)));
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void testStreamByUsernameAndPermission_usesIndexes() {
+        assertNoTableScan(() -> {
+            try (Stream<Document> docs = documentRepo.streamByUsernameAndPermission("user2", PermissionType.READ)) {
+                docs.forEach(Document::getId);
+            }
+        });
+    }
+
+    @Test
+    void testFindExistingIds_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findExistingIds(List.of(90000L, 20000L)));
+    }
+
+    @Test
+    void testFindAccessibleIds_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findAccessibleIds("user2", PermissionType.READ, List.of(90000L, 20000L)));
+    }
+
+    @Test
+    void testFindPermissions_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findPermissions(List.of("user2", "user4"), PermissionType.READ,
+                List.of(90000L, 20000L)));
+    }
+
+    @Test
+    void testHasPermission_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.hasPermission(90000L, "user2", PermissionType.READ));
+    }
+
+    @Test
+    @Transactional
+    void testLockActive_usesIndexes() {
+        assertNoTableScan(() -> assertEquals(List.of(20000L, 90000L), documentRepo.lockActive(List.of(90000L, 20000L))));
+    }
+
+    @Test
+    @Transactional
+    void testIncrementVersions_usesIndexes() {
+        assertNoTableScan(() -> assertEquals(2, documentRepo.incrementVersions(List.of(90000L, 20000L))));
+    }
+
+    @Test
+    void testFindContentByDocumentId_usesIndexes() {
+        assertNoTableScan(() -> documentContentRepo.findContentByDocumentId(90000L));
+    }
+
+    @Test
+    @Transactional
+    void testGrant_usesIndexes() {
+        assertNoTableScan(() -> assertEquals(0, documentPermissionRepo.grant(90000L, "user2", PermissionType.READ.name())));
+    }
+
+    @Test
+    @Transactional
+    void testGrantAll_usesIndexes() {
+        assertNoTableScan(() -> assertEquals(2, documentPermissionRepo.grantAll(
+                List.of(90000L, 20000L), new String[]{"user2", "user7"}, PermissionType.READ.name()).size()));
+    }
+
+    @Test
+    void testFindDeletedIds_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findDeletedIds(LocalDateTime.now(), 100));
+    }
+
+    @Test
+    void testFindChangesAfter_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.findChangesAfter(0L, 100));
+    }
+
+    @Test
+    void testFindChangesByUsernameAndPermissionAfter_drivenByPermissions() {
+        // bounded by the documents of the user, not by the changes after the cursor
+        List<String> plans = explain(() -> documentRepo.findChangesByUsernameAndPermissionAfter("user2",
+                PermissionType.READ.name(), 0L, 100));
+        assertEquals(List.of(), fullScans(plans));
+        assertTrue(plans.get(0).contains("PUBLIC.IDX_DOCUMENT_PERMISSION_USER"), plans.get(0));
+        assertFalse(plans.get(0).contains("PUBLIC.IDX_DOCUMENT_CHANGE_SEQ"), plans.get(0));
+    }
+
+    @Test
+    @Transactional
+    void testPublishChanges_usesIndexes() {
+        assertNoTableScan(() -> documentRepo.publishChanges(List.of(90000L, 20000L)));
+    }
+
+    @Test
+    @Transactional
+    void testMarkDeleted_usesIndexes() {
+        assertNoTableScan(() -> assertEquals(1, documentRepo.markDeleted(90000L, LocalDateTime.now())));
+    }
+
+    @Test
+    @Transactional
+    void testUpdateContent_usesIndexes() {
+        assertNoTableScan(() -> assertEquals(1, documentRepo.updateContent(90000L, null, "000/90000-test", 3L, "IDENTITY")));
+    }
+
+    @Test
+    @Transactional
+    void testPurge_usesIndexes() {
+        assertNoTableScan(() -> {
+            documentPermissionRepo.deleteByDocumentIds(List.of(90000L));
+            documentContentRepo.deleteByDocumentIds(List.of(90000L));
+            documentRepo.purge(List.of(90000L));
+        });
+    }
+
+    // the full loads below read every document by definition, their permissions must still be fetched by index
+
+    @Test
+    void testFindAll_onlyScansDocument() {
+        assertScans(List.of("DOCUMENT"), documentRepo::findAll);
+    }
+
+    @Test
+    void testFindAllIds_onlyScansDocument() {
+        assertScans(List.of("DOCUMENT"), documentRepo::findAllIds);
+    }
+
+    @Test
+    void testFindAllPermissions_onlyScansDocument() {
+        assertScans(List.of("DOCUMENT"), documentRepo::findAllPermissions);
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void testStreamAll_onlyScansDocument() {
+        assertScans(List.of("DOCUMENT"), () -> {
+            try (Stream<Document> docs = documentRepo.streamAll()) {
+                docs.forEach(Document::getId);
+            }
+        });
+    }
+
+    /**
+     * Runs the query and asserts that none of the statements it issues reads a whole table.
+     *
+     * @param query the repository call to check
+     */
+    private void assertNoTableScan(final Runnable query) {
+        assertScans(List.of(), query);
+    }
+
+    /**
+     * Runs the query and asserts that its statements read exactly the given tables in full, in that order.
+     *
+     * @param expected the tables expected to be read in full
+     * @param query    the repository call to check
+     */
+    private void assertScans(final List<String> expected, final Runnable query) {
+
+        List<String> plans = explain(query);
+        assertEquals(expected, fullScans(plans), String.join("\n", plans));
+    }
+
+    /**
+     * Returns the tables the given plans read in full.
+     *
+     * @param plans the plans, in execution order
+     * @return the table names, in plan order
+     */
+    private static List<String> fullScans(final List<String> plans) {
+        return plans.stream()
+                .flatMap(plan -> FULL_SCAN.matcher(plan).results().map(match -> match.group(1)))
+                .toList();
+    }
+
+    /**
+     * Runs the query, captures the statements Hibernate prepares for it and returns their H2 plans.
+     *
+     * @param query the repository call to explain
+     * @return one plan per captured statement, in execution order
+     */
+    private List<String> explain(final Runnable query) {
+
+        SqlStatementCaptor.clear();
+        query.run();
+        List<String> statements = SqlStatementCaptor.statements();
+        assertFalse(statements.isEmpty(), "no SQL captured");
+
+        return statements.stream().map(this::explain).toList();
+    }
+
+    private String explain(final String sql) {
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+
+            // the plan does not depend on the values, only on the shape of the statement
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertTrue(resultSet.next());
+                return resultSet.getString(1);
+            }
+        } catch (SQLException e) {
+            return fail("EXPLAIN failed for: " + sql, e);
+        }
+    }
+}
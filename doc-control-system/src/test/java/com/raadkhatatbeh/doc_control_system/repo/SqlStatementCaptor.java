@@ -0,0 +1,37 @@
+package com.raadkhatatbeh.doc_control_system.repo;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SqlStatementCaptor, records every SQL statement Hibernate prepares so tests can inspect them.
+ * Registered through {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+public class SqlStatementCaptor implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(final String sql) {
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(sql);
+        }
+        return sql;
+    }
+
+    public static void clear() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return List.copyOf(STATEMENTS);
+        }
+    }
+}
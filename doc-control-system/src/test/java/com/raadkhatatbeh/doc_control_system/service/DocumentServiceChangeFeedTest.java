@@ -0,0 +1,84 @@
+package com.raadkhatatbeh.doc_control_system.service;
+
+import com.raadkhatatbeh.doc_control_system.model.DocumentChange;
+import com.raadkhatatbeh.doc_control_system.model.DocumentChangePage;
+import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentPermissionModel;
+import com.raadkhatatbeh.doc_control_system.model.FileType;
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DocumentServiceChangeFeedTest.
+ * Checks that a change committed after a later one is still read by a reader already past the later one.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+@SpringBootTest(properties = "doc-control.purge.enabled=false")
+class DocumentServiceChangeFeedTest {
+
+    private static final String ADMIN = "admin";
+    private static final String READER = "feed-order-reader";
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testGetChanges_changeCommittedLate_notSkipped() {
+        Long early = documentService.createDocument(newDocument(), ADMIN).getId();
+        Long late = documentService.createDocument(newDocument(), ADMIN).getId();
+        String start = documentService.getChanges(READER, null, 10).getCursor();
+
+        List<String> cursors = new ArrayList<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // changed first but committed last, while another request changes and commits the other document
+            grant(early);
+            CompletableFuture.runAsync(() -> grant(late)).join();
+
+            DocumentChangePage page = CompletableFuture.supplyAsync(() ->
+                    documentService.getChanges(READER, start, 10)).join();
+            assertEquals(List.of(late), documentIds(page));
+            cursors.add(page.getCursor());
+        });
+
+        assertEquals(List.of(early), documentIds(documentService.getChanges(READER, cursors.get(0), 10)));
+    }
+
+    private void grant(final Long documentId) {
+
+        DocumentPermissionModel permission = new DocumentPermissionModel();
+        permission.setUsername("feed-order-writer");
+        permission.setPermission(PermissionType.WRITE);
+        documentService.grantPermission(documentId, ADMIN, permission);
+    }
+
+    private static List<Long> documentIds(final DocumentChangePage page) {
+        return page.getChanges().stream().map(DocumentChange::getDocumentId).toList();
+    }
+
+    private static DocumentModel newDocument() {
+
+        DocumentPermissionModel permission = new DocumentPermissionModel();
+        permission.setUsername(READER);
+        permission.setPermission(PermissionType.READ);
+
+        DocumentModel model = new DocumentModel();
+        model.setName("Feed Document");
+        model.setContent("content");
+        model.setFileType(FileType.CSV);
+        model.setAccessibleUsers(new ArrayList<>(List.of(permission)));
+        return model;
+    }
+}
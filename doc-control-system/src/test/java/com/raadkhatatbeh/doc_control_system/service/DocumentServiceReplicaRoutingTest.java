@@ -0,0 +1,87 @@
+package com.raadkhatatbeh.doc_control_system.service;
+
+import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentPermissionModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentSort;
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import com.raadkhatatbeh.doc_control_system.service.cache.DocumentCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import javax.sql.DataSource;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DocumentServiceReplicaRoutingTest.
+ * Two in-memory H2 databases stand in for the primary and the replica. Rows changed on one side only
+ * show which database served a call.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+// the index would answer permission checks without reading either database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "doc-control.replica.enabled=true",
+        "doc-control.replica.datasource.jdbc-url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "doc-control.replica.datasource.username=ra",
+        "doc-control.replica.datasource.password=ra",
+        "doc-control.replica.init-schema=true",
+        "doc-control.replica.read-your-writes-window=1h",
+        "doc-control.permission-index.enabled=false",
+        "doc-control.purge.enabled=false"})
+class DocumentServiceReplicaRoutingTest {
+
+    private static final String ADMIN = "admin";
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentCache documentCache;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Test
+    void testReads_servedByReplica() {
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.update("UPDATE DOCUMENT SET NAME = 'Replica Plan' WHERE ID = 20000");
+        replica.update("INSERT INTO DOCUMENT_PERMISSION (DOCUMENT_ID, USERNAME, PERMISSION_TYPE, CREATED_AT) " +
+                "VALUES (20000, 'reader1', 'READ', CURRENT_TIMESTAMP)");
+        documentCache.evict(20000L);
+
+        assertEquals("Replica Plan", documentService.getDocument(20000L, "reader1").getName());
+        assertTrue(documentService.getDocuments("reader1", null, 10, DocumentSort.ID).getDocuments().stream()
+                .anyMatch(model -> "Replica Plan".equals(model.getName())));
+        assertEquals(List.of(20000L), documentService.batchAccessCheck("reader1", PermissionType.READ, List.of(20000L)));
+    }
+
+    @Test
+    void testWrites_goToPrimaryAndAreReadBackFromIt() {
+        DocumentModel model = new DocumentModel();
+        model.setName("Primary Only");
+        model.setContent("body");
+        Long id = documentService.createDocument(model, ADMIN).getId();
+
+        Integer onReplica = new JdbcTemplate(replicaDataSource)
+                .queryForObject("SELECT COUNT(*) FROM DOCUMENT WHERE ID = ?", Integer.class, id);
+        assertEquals(0, onReplica);
+
+        // the writer reads its own document back
+        assertEquals("Primary Only", documentService.getDocument(id, ADMIN).getName());
+
+        // and a grantee sees the grant at once, the document changed within the window
+        DocumentPermissionModel permission = new DocumentPermissionModel();
+        permission.setUsername("grantee1");
+        permission.setPermission(PermissionType.READ);
+        documentService.grantPermission(id, ADMIN, permission);
+
+        assertEquals(List.of(id), documentService.batchAccessCheck("grantee1", PermissionType.READ, List.of(id)));
+        assertEquals("body", documentService.getDocument(id, "grantee1").getContent());
+    }
+}
@@ -0,0 +1,249 @@
+package com.raadkhatatbeh.doc_control_system.service;
+
+import com.raadkhatatbeh.doc_control_system.dto.BulkGrantPermissionRequest;
+import com.raadkhatatbeh.doc_control_system.exception.ResourceNotFoundException;
+import com.raadkhatatbeh.doc_control_system.model.DocumentChange;
+import com.raadkhatatbeh.doc_control_system.model.DocumentChangePage;
+import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentPage;
+import com.raadkhatatbeh.doc_control_system.model.DocumentPermissionModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentSort;
+import com.raadkhatatbeh.doc_control_system.model.FileType;
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import com.raadkhatatbeh.doc_control_system.service.shard.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DocumentServiceShardingTest.
+ * Three in-memory H2 databases stand in for the shards, each test works with its own users.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+// the index would answer permission checks without reading the shards
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-0;DB_CLOSE_DELAY=-1",
+        "doc-control.shards.count=3",
+        "doc-control.shards.datasources[0].jdbc-url=jdbc:h2:mem:sharding-1;DB_CLOSE_DELAY=-1",
+        "doc-control.shards.datasources[0].username=ra",
+        "doc-control.shards.datasources[0].password=ra",
+        "doc-control.shards.datasources[1].jdbc-url=jdbc:h2:mem:sharding-2;DB_CLOSE_DELAY=-1",
+        "doc-control.shards.datasources[1].username=ra",
+        "doc-control.shards.datasources[1].password=ra",
+        "doc-control.shards.init-schema=true",
+        "doc-control.permission-index.enabled=false",
+        "doc-control.purge.enabled=false"})
+class DocumentServiceShardingTest {
+
+    private static final String ADMIN = "admin";
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testCreateDocument_spreadOverShardsAndReadBack() {
+        List<Long> ids = createDocuments("spread-reader", 6);
+
+        assertEquals(Set.of(0, 1, 2), ids.stream().map(ShardRouter::shardOf).collect(Collectors.toSet()));
+        for (Long id : ids) {
+            int shard = ShardRouter.shardOf(id);
+            for (int other = 0; other < shardRouter.getCount(); other++) {
+                assertEquals(other == shard ? 1 : 0, countRows(other, id));
+            }
+            assertTrue(documentService.getDocument(id, "spread-reader").getContent().startsWith("content "));
+        }
+    }
+
+    @Test
+    void testGetDocument_unknownShard_notFound() {
+        assertThrows(ResourceNotFoundException.class, () -> documentService.getDocument(ShardRouter.firstId(7) + 1, ADMIN));
+    }
+
+    @Test
+    void testGetDocuments_shardsMergedInOrder() {
+        List<Long> ids = createDocuments("page-reader", 7);
+
+        for (DocumentSort sort : DocumentSort.values()) {
+            List<DocumentModel> listed = new ArrayList<>();
+            String cursor = null;
+            do {
+                DocumentPage page = documentService.getDocuments("page-reader", cursor, 3, sort);
+                assertTrue(page.getDocuments().size() <= 3);
+                listed.addAll(page.getDocuments());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            Comparator<DocumentModel> order = sort == DocumentSort.UPDATED_AT
+                    ? Comparator.comparing(DocumentModel::getUpdatedAt).thenComparing(DocumentModel::getId)
+                    : Comparator.comparing(DocumentModel::getId);
+            assertEquals(listed.stream().sorted(order).toList(), listed);
+            assertEquals(ids.stream().sorted().toList(), listed.stream().map(DocumentModel::getId).sorted().toList());
+            assertTrue(listed.stream().allMatch(model -> model.getAccessibleUsers().size() == 1));
+        }
+    }
+
+    @Test
+    void testBatchAccessCheck_shardsQueriedAndMergedInOrder() {
+        List<Long> ids = createDocuments("check-reader", 5);
+        createDocuments("check-other", 3);
+
+        List<Long> requested = new ArrayList<>(ids);
+        Collections.reverse(requested);
+        requested.add(ShardRouter.firstId(2) + 1);
+        requested.add(ShardRouter.firstId(9));
+        requested.add(ids.get(0));
+
+        assertEquals(ids.stream().sorted().toList(),
+                documentService.batchAccessCheck("check-reader", PermissionType.READ, requested));
+        assertEquals(List.of(), documentService.batchAccessCheck("check-reader", PermissionType.WRITE, requested));
+        assertEquals(ids.stream().sorted().toList(),
+                documentService.batchAccessCheck(ADMIN, PermissionType.READ, requested));
+    }
+
+    @Test
+    void testGrantPermissions_everyShardGranted() {
+        List<Long> ids = createDocuments("grant-reader", 4);
+
+        BulkGrantPermissionRequest request = new BulkGrantPermissionRequest();
+        request.setDocumentIds(ids);
+        request.setUsernames(List.of("grant-writer"));
+        request.setPermissions(List.of(PermissionType.WRITE));
+
+        assertEquals(4, documentService.grantPermissions(ADMIN, request));
+        assertEquals(ids.stream().sorted().toList(),
+                documentService.batchAccessCheck("grant-writer", PermissionType.WRITE, ids));
+    }
+
+    @Test
+    void testGrantPermissions_documentDeletedWhileGranting_noShardGranted() throws Exception {
+        List<Long> ids = createDocuments("rollback-reader", 3);
+        Long last = ids.stream().max(Comparator.naturalOrder()).orElseThrow();
+
+        BulkGrantPermissionRequest request = new BulkGrantPermissionRequest();
+        request.setDocumentIds(ids);
+        request.setUsernames(List.of("rollback-writer"));
+        request.setPermissions(List.of(PermissionType.WRITE));
+
+        // the last shard is locked and written last, the delete commits while the grant waits for its row
+        try (Connection connection = shardRouter.onShard(ShardRouter.shardOf(last), () -> deleteUncommitted(last))) {
+            CompletableFuture<Integer> grant = CompletableFuture.supplyAsync(() ->
+                    documentService.grantPermissions(ADMIN, request));
+            Thread.sleep(500);
+            connection.commit();
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> grant.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(ResourceNotFoundException.class, failure.getCause());
+        }
+
+        assertEquals(List.of(), documentService.batchAccessCheck("rollback-writer", PermissionType.WRITE, ids));
+    }
+
+    @Test
+    void testCreateDocuments_bulkStaysOnOneShard() {
+        List<DocumentModel> models = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            models.add(newDocument("bulk-reader", i));
+        }
+
+        List<Long> ids = documentService.createDocuments(models, ADMIN);
+
+        assertEquals(1, ids.stream().map(ShardRouter::shardOf).distinct().count());
+        assertEquals(60, ids.stream().distinct().count());
+        assertEquals(ids.stream().sorted().toList(),
+                documentService.batchAccessCheck("bulk-reader", PermissionType.READ, ids));
+    }
+
+    @Test
+    void testGetChanges_everyShardReadOnce() {
+        List<Long> ids = createDocuments("feed-reader", 5);
+        documentService.deleteDocument(ids.get(1), ADMIN);
+
+        List<DocumentChange> changes = new ArrayList<>();
+        String cursor = null;
+        DocumentChangePage page;
+        do {
+            page = documentService.getChanges("feed-reader", cursor, 2);
+            changes.addAll(page.getChanges());
+            cursor = page.getCursor();
+        } while (page.isHasMore());
+
+        assertEquals(ids.stream().sorted().toList(), changes.stream().map(DocumentChange::getDocumentId).sorted().toList());
+        assertEquals(List.of(), documentService.getChanges("feed-reader", cursor, 2).getChanges());
+    }
+
+    @Test
+    void testExportDocuments_idOrderAcrossShards() {
+        List<Long> ids = createDocuments("export-reader", 4);
+
+        List<Long> exported = new ArrayList<>();
+        documentService.exportDocuments("export-reader", model -> exported.add(model.getId()));
+
+        assertEquals(ids.stream().sorted().toList(), exported);
+    }
+
+    private List<Long> createDocuments(final String reader, final int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(documentService.createDocument(newDocument(reader, i), ADMIN).getId());
+        }
+        return ids;
+    }
+
+    // the connection reaches its shard on the first statement, which must run while the shard is bound
+    private Connection deleteUncommitted(final Long id) {
+        try {
+            Connection connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "UPDATE DOCUMENT SET DELETED_AT = CURRENT_TIMESTAMP WHERE ID = ?")) {
+                delete.setLong(1, id);
+                delete.executeUpdate();
+            }
+            return connection;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int countRows(final int shard, final Long id) {
+        return shardRouter.onShard(shard, () -> new JdbcTemplate(dataSource)
+                .queryForObject("SELECT COUNT(*) FROM DOCUMENT WHERE ID = ?", Integer.class, id));
+    }
+
+    private static DocumentModel newDocument(final String reader, final int index) {
+
+        DocumentPermissionModel permission = new DocumentPermissionModel();
+        permission.setUsername(reader);
+        permission.setPermission(PermissionType.READ);
+
+        DocumentModel model = new DocumentModel();
+        model.setName("Sharded Document " + index);
+        model.setContent("content " + index);
+        model.setFileType(FileType.CSV);
+        model.setAccessibleUsers(new ArrayList<>(List.of(permission)));
+        return model;
+    }
+}
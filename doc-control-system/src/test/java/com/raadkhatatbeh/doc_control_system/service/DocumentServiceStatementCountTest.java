@@ -0,0 +1,223 @@
+package com.raadkhatatbeh.doc_control_system.service;
+
+import com.raadkhatatbeh.doc_control_system.dto.BulkGrantPermissionRequest;
+import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentPermissionModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentSort;
+import com.raadkhatatbeh.doc_control_system.model.FileType;
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import com.raadkhatatbeh.doc_control_system.service.cache.DocumentCache;
+import com.raadkhatatbeh.doc_control_system.service.content.ContentFile;
+import com.raadkhatatbeh.doc_control_system.repo.SqlStatementCaptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DocumentServiceStatementCountTest.
+ * Asserts the exact number of SQL statements each {@link DocumentService} method sends,
+ * as captured by {@link SqlStatementCaptor}, so that an N+1 regression fails the build.
+ * Sequence fetches are not counted, the pooled ID optimizer only sends one every 50 IDs.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+// the purger is off, its background statements would be captured too
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "com.raadkhatatbeh.doc_control_system.repo.SqlStatementCaptor",
+        "doc-control.purge.enabled=false"})
+class DocumentServiceStatementCountTest {
+
+    private static final String ADMIN = "admin";
+    private static final String SEQUENCE_FETCH = "select next value for";
+    // every write ends with the change feed lock and one UPDATE drawing the change sequences
+    private static final int PUBLISH = 2;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentCache documentCache;
+
+    @BeforeEach
+    void setUp() {
+        documentCache.evict(90000L);
+    }
+
+    @Test
+    void testGetDocuments_admin_pageAndOneBatchedPermissionSelect() {
+        assertStatements(2, () -> documentService.getDocuments(ADMIN, null, 100, DocumentSort.ID));
+    }
+
+    @Test
+    void testGetDocuments_user_pageAndOneBatchedPermissionSelect() {
+        assertStatements(2, () -> documentService.getDocuments("user2", null, 100, DocumentSort.UPDATED_AT));
+    }
+
+    @Test
+    void testExportDocuments_singleSelect() {
+        List<DocumentModel> exported = new ArrayList<>();
+        assertStatements(1, () -> documentService.exportDocuments(ADMIN, exported::add));
+        assertFalse(exported.isEmpty());
+        assertTrue(exported.stream().anyMatch(model -> !model.getAccessibleUsers().isEmpty()));
+    }
+
+    @Test
+    void testGetDocument_documentAndContent() {
+        DocumentModel model = assertStatements(2, () -> documentService.getDocument(90000L, "user2"));
+        assertEquals(2, model.getAccessibleUsers().size());
+    }
+
+    @Test
+    void testGetDocument_cached_noStatement() {
+        documentService.getDocument(90000L, "user2");
+        assertStatements(0, () -> documentService.getDocument(90000L, "user2"));
+    }
+
+    @Test
+    void testGetDocument_accessDenied_noStatement() {
+        assertStatements(0, () -> assertThrows(RuntimeException.class, () ->
+                documentService.getDocument(90000L, "user4")));
+    }
+
+    @Test
+    void testBatchAccessCheck_noStatement() {
+        assertStatements(0, () -> documentService.batchAccessCheck("user2", PermissionType.READ, List.of(90000L, 1L)));
+    }
+
+    @Test
+    void testCreateGrantDelete() {
+        // document, one permission row and content
+        DocumentModel created = assertStatements(3 + PUBLISH, () -> documentService.createDocument(newDocument(), ADMIN));
+
+        DocumentPermissionModel permission = new DocumentPermissionModel();
+        permission.setUsername("user9");
+        permission.setPermission(PermissionType.READ);
+        // the row lock, a single MERGE whatever the size of the ACL and the version bump, repeating it inserts nothing
+        assertStatements(3 + PUBLISH, () -> documentService.grantPermission(created.getId(), ADMIN, permission));
+        assertStatements(2, () -> documentService.grantPermission(created.getId(), ADMIN, permission));
+
+        // only the tombstone, whatever the size of the ACL
+        assertStatements(1 + PUBLISH, () -> documentService.deleteDocument(created.getId(), ADMIN));
+        assertThrows(RuntimeException.class, () -> documentService.getDocument(created.getId(), ADMIN));
+    }
+
+    @Test
+    void testPurgeDeleted_oneStatementPerTable() {
+        // tombstones left by other tests are purged first
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        documentService.purgeDeleted(now, 1000);
+        List<Long> ids = documentService.createDocuments(List.of(newDocument(), newDocument()), ADMIN);
+        ids.forEach(id -> documentService.deleteDocument(id, ADMIN));
+
+        // tombstone IDs and their uploaded files, then permissions, content and documents, each removed by one DELETE
+        LocalDateTime later = LocalDateTime.now().plusSeconds(1);
+        assertEquals(2, assertStatements(5, () -> documentService.purgeDeleted(later, 1000)));
+        assertEquals(0, documentService.purgeDeleted(later, 1000));
+    }
+
+    @Test
+    void testUploadContent_contentColumnsAndOneUpdate() {
+        Long id = documentService.createDocument(newDocument(), ADMIN).getId();
+
+        // the content columns, then one compare-and-set UPDATE, whether a body is replaced or not
+        assertStatements(2 + PUBLISH, () -> documentService.uploadContent(id, ADMIN, body("first")));
+        assertStatements(2 + PUBLISH, () -> documentService.uploadContent(id, ADMIN, body("second")));
+
+        // only the content columns
+        Optional<ContentFile> content = assertStatements(1, () -> documentService.getContentFile(id, ADMIN));
+        assertEquals(6, content.orElseThrow().length());
+    }
+
+    @Test
+    void testResumableUpload_chunksWithoutStatement() {
+        Long id = documentService.createDocument(newDocument(), ADMIN).getId();
+
+        String uploadId = assertStatements(0, () -> documentService.startUpload(id, ADMIN));
+        assertStatements(0, () -> documentService.appendUpload(id, ADMIN, uploadId, 0, body("chunk")));
+        assertEquals(5L, assertStatements(2 + PUBLISH, () -> documentService.completeUpload(id, ADMIN, uploadId)));
+    }
+
+    @Test
+    void testGetChanges_changesAndOneBatchedPermissionSelect() {
+        assertStatements(2, () -> documentService.getChanges(ADMIN, null, 100));
+        assertStatements(2, () -> documentService.getChanges("user2", null, 100));
+    }
+
+    @Test
+    void testCreateDocuments_oneBatchPerTable() {
+        List<DocumentModel> models = List.of(newDocument(), newDocument(), newDocument());
+
+        // documents, permission rows and content, each sent as one JDBC batch
+        List<Long> ids = assertStatements(3 + PUBLISH, () -> documentService.createDocuments(models, ADMIN));
+
+        assertEquals(3, ids.size());
+        ids.forEach(id -> assertEquals(1, documentService.getDocument(id, ADMIN).getAccessibleUsers().size()));
+    }
+
+    @Test
+    void testGrantPermissions_oneStatementPerPermissionType() {
+        List<Long> ids = documentService.createDocuments(List.of(newDocument(), newDocument()), ADMIN);
+
+        BulkGrantPermissionRequest request = new BulkGrantPermissionRequest();
+        request.setDocumentIds(ids);
+        request.setUsernames(List.of("user10", "user11", "user12"));
+        request.setPermissions(List.of(PermissionType.READ, PermissionType.WRITE));
+
+        // the row locks, one insert per permission type and one version bump
+        assertEquals(12, assertStatements(4 + PUBLISH, () -> documentService.grantPermissions(ADMIN, request)));
+    }
+
+    @Test
+    void testGetDocumentVersion_singleSelect() {
+        documentService.getDocument(90000L, "user2");
+        assertNotNull(assertStatements(1, () -> documentService.getDocumentVersion(90000L, "user2")));
+    }
+
+    private static InputStream body(final String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static DocumentModel newDocument() {
+
+        DocumentPermissionModel permission = new DocumentPermissionModel();
+        permission.setUsername("user8");
+        permission.setPermission(PermissionType.WRITE);
+
+        DocumentModel model = new DocumentModel();
+        model.setName("Counted Document");
+        model.setContent("content");
+        model.setFileType(FileType.CSV);
+        model.setAccessibleUsers(new ArrayList<>(List.of(permission)));
+        return model;
+    }
+
+    private void assertStatements(final long expected, final Runnable action) {
+        assertStatements(expected, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private <T> T assertStatements(final long expected, final Supplier<T> action) {
+
+        SqlStatementCaptor.clear();
+        T result = action.get();
+        List<String> statements = SqlStatementCaptor.statements().stream()
+                .filter(sql -> !sql.startsWith(SEQUENCE_FETCH))
+                .toList();
+        assertEquals(expected, statements.size(), () -> "SQL statements: " + statements);
+        return result;
+    }
+}
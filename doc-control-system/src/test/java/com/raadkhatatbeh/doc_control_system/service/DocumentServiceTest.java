@@ -1,19 +1,61 @@
 package com.raadkhatatbeh.doc_control_system.service;
 
+import com.raadkhatatbeh.doc_control_system.dto.BulkGrantPermissionRequest;
 import com.raadkhatatbeh.doc_control_system.exception.AccessDeniedException;
+import com.raadkhatatbeh.doc_control_system.exception.BadRequestException;
+import com.raadkhatatbeh.doc_control_system.exception.ConflictException;
+import com.raadkhatatbeh.doc_control_system.exception.InvalidItemsException;
 import com.raadkhatatbeh.doc_control_system.exception.ResourceNotFoundException;
+import com.raadkhatatbeh.doc_control_system.model.ChangeType;
+import com.raadkhatatbeh.doc_control_system.model.ContentEncoding;
+import com.raadkhatatbeh.doc_control_system.model.DocumentChange;
+import com.raadkhatatbeh.doc_control_system.model.DocumentChangePage;
 import com.raadkhatatbeh.doc_control_system.model.DocumentModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentPage;
 import com.raadkhatatbeh.doc_control_system.model.DocumentPermissionModel;
+import com.raadkhatatbeh.doc_control_system.model.DocumentSort;
+import com.raadkhatatbeh.doc_control_system.model.FileType;
 import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import com.raadkhatatbeh.doc_control_system.repo.DocumentContentRepo;
+import com.raadkhatatbeh.doc_control_system.repo.DocumentPermissionRepo;
 import com.raadkhatatbeh.doc_control_system.repo.DocumentRepo;
 import com.raadkhatatbeh.doc_control_system.repo.entity.Document;
 import com.raadkhatatbeh.doc_control_system.repo.entity.DocumentPermission;
+import com.raadkhatatbeh.doc_control_system.repo.projection.DocumentContentView;
+import com.raadkhatatbeh.doc_control_system.repo.projection.DocumentPermissionView;
+import com.raadkhatatbeh.doc_control_system.service.audit.AuditAction;
+import com.raadkhatatbeh.doc_control_system.service.audit.AuditLog;
+import com.raadkhatatbeh.doc_control_system.service.batch.AccessCheckBatcher;
+import com.raadkhatatbeh.doc_control_system.service.cache.DocumentCache;
+import com.raadkhatatbeh.doc_control_system.service.cache.PermissionDecisionCache;
+import com.raadkhatatbeh.doc_control_system.service.content.ContentFile;
+import com.raadkhatatbeh.doc_control_system.service.content.ContentStore;
+import com.raadkhatatbeh.doc_control_system.service.content.StoredContent;
+import com.raadkhatatbeh.doc_control_system.service.index.PermissionIndex;
+import com.raadkhatatbeh.doc_control_system.service.pagination.ChangeCursor;
+import com.raadkhatatbeh.doc_control_system.service.pagination.DocumentCursor;
+import com.raadkhatatbeh.doc_control_system.service.routing.ReadYourWrites;
+import com.raadkhatatbeh.doc_control_system.service.shard.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -28,7 +70,35 @@ public class DocumentServiceTest {
     @Mock
     private DocumentRepo documentRepo;
 
-    @InjectMocks
+    @Mock
+    private DocumentContentRepo documentContentRepo;
+
+    @Mock
+    private DocumentPermissionRepo documentPermissionRepo;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @Mock
+    private ContentStore contentStore;
+
+    private PermissionIndex permissionIndex;
+
+    private DocumentCache documentCache;
+
+    private PermissionDecisionCache decisionCache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccessCheckBatcher accessCheckBatcher;
+
+    private ReadYourWrites readYourWrites;
+
+    private ShardRouter shardRouter;
+
     private DocumentService documentService;
 
     private final String ADMIN = "admin";
@@ -36,6 +106,15 @@ public class DocumentServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        shardRouter = new ShardRouter(1, new SimpleAsyncTaskExecutor(), mock(PlatformTransactionManager.class));
+        permissionIndex = new PermissionIndex(documentRepo, shardRouter, true);
+        meterRegistry = new SimpleMeterRegistry();
+        documentCache = new DocumentCache(new ConcurrentMapCacheManager(DocumentCache.NAME), meterRegistry);
+        decisionCache = new PermissionDecisionCache("maximumSize=100", new SimpleMeterRegistry());
+        accessCheckBatcher = new AccessCheckBatcher(documentRepo, false, Duration.ZERO, 1, meterRegistry);
+        readYourWrites = new ReadYourWrites(false, Duration.ofSeconds(5));
+        documentService = new DocumentService(documentRepo, documentContentRepo, documentPermissionRepo, permissionIndex,
+                documentCache, decisionCache, auditLog, accessCheckBatcher, contentStore, readYourWrites, shardRouter, entityManager);
     }
 
     @Test
@@ -44,12 +123,21 @@ public class DocumentServiceTest {
         model.setName("Valid Document");
         model.setContent("Some valid content");
 
-        when(documentRepo.save(any())).thenAnswer(i -> i.getArguments()[0]);
+        when(documentRepo.save(any())).thenAnswer(i -> {
+            Document document = i.getArgument(0);
+            document.setId(1L);
+            return document;
+        });
 
         DocumentModel saved = documentService.createDocument(model, ADMIN);
 
         assertNotNull(saved);
         assertEquals("Valid Document", saved.getName());
+        assertTrue(permissionIndex.exists(1L));
+        verify(documentContentRepo).save(argThat(content ->
+                content.getDocument().getId() == 1L && "Some valid content".equals(content.getContent())));
+        verify(auditLog).appendAll(argThat(records -> records.size() == 1
+                && records.iterator().next().action() == AuditAction.DOCUMENT_CREATED));
     }
 
     @Test
@@ -62,38 +150,250 @@ public class DocumentServiceTest {
                 documentService.createDocument(model, "user1"));
     }
 
+    @Test
+    void testCreateDocuments_reportsEveryInvalidItem() {
+        DocumentModel valid = new DocumentModel();
+        valid.setName("Valid Document");
+        valid.setContent("Some valid content");
+
+        DocumentModel noName = new DocumentModel();
+        noName.setContent("Some valid content");
+
+        DocumentModel shortContent = new DocumentModel();
+        shortContent.setName("Valid Document");
+        shortContent.setContent("x");
+
+        InvalidItemsException ex = assertThrows(InvalidItemsException.class, () ->
+                documentService.createDocuments(List.of(valid, noName, shortContent), ADMIN));
+
+        assertEquals(2, ex.getErrors().size());
+        assertTrue(ex.getErrors().get(0).startsWith("[1]"));
+        assertTrue(ex.getErrors().get(1).startsWith("[2]"));
+        verify(documentRepo, never()).saveAll(any());
+    }
+
+    @Test
+    void testCreateDocuments_savesAllAndIndexes() {
+        DocumentModel first = new DocumentModel();
+        first.setName("First Document");
+        first.setContent("Some valid content");
+
+        DocumentModel second = new DocumentModel();
+        second.setName("Second Document");
+        second.setContent("Some valid content");
+
+        when(documentRepo.saveAll(anyList())).thenAnswer(i -> {
+            List<Document> documents = i.getArgument(0);
+            long id = 1;
+            for (Document document : documents) {
+                document.setId(id++);
+            }
+            return documents;
+        });
+
+        List<Long> ids = documentService.createDocuments(List.of(first, second), ADMIN);
+
+        assertEquals(List.of(1L, 2L), ids);
+        verify(documentContentRepo).saveAll(argThat(contents -> contents.spliterator().getExactSizeIfKnown() == 2));
+        verify(entityManager).flush();
+        assertTrue(permissionIndex.exists(1L));
+        assertTrue(permissionIndex.exists(2L));
+    }
+
+    @Test
+    void testCreateDocuments_nonAdmin_throwsAccessDenied() {
+        assertThrows(AccessDeniedException.class, () ->
+                documentService.createDocuments(List.of(new DocumentModel()), "user1"));
+    }
+
     @Test
     void testGetDocuments_asAdmin_returnsAll() {
         List<Document> mockDocs = List.of(new Document(), new Document());
-        when(documentRepo.findAll()).thenReturn(mockDocs);
+        when(documentRepo.findPageOrderById(0L, Limit.of(11))).thenReturn(mockDocs);
 
-        List<DocumentModel> result = documentService.getDocuments(ADMIN);
-        assertEquals(2, result.size());
+        DocumentPage result = documentService.getDocuments(ADMIN, null, 10, DocumentSort.ID);
+        assertEquals(2, result.getDocuments().size());
+        assertNull(result.getNextCursor());
     }
 
     @Test
     void testGetDocuments_asUser_returnsAccessible() {
-        when(documentRepo.findByUsernameAndPermission("user1", PermissionType.READ))
+        when(documentRepo.findPageByUsernameAndPermissionOrderById("user1", PermissionType.READ, 0L, Limit.of(11)))
                 .thenReturn(List.of(new Document()));
 
-        List<DocumentModel> result = documentService.getDocuments("user1");
-        assertEquals(1, result.size());
+        DocumentPage result = documentService.getDocuments("user1", null, 10, DocumentSort.ID);
+        assertEquals(1, result.getDocuments().size());
+    }
+
+    @Test
+    void testGetDocuments_fullPage_returnsCursorOfLastDocument() {
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 1, 1, 10, 0);
+        List<Document> mockDocs = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Document doc = new Document();
+            doc.setId(id);
+            doc.setUpdatedAt(updatedAt);
+            mockDocs.add(doc);
+        }
+        when(documentRepo.findPageOrderByUpdatedAt(any(), eq(0L), eq(Limit.of(3)))).thenReturn(mockDocs);
+        when(documentRepo.findPageOrderByUpdatedAt(updatedAt, 2L, Limit.of(3))).thenReturn(mockDocs.subList(2, 3));
+
+        DocumentPage first = documentService.getDocuments(ADMIN, null, 2, DocumentSort.UPDATED_AT);
+        assertEquals(2, first.getDocuments().size());
+        assertNotNull(first.getNextCursor());
+
+        DocumentPage second = documentService.getDocuments(ADMIN, first.getNextCursor(), 2, DocumentSort.UPDATED_AT);
+        assertEquals(List.of(3L), second.getDocuments().stream().map(DocumentModel::getId).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testGetDocuments_invalidCursorOrLimit_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () ->
+                documentService.getDocuments(ADMIN, "not-a-cursor", 10, DocumentSort.ID));
+        assertThrows(BadRequestException.class, () ->
+                documentService.getDocuments(ADMIN, null, 0, DocumentSort.ID));
+
+        String idCursor = DocumentCursor.first(DocumentSort.ID).encode();
+        assertThrows(BadRequestException.class, () ->
+                documentService.getDocuments(ADMIN, idCursor, 10, DocumentSort.UPDATED_AT));
+    }
+
+    @Test
+    void testExportDocuments_asUser_streamsAndDetachesEachDocument() {
+        Document d1 = new Document();
+        d1.setId(1L);
+        Document d2 = new Document();
+        d2.setId(2L);
+
+        when(documentRepo.streamByUsernameAndPermission("user1", PermissionType.READ))
+                .thenReturn(Stream.of(d1, d2));
+
+        List<Long> exported = new ArrayList<>();
+        documentService.exportDocuments("user1", model -> exported.add(model.getId()));
+
+        assertEquals(List.of(1L, 2L), exported);
+        verify(entityManager).detach(d1);
+        verify(entityManager).detach(d2);
+        verify(documentRepo, never()).streamAll();
     }
 
     @Test
     void testGetDocument_asAdmin_success() {
         Document doc = new Document();
         doc.setId(1L);
+        permissionIndex.addDocument(doc);
 
-        when(documentRepo.findById(1L)).thenReturn(Optional.of(doc));
+        when(documentRepo.findWithAccessibleUsersById(1L)).thenReturn(Optional.of(doc));
+        when(documentContentRepo.findContentByDocumentId(1L)).thenReturn(Optional.of("body"));
 
         DocumentModel result = documentService.getDocument(1L, ADMIN);
         assertEquals(1L, result.getId());
+        assertEquals("body", result.getContent());
+    }
+
+    @Test
+    void testGetDocument_evictedWhileLoading_onlyThatDocumentDropped() {
+        Document d1 = new Document();
+        d1.setId(1L);
+        Document d2 = new Document();
+        d2.setId(2L);
+        List.of(d1, d2).forEach(permissionIndex::addDocument);
+
+        // a write to another document while document 1 loads, and to document 2 itself while it loads
+        when(documentRepo.findWithAccessibleUsersById(1L)).thenAnswer(i -> {
+            documentCache.evict(2L);
+            decisionCache.evictDocument(2L);
+            return Optional.of(d1);
+        });
+        when(documentRepo.findWithAccessibleUsersById(2L)).thenAnswer(i -> {
+            documentCache.evict(2L);
+            return Optional.of(d2);
+        });
+
+        documentService.getDocument(1L, ADMIN);
+        documentService.getDocument(1L, ADMIN);
+        verify(documentRepo, times(1)).findWithAccessibleUsersById(1L);
+
+        documentService.getDocument(2L, ADMIN);
+        documentService.getDocument(2L, ADMIN);
+        verify(documentRepo, times(2)).findWithAccessibleUsersById(2L);
+    }
+
+    @Test
+    void testGetDocument_cached_loadsOnceUntilGrant() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        when(documentRepo.findWithAccessibleUsersById(1L)).thenReturn(Optional.of(doc));
+
+        documentService.getDocument(1L, ADMIN);
+        documentService.getDocument(1L, ADMIN);
+        verify(documentRepo, times(1)).findWithAccessibleUsersById(1L);
+
+        DocumentPermissionModel permissionModel = new DocumentPermissionModel();
+        permissionModel.setUsername("user1");
+        permissionModel.setPermission(PermissionType.READ);
+        when(documentRepo.lockActive(List.of(1L))).thenReturn(List.of(1L));
+        documentService.grantPermission(1L, ADMIN, permissionModel);
+
+        DocumentModel result = documentService.getDocument(1L, "user1");
+        assertEquals(1L, result.getId());
+        verify(documentRepo, times(2)).findWithAccessibleUsersById(1L);
+    }
+
+    @Test
+    void testGetDocument_concurrentMisses_shareOneLoadButCheckEachUser() throws Exception {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+        permissionIndex.grant(1L, "user1", PermissionType.READ);
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(documentRepo.findWithAccessibleUsersById(1L)).thenAnswer(i -> {
+            loading.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return Optional.of(doc);
+        });
+
+        CompletableFuture<DocumentModel> first = CompletableFuture.supplyAsync(() -> documentService.getDocument(1L, ADMIN));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+        CompletableFuture<DocumentModel> second = CompletableFuture.supplyAsync(() -> documentService.getDocument(1L, "user1"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalescedLoads() < 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThrows(AccessDeniedException.class, () -> documentService.getDocument(1L, "user2"));
+        release.countDown();
+
+        assertEquals(1L, first.get(10, TimeUnit.SECONDS).getId());
+        assertSame(first.get(), second.get(10, TimeUnit.SECONDS));
+        verify(documentRepo, times(1)).findWithAccessibleUsersById(1L);
+        assertEquals(1.0, coalescedLoads());
+        assertEquals(1.0, meterRegistry.get(DocumentCache.NAME + ".loads").tag("result", "executed").counter().count());
+    }
+
+    private double coalescedLoads() {
+        return meterRegistry.get(DocumentCache.NAME + ".loads").tag("result", "coalesced").counter().count();
+    }
+
+    @Test
+    void testGetDocument_withoutPermission_throwsAccessDeniedWithoutLoading() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        assertThrows(AccessDeniedException.class, () ->
+                documentService.getDocument(1L, "user1"));
+        verify(documentRepo, never()).findWithAccessibleUsersById(any());
     }
 
     @Test
     void testGetDocument_notFound_throwsResourceFoundException() {
-        when(documentRepo.findById(1L)).thenReturn(Optional.empty());
+        when(documentRepo.findWithAccessibleUsersById(1L)).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class, () ->
                 documentService.getDocument(1L, ADMIN));
     }
@@ -108,12 +408,218 @@ public class DocumentServiceTest {
         permission.setPermissionType(PermissionType.DELETE);
 
         doc.getAccessibleUsers().add(permission);
+        permissionIndex.addDocument(doc);
 
-        when(documentRepo.findById(1L)).thenReturn(Optional.of(doc));
+        when(documentRepo.markDeleted(eq(1L), any())).thenReturn(1);
 
         documentService.deleteDocument(1L, "user1");
 
-        verify(documentRepo, times(1)).delete(doc);
+        // only the tombstone is written, children are left for the purger
+        verify(documentRepo, times(1)).markDeleted(eq(1L), any());
+        verify(documentRepo, never()).findWithAccessibleUsersById(any());
+        verify(documentRepo, never()).delete(any());
+        verifyNoInteractions(documentContentRepo);
+        verify(auditLog, times(1)).append(argThat(record -> record.action() == AuditAction.DOCUMENT_DELETED));
+        assertFalse(permissionIndex.exists(1L));
+        assertFalse(permissionIndex.hasPermission("user1", 1L, PermissionType.DELETE));
+    }
+
+    @Test
+    void testDeleteDocument_concurrentlyDeleted_throwsNotFound() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        when(documentRepo.markDeleted(eq(1L), any())).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> documentService.deleteDocument(1L, ADMIN));
+    }
+
+    @Test
+    void testPurgeDeleted_removesChildrenThenDocuments() {
+        LocalDateTime before = LocalDateTime.now();
+        when(documentRepo.findDeletedIds(before, 100)).thenReturn(List.of(1L, 2L));
+        when(documentRepo.findContentPaths(List.of(1L, 2L))).thenReturn(List.of("001/1-a"));
+        when(documentRepo.purge(List.of(1L, 2L))).thenReturn(2);
+
+        assertEquals(2, documentService.purgeDeleted(before, 100));
+
+        var order = inOrder(documentPermissionRepo, documentContentRepo, documentRepo, contentStore);
+        order.verify(documentPermissionRepo).deleteByDocumentIds(List.of(1L, 2L));
+        order.verify(documentContentRepo).deleteByDocumentIds(List.of(1L, 2L));
+        order.verify(documentRepo).purge(List.of(1L, 2L));
+        order.verify(contentStore).delete("001/1-a");
+    }
+
+    @Test
+    void testPurgeDeleted_nothingDeleted_noDelete() {
+        LocalDateTime before = LocalDateTime.now();
+        when(documentRepo.findDeletedIds(before, 100)).thenReturn(List.of());
+
+        assertEquals(0, documentService.purgeDeleted(before, 100));
+        verify(documentRepo, never()).purge(any());
+        verifyNoInteractions(documentPermissionRepo, documentContentRepo);
+    }
+
+    @Test
+    void testUploadContent_writesFileThenReplacesPrevious() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        InputStream body = new ByteArrayInputStream(new byte[]{1, 2, 3});
+        DocumentContentView view = contentView(FileType.PDF, "001/1-old", 9L);
+        when(documentRepo.findContentViewById(1L)).thenReturn(Optional.of(view));
+        when(contentStore.write(1L, FileType.PDF, body)).thenReturn(new StoredContent("001/1-new", 3, ContentEncoding.IDENTITY));
+        when(documentRepo.updateContentAndPublish(1L, "001/1-old", "001/1-new", 3, "IDENTITY")).thenReturn(1);
+
+        documentService.uploadContent(1L, ADMIN, body);
+
+        var order = inOrder(contentStore, documentRepo);
+        order.verify(contentStore).write(1L, FileType.PDF, body);
+        order.verify(documentRepo).updateContentAndPublish(1L, "001/1-old", "001/1-new", 3, "IDENTITY");
+        order.verify(contentStore).delete("001/1-old");
+    }
+
+    @Test
+    void testUploadContent_deletedMeanwhile_removesNewFile() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        InputStream body = new ByteArrayInputStream(new byte[]{1});
+        DocumentContentView view = contentView(FileType.PDF, null, null);
+        when(documentRepo.findContentViewById(1L)).thenReturn(Optional.of(view), Optional.empty());
+        when(contentStore.write(1L, FileType.PDF, body)).thenReturn(new StoredContent("001/1-new", 1, ContentEncoding.IDENTITY));
+        when(documentRepo.updateContentAndPublish(1L, null, "001/1-new", 1, "IDENTITY")).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> documentService.uploadContent(1L, ADMIN, body));
+        verify(contentStore).delete("001/1-new");
+    }
+
+    @Test
+    void testUploadContent_replacedMeanwhile_removesNewFileAndKeepsOther() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        // another upload replaced 001/1-old with its own body while this one was being written
+        InputStream body = new ByteArrayInputStream(new byte[]{1});
+        DocumentContentView view = contentView(FileType.PDF, "001/1-old", 9L);
+        when(documentRepo.findContentViewById(1L)).thenReturn(Optional.of(view));
+        when(contentStore.write(1L, FileType.PDF, body)).thenReturn(new StoredContent("001/1-new", 1, ContentEncoding.IDENTITY));
+        when(documentRepo.updateContentAndPublish(1L, "001/1-old", "001/1-new", 1, "IDENTITY")).thenReturn(0);
+
+        assertThrows(ConflictException.class, () -> documentService.uploadContent(1L, ADMIN, body));
+        verify(contentStore).delete("001/1-new");
+        verify(contentStore, never()).delete("001/1-old");
+    }
+
+    @Test
+    void testUploadContent_withoutWrite_throwsAccessDeniedWithoutWriting() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        assertThrows(AccessDeniedException.class, () ->
+                documentService.uploadContent(1L, "user1", new ByteArrayInputStream(new byte[0])));
+        verifyNoInteractions(contentStore);
+    }
+
+    @Test
+    void testCompleteUpload_replacesContentWithAssembledFile() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        DocumentContentView view = contentView(FileType.XML, "001/1-old", 9L);
+        when(documentRepo.findContentViewById(1L)).thenReturn(Optional.of(view));
+        when(contentStore.completeUpload(1L, "u1", FileType.XML)).thenReturn(new StoredContent("001/1-new", 40, ContentEncoding.GZIP));
+        when(documentRepo.updateContentAndPublish(1L, "001/1-old", "001/1-new", 40, "GZIP")).thenReturn(1);
+
+        assertEquals(40, documentService.completeUpload(1L, ADMIN, "u1"));
+        verify(contentStore).delete("001/1-old");
+    }
+
+    @Test
+    void testAppendUpload_withoutWrite_throwsAccessDenied() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        assertThrows(AccessDeniedException.class, () ->
+                documentService.appendUpload(1L, "user1", "u1", 0, new ByteArrayInputStream(new byte[1])));
+        verifyNoInteractions(contentStore);
+    }
+
+    @Test
+    void testGetContentFile_returnsStoredFileOrEmpty() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        when(contentStore.resolve("001/1-a")).thenReturn(Path.of("content/001/1-a"));
+        DocumentContentView uploaded = contentView(FileType.CSV, "001/1-a", 42L);
+        when(documentRepo.findContentViewById(1L)).thenReturn(Optional.of(uploaded));
+
+        ContentFile file = documentService.getContentFile(1L, ADMIN).orElseThrow();
+        assertEquals(Path.of("content/001/1-a"), file.file());
+        assertEquals(42L, file.length());
+        assertEquals("text/csv", file.mediaType());
+        assertEquals(3L, file.version());
+        assertEquals(ContentEncoding.GZIP, file.encoding());
+
+        DocumentContentView none = contentView(null, null, null);
+        when(documentRepo.findContentViewById(1L)).thenReturn(Optional.of(none));
+        assertTrue(documentService.getContentFile(1L, ADMIN).isEmpty());
+    }
+
+    @Test
+    void testGetChanges_admin_reportsUpsertsAndDeletes() {
+        Document updated = new Document();
+        updated.setId(1L);
+        updated.setChangeSeq(7L);
+        updated.setUpdatedAt(LocalDateTime.now());
+
+        Document deleted = new Document();
+        deleted.setId(2L);
+        deleted.setChangeSeq(9L);
+        deleted.setDeletedAt(LocalDateTime.now());
+
+        Document extra = new Document();
+        extra.setId(3L);
+        extra.setChangeSeq(10L);
+
+        when(documentRepo.findChangesAfter(0L, 3)).thenReturn(List.of(updated, deleted, extra));
+
+        DocumentChangePage page = documentService.getChanges(ADMIN, null, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals(List.of(ChangeType.UPSERTED, ChangeType.DELETED),
+                page.getChanges().stream().map(DocumentChange::getType).toList());
+        assertEquals(1L, page.getChanges().get(0).getDocument().getId());
+        assertNull(page.getChanges().get(1).getDocument());
+        assertEquals(9L, ChangeCursor.decode(page.getCursor()).getChangeSeq());
+    }
+
+    @Test
+    void testGetChanges_user_filteredByRead_keepsCursorWhenEmpty() {
+        String cursor = ChangeCursor.after(42L).encode();
+        when(documentRepo.findChangesByUsernameAndPermissionAfter("user1", "READ", 42L, 11)).thenReturn(List.of());
+
+        DocumentChangePage page = documentService.getChanges("user1", cursor, 10);
+
+        assertTrue(page.getChanges().isEmpty());
+        assertFalse(page.isHasMore());
+        assertEquals(cursor, page.getCursor());
+        verify(documentRepo, never()).findChangesAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void testGetChanges_invalidCursor_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> documentService.getChanges(ADMIN, "not-a-cursor", 10));
+        assertThrows(BadRequestException.class, () ->
+                documentService.getChanges(ADMIN, DocumentCursor.first(DocumentSort.ID).encode(), 10));
     }
 
     @Test
@@ -123,18 +629,183 @@ public class DocumentServiceTest {
         permissionModel.setPermission(PermissionType.READ);
 
         Document doc = new Document();
-        doc.setAccessibleUsers(new ArrayList<>());
-
-        when(documentRepo.findById(1L)).thenReturn(Optional.of(doc));
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+        when(documentRepo.lockActive(List.of(1L))).thenReturn(List.of(1L));
+        when(documentPermissionRepo.grant(1L, "user1", "READ")).thenReturn(1, 0);
+        when(documentRepo.incrementVersions(List.of(1L))).thenReturn(1);
 
         documentService.grantPermission(1L, ADMIN, permissionModel);
-        verify(documentRepo, times(1)).save(doc);
-        assertEquals(1, doc.getAccessibleUsers().size());
+        verify(documentPermissionRepo, times(1)).grant(1L, "user1", "READ");
+        verify(documentRepo, times(1)).incrementVersions(List.of(1L));
+        verify(auditLog, times(1)).append(argThat(record -> record.action() == AuditAction.PERMISSION_GRANTED
+                && record.documentId() == 1L && "user1".equals(record.username())));
+        verify(documentRepo, never()).findWithAccessibleUsersById(any());
+        verify(documentRepo, never()).save(any());
+        assertTrue(permissionIndex.hasPermission("user1", 1L, PermissionType.READ));
+
+        // nothing was inserted, the version is left alone and nothing is audited
+        documentService.grantPermission(1L, ADMIN, permissionModel);
+        verify(documentRepo, times(1)).incrementVersions(anyList());
+        verify(auditLog, times(1)).append(any());
+    }
+
+    @Test
+    void testGrantPermission_userWithOtherPermission_addsNewPermission() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+        permissionIndex.grant(1L, "user3", PermissionType.WRITE);
+        permissionIndex.grant(1L, "user1", PermissionType.READ);
+
+        DocumentPermissionModel permissionModel = new DocumentPermissionModel();
+        permissionModel.setUsername("user1");
+        permissionModel.setPermission(PermissionType.WRITE);
+
+        when(documentRepo.lockActive(List.of(1L))).thenReturn(List.of(1L));
+        documentService.grantPermission(1L, "user3", permissionModel);
+        verify(documentPermissionRepo, times(1)).grant(1L, "user1", "WRITE");
+        assertTrue(permissionIndex.hasPermission("user1", 1L, PermissionType.WRITE));
+    }
+
+    @Test
+    void testGrantPermission_documentDeletedMeanwhile_throwsNotFound() {
+        Document doc = new Document();
+        doc.setId(1L);
+        permissionIndex.addDocument(doc);
+
+        DocumentPermissionModel permissionModel = new DocumentPermissionModel();
+        permissionModel.setUsername("user1");
+        permissionModel.setPermission(PermissionType.READ);
+
+        // deleted between the check and the lock
+        when(documentRepo.lockActive(List.of(1L))).thenReturn(List.of());
+        assertThrows(ResourceNotFoundException.class, () ->
+                documentService.grantPermission(1L, ADMIN, permissionModel));
+        verify(documentPermissionRepo, never()).grant(anyLong(), anyString(), anyString());
+
+        // deleted between the MERGE and the version bump
+        when(documentRepo.lockActive(List.of(1L))).thenReturn(List.of(1L));
+        when(documentPermissionRepo.grant(1L, "user1", "READ")).thenReturn(1);
+        when(documentRepo.incrementVersions(List.of(1L))).thenReturn(0);
+        assertThrows(ResourceNotFoundException.class, () ->
+                documentService.grantPermission(1L, ADMIN, permissionModel));
+
+        assertFalse(permissionIndex.hasPermission("user1", 1L, PermissionType.READ));
+        verify(auditLog, never()).append(any());
+    }
+
+    @Test
+    void testGrantPermissions_grantsEveryPermissionPerChunk() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1500; id++) {
+            Document doc = new Document();
+            doc.setId(id);
+            permissionIndex.addDocument(doc);
+            ids.add(id);
+        }
+
+        when(documentRepo.lockActive(anyList())).thenAnswer(i -> i.getArgument(0));
+        when(documentPermissionRepo.grantAll(anyList(), any(), anyString())).thenAnswer(i -> {
+            List<DocumentPermissionView> rows = new ArrayList<>();
+            for (Long id : i.<List<Long>>getArgument(0)) {
+                for (String user : i.<String[]>getArgument(1)) {
+                    rows.add(permissionRow(id, user, PermissionType.valueOf(i.getArgument(2))));
+                }
+            }
+            return rows;
+        });
+
+        BulkGrantPermissionRequest request = new BulkGrantPermissionRequest();
+        request.setDocumentIds(ids);
+        request.setUsernames(List.of("user1", "user2", "user1"));
+        request.setPermissions(List.of(PermissionType.READ, PermissionType.WRITE));
+
+        int granted = documentService.grantPermissions(ADMIN, request);
+
+        assertEquals(1500 * 2 * 2, granted);
+        verify(documentPermissionRepo, times(4)).grantAll(anyList(), any(), anyString());
+        verify(documentRepo, times(2)).incrementVersions(anyList());
+        verify(documentRepo, never()).save(any());
+        assertTrue(permissionIndex.hasPermission("user2", 1500L, PermissionType.WRITE));
+        assertEquals(ids, permissionIndex.filterAccessible("user1", PermissionType.READ, ids));
+    }
+
+    @Test
+    void testGrantPermissions_onlyInsertedRowsAreRecorded() {
+        List.of(1L, 2L, 3L).forEach(id -> {
+            Document doc = new Document();
+            doc.setId(id);
+            permissionIndex.addDocument(doc);
+        });
+
+        // user1 already reads 2 and 3
+        when(documentRepo.lockActive(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 2L, 3L));
+        when(documentPermissionRepo.grantAll(eq(List.of(1L, 2L, 3L)), any(), eq(PermissionType.READ.name())))
+                .thenReturn(List.of(permissionRow(1L, "user1")));
+
+        BulkGrantPermissionRequest request = new BulkGrantPermissionRequest();
+        request.setDocumentIds(List.of(1L, 2L, 3L));
+        request.setUsernames(List.of("user1"));
+        request.setPermissions(List.of(PermissionType.READ));
+
+        assertEquals(1, documentService.grantPermissions(ADMIN, request));
+        verify(documentRepo).incrementVersions(List.of(1L));
+        verify(auditLog).appendAll(argThat(records -> records.size() == 1
+                && records.iterator().next().documentId() == 1L));
+        assertTrue(permissionIndex.hasPermission("user1", 1L, PermissionType.READ));
+        assertFalse(permissionIndex.hasPermission("user1", 2L, PermissionType.READ));
+    }
+
+    @Test
+    void testGrantPermissions_documentDeletedSinceCheck_grantsNothing() {
+        List.of(1L, 2L).forEach(id -> {
+            Document doc = new Document();
+            doc.setId(id);
+            permissionIndex.addDocument(doc);
+        });
+        when(documentRepo.lockActive(List.of(1L, 2L))).thenReturn(List.of(1L));
+
+        BulkGrantPermissionRequest request = new BulkGrantPermissionRequest();
+        request.setDocumentIds(List.of(1L, 2L));
+        request.setUsernames(List.of("user1"));
+        request.setPermissions(List.of(PermissionType.READ));
+
+        assertThrows(ResourceNotFoundException.class, () -> documentService.grantPermissions(ADMIN, request));
+        verifyNoInteractions(documentPermissionRepo);
+        verify(auditLog, never()).appendAll(any());
+    }
+
+    @Test
+    void testGrantPermissions_withoutWriteOnEveryDocument_throwsAccessDenied() {
+        Document d1 = new Document();
+        d1.setId(1L);
+        Document d2 = new Document();
+        d2.setId(2L);
+        List.of(d1, d2).forEach(permissionIndex::addDocument);
+        permissionIndex.grant(1L, "user1", PermissionType.WRITE);
+
+        BulkGrantPermissionRequest request = new BulkGrantPermissionRequest();
+        request.setDocumentIds(List.of(1L, 2L));
+        request.setUsernames(List.of("user2"));
+        request.setPermissions(List.of(PermissionType.READ));
+
+        assertThrows(AccessDeniedException.class, () -> documentService.grantPermissions("user1", request));
+
+        request.setDocumentIds(List.of(1L, 3L));
+        assertThrows(ResourceNotFoundException.class, () -> documentService.grantPermissions("user1", request));
+        verifyNoInteractions(documentPermissionRepo);
     }
 
     @Test
     void testBatchAccessCheck_admin_returnsAll() {
         List<Long> ids = List.of(1L, 2L, 3L);
+        ids.forEach(id -> {
+            Document doc = new Document();
+            doc.setId(id);
+            permissionIndex.addDocument(doc);
+        });
+
         List<Long> result = documentService.batchAccessCheck(ADMIN, PermissionType.READ, ids);
         assertEquals(ids, result);
     }
@@ -143,13 +814,185 @@ public class DocumentServiceTest {
     void testBatchAccessCheck_user_returnsFiltered() {
         Document d1 = new Document();
         d1.setId(1L);
+        Document d2 = new Document();
+        d2.setId(2L);
         Document d3 = new Document();
         d3.setId(3L);
+        List.of(d1, d2, d3).forEach(permissionIndex::addDocument);
 
-        when(documentRepo.findByUsernameAndPermission("user1", PermissionType.READ))
-                .thenReturn(List.of(d1, d3));
+        permissionIndex.grant(1L, "user1", PermissionType.READ);
+        permissionIndex.grant(2L, "user1", PermissionType.WRITE);
+        permissionIndex.grant(3L, "user1", PermissionType.READ);
 
-        List<Long> result = documentService.batchAccessCheck("user1", PermissionType.READ, List.of(1L, 2L, 3L));
+        List<Long> result = documentService.batchAccessCheck("user1", PermissionType.READ, List.of(3L, 2L, 1L, 4L, 3L));
         assertEquals(List.of(1L, 3L), result);
+        verifyNoInteractions(documentRepo);
+    }
+
+    @Test
+    void testBatchAccessCheck_indexDisabled_queriesIdsInChunks() {
+        PermissionIndex disabledIndex = new PermissionIndex(documentRepo, shardRouter, false);
+        DocumentService service = new DocumentService(documentRepo, documentContentRepo, documentPermissionRepo, disabledIndex,
+                documentCache, decisionCache, auditLog, accessCheckBatcher, contentStore, readYourWrites, shardRouter, entityManager);
+
+        List<Long> ids = new ArrayList<>();
+        for (long id = 2500; id >= 1; id--) {
+            ids.add(id);
+        }
+
+        when(documentRepo.findAccessibleIds(eq("user1"), eq(PermissionType.READ), anyList()))
+                .thenAnswer(i -> i.<List<Long>>getArgument(2).stream().filter(id -> id % 1000 == 0).toList());
+
+        List<Long> result = service.batchAccessCheck("user1", PermissionType.READ, ids);
+
+        assertEquals(List.of(1000L, 2000L), result);
+        verify(documentRepo, times(3)).findAccessibleIds(eq("user1"), eq(PermissionType.READ), anyList());
+    }
+
+    @Test
+    void testBatchAccessCheck_indexDisabled_concurrentChecksShareOneQuery() throws Exception {
+        AccessCheckBatcher batcher = new AccessCheckBatcher(documentRepo, true, Duration.ofSeconds(10), 3, meterRegistry);
+        DocumentService service = new DocumentService(documentRepo, documentContentRepo, documentPermissionRepo,
+                new PermissionIndex(documentRepo, shardRouter, false), documentCache, decisionCache, auditLog, batcher,
+                contentStore, readYourWrites, shardRouter, entityManager);
+
+        List<DocumentPermissionView> rows = List.of(
+                permissionRow(1L, "user1"), permissionRow(3L, "user1"), permissionRow(2L, "user2"));
+        when(documentRepo.findPermissions(anyList(), eq(PermissionType.READ), anyList())).thenReturn(rows);
+
+        // the third check fills the batch, none of them waits for the window
+        CompletableFuture<List<Long>> first = CompletableFuture.supplyAsync(() ->
+                service.batchAccessCheck("user1", PermissionType.READ, List.of(2L, 1L)));
+        CompletableFuture<List<Long>> second = CompletableFuture.supplyAsync(() ->
+                service.batchAccessCheck("user2", PermissionType.READ, List.of(2L, 3L)));
+        List<Long> third = service.batchAccessCheck("user1", PermissionType.READ, List.of(3L, 3L));
+
+        assertEquals(List.of(1L), first.get(10, TimeUnit.SECONDS));
+        assertEquals(List.of(2L), second.get(10, TimeUnit.SECONDS));
+        assertEquals(List.of(3L), third);
+        verify(documentRepo, times(1)).findPermissions(
+                argThat(usernames -> new HashSet<>(usernames).equals(Set.of("user1", "user2"))),
+                eq(PermissionType.READ), eq(List.of(1L, 2L, 3L)));
+        verify(documentRepo, never()).findAccessibleIds(any(), any(), anyList());
+        assertEquals(3.0, meterRegistry.get("access.check.batch.size").summary().totalAmount());
+    }
+
+    private static DocumentPermissionView permissionRow(final Long documentId, final String username) {
+        return permissionRow(documentId, username, PermissionType.READ);
+    }
+
+    private static DocumentPermissionView permissionRow(final Long documentId, final String username,
+                                                        final PermissionType permissionType) {
+        return new DocumentPermissionView() {
+            @Override
+            public Long getDocumentId() {
+                return documentId;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public PermissionType getPermissionType() {
+                return permissionType;
+            }
+        };
+    }
+
+    @Test
+    void testGetDocument_indexDisabled_checksPermissionInDatabase() {
+        DocumentService service = indexDisabledService();
+
+        when(documentRepo.existsById(1L)).thenReturn(true);
+        when(documentRepo.hasPermission(1L, "user1", PermissionType.READ)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> service.getDocument(1L, "user1"));
+        verify(documentRepo, never()).findWithAccessibleUsersById(any());
+    }
+
+    @Test
+    void testGetDocument_indexDisabled_repeatedProbesAreAnsweredFromDecisionCache() {
+        DocumentService service = indexDisabledService();
+
+        when(documentRepo.existsById(1L)).thenReturn(true);
+        when(documentRepo.existsById(2L)).thenReturn(false);
+        when(documentRepo.hasPermission(1L, "user1", PermissionType.READ)).thenReturn(false);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(AccessDeniedException.class, () -> service.getDocument(1L, "user1"));
+            assertThrows(ResourceNotFoundException.class, () -> service.getDocument(2L, "user1"));
+        }
+
+        verify(documentRepo, times(1)).existsById(1L);
+        verify(documentRepo, times(1)).existsById(2L);
+        verify(documentRepo, times(1)).hasPermission(1L, "user1", PermissionType.READ);
+    }
+
+    @Test
+    void testGrantPermission_indexDisabled_evictsCachedDenial() {
+        DocumentService service = indexDisabledService();
+
+        Document doc = new Document();
+        doc.setId(1L);
+
+        when(documentRepo.existsById(1L)).thenReturn(true);
+        when(documentRepo.hasPermission(1L, "user1", PermissionType.READ)).thenReturn(false, true);
+        when(documentRepo.findWithAccessibleUsersById(1L)).thenReturn(Optional.of(doc));
+
+        assertThrows(AccessDeniedException.class, () -> service.getDocument(1L, "user1"));
+
+        DocumentPermissionModel permissionModel = new DocumentPermissionModel();
+        permissionModel.setUsername("user1");
+        permissionModel.setPermission(PermissionType.READ);
+        when(documentRepo.lockActive(List.of(1L))).thenReturn(List.of(1L));
+        service.grantPermission(1L, ADMIN, permissionModel);
+
+        assertEquals(1L, service.getDocument(1L, "user1").getId());
+    }
+
+    @Test
+    void testGetDocument_indexDisabled_changeThroughAnotherInstanceIsSeen() {
+        DocumentService service = indexDisabledService();
+
+        Document doc = new Document();
+        doc.setId(1L);
+        doc.setVersion(2L);
+        Document changed = new Document();
+        changed.setId(1L);
+        changed.setVersion(3L);
+
+        // another instance grants READ, then changes the document, without evicting the caches of this one
+        when(documentRepo.findVersionById(1L)).thenReturn(Optional.of(1L), Optional.of(2L), Optional.of(2L),
+                Optional.of(3L));
+        when(documentRepo.existsById(1L)).thenReturn(true);
+        when(documentRepo.hasPermission(1L, "user1", PermissionType.READ)).thenReturn(false, true);
+        when(documentRepo.findWithAccessibleUsersById(1L)).thenReturn(Optional.of(doc), Optional.of(changed));
+
+        assertThrows(AccessDeniedException.class, () -> service.getDocument(1L, "user1"));
+        assertEquals(2L, service.getDocument(1L, "user1").getVersion());
+        assertEquals(2L, service.getDocument(1L, "user1").getVersion());
+        assertEquals(3L, service.getDocument(1L, "user1").getVersion());
+
+        // every change of the version decides again, the unchanged document is served from the cache
+        verify(documentRepo, times(3)).hasPermission(1L, "user1", PermissionType.READ);
+        verify(documentRepo, times(2)).findWithAccessibleUsersById(1L);
+    }
+
+    private static DocumentContentView contentView(final FileType fileType, final String path, final Long length) {
+        DocumentContentView view = mock(DocumentContentView.class);
+        when(view.getFileType()).thenReturn(fileType);
+        when(view.getContentPath()).thenReturn(path);
+        when(view.getContentLength()).thenReturn(length);
+        when(view.getContentEncoding()).thenReturn(fileType == null ? null : fileType.getStorageEncoding());
+        when(view.getVersion()).thenReturn(3L);
+        return view;
+    }
+
+    private DocumentService indexDisabledService() {
+        return new DocumentService(documentRepo, documentContentRepo, documentPermissionRepo,
+                new PermissionIndex(documentRepo, shardRouter, false), documentCache, decisionCache, auditLog,
+                accessCheckBatcher, contentStore, readYourWrites, shardRouter, entityManager);
     }
 }
\ No newline at end of file
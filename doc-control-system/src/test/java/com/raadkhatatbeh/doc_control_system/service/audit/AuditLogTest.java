@@ -0,0 +1,163 @@
+package com.raadkhatatbeh.doc_control_system.service.audit;
+
+import com.raadkhatatbeh.doc_control_system.model.PermissionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AuditLogTest.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+class AuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<AuditLog> logs = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AuditLog log : logs) {
+            log.close();
+        }
+    }
+
+    @Test
+    void testAppend_readBackInOrder() throws IOException {
+        AuditLog log = open(DataSize.ofMegabytes(1));
+
+        log.append(AuditRecord.created("admin", 1L));
+        log.appendAll(List.of(AuditRecord.granted("admin", 1L, "user1", PermissionType.READ),
+                AuditRecord.granted("admin", 1L, "użytkownik", PermissionType.WRITE)));
+        log.sync();
+
+        List<AuditRecord> records = readAll();
+        assertEquals(List.of(1L, 2L, 3L), records.stream().map(AuditRecord::sequence).toList());
+        assertEquals(AuditAction.DOCUMENT_CREATED, records.get(0).action());
+        assertNull(records.get(0).username());
+        assertNull(records.get(0).permission());
+        assertEquals("użytkownik", records.get(2).username());
+        assertEquals(PermissionType.WRITE, records.get(2).permission());
+    }
+
+    @Test
+    void testAppend_rollsSegments_readFromSequence() throws IOException {
+        AuditLog log = open(DataSize.ofKilobytes(4));
+
+        for (long id = 1; id <= 500; id++) {
+            log.append(AuditRecord.granted("admin", id, "user1", PermissionType.READ));
+        }
+        log.sync();
+
+        assertTrue(AuditSegment.list(directory).size() > 1);
+        assertEquals(500, readAll().size());
+
+        List<Long> tail = new ArrayList<>();
+        log.reader().read(450L, record -> tail.add(record.documentId()));
+        assertEquals(51, tail.size());
+        assertEquals(450L, tail.get(0));
+    }
+
+    @Test
+    void testRestart_continuesSequenceInNewSegment() throws Exception {
+        AuditLog first = open(DataSize.ofMegabytes(1));
+        first.append(AuditRecord.created("admin", 1L));
+        first.sync();
+        first.close();
+        logs.remove(first);
+
+        AuditLog second = open(DataSize.ofMegabytes(1));
+        second.append(AuditRecord.deleted("admin", 1L));
+        second.sync();
+
+        assertEquals(List.of(1L, 2L), readAll().stream().map(AuditRecord::sequence).toList());
+        assertEquals(2, AuditSegment.list(directory).size());
+    }
+
+    @Test
+    void testTornRecord_endsSegment() throws Exception {
+        AuditLog log = open(DataSize.ofMegabytes(1));
+        log.append(AuditRecord.created("admin", 1L));
+        log.append(AuditRecord.created("admin", 2L));
+        log.sync();
+        log.close();
+        logs.remove(log);
+
+        // corrupt one byte of the second record's body
+        int offset = AuditCodec.size(AuditRecord.created("admin", 1L)) + AuditCodec.HEADER_SIZE;
+        try (FileChannel channel = FileChannel.open(AuditSegment.list(directory).get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), offset);
+        }
+
+        assertEquals(List.of(1L), readAll().stream().map(AuditRecord::documentId).toList());
+        assertEquals(1L, new AuditLogReader(directory).lastSequence());
+    }
+
+    @Test
+    void testSecondWriter_rejected() throws IOException {
+        open(DataSize.ofMegabytes(1));
+        assertThrows(IllegalStateException.class, () -> open(DataSize.ofMegabytes(1)));
+    }
+
+    @Test
+    void testDisabled_writesNothing() throws IOException {
+        AuditLog log = new AuditLog(false, directory, DataSize.ofMegabytes(1), 16);
+        log.start();
+        log.append(AuditRecord.created("admin", 1L));
+        log.sync();
+
+        assertTrue(AuditSegment.list(directory).isEmpty());
+    }
+
+    @Test
+    void testReplay_rebuildsAclsAtPointInTime() throws IOException {
+        AuditLog log = open(DataSize.ofMegabytes(1));
+        log.appendAll(List.of(
+                new AuditRecord(0L, 1000L, AuditAction.DOCUMENT_CREATED, "admin", 1L, null, null),
+                new AuditRecord(0L, 1000L, AuditAction.PERMISSION_GRANTED, "admin", 1L, "user1", PermissionType.READ),
+                new AuditRecord(0L, 2000L, AuditAction.PERMISSION_GRANTED, "admin", 1L, "user1", PermissionType.WRITE),
+                new AuditRecord(0L, 2000L, AuditAction.PERMISSION_GRANTED, "admin", 2L, "user2", PermissionType.READ),
+                new AuditRecord(0L, 3000L, AuditAction.DOCUMENT_DELETED, "admin", 1L, null, null)));
+        log.sync();
+
+        Map<Long, Map<String, Set<PermissionType>>> before = AuditReplay.replay(log.reader(), Instant.ofEpochMilli(1500L));
+        assertEquals(Map.of(1L, Map.of("user1", Set.of(PermissionType.READ))), before);
+
+        Map<Long, Map<String, Set<PermissionType>>> middle = AuditReplay.replay(log.reader(), Instant.ofEpochMilli(2500L));
+        assertEquals(Set.of(PermissionType.READ, PermissionType.WRITE), middle.get(1L).get("user1"));
+        assertEquals(Set.of(PermissionType.READ), middle.get(2L).get("user2"));
+
+        Map<Long, Map<String, Set<PermissionType>>> after = AuditReplay.replay(log.reader(), Instant.ofEpochMilli(3000L));
+        assertEquals(Set.of(2L), after.keySet());
+    }
+
+    private AuditLog open(final DataSize segmentSize) throws IOException {
+
+        AuditLog log = new AuditLog(true, directory, segmentSize, 1024);
+        log.start();
+        logs.add(log);
+        return log;
+    }
+
+    private List<AuditRecord> readAll() {
+
+        List<AuditRecord> records = new ArrayList<>();
+        new AuditLogReader(directory).read(0L, records::add);
+        return records;
+    }
+}
@@ -0,0 +1,193 @@
+package com.raadkhatatbeh.doc_control_system.service.content;
+
+import com.raadkhatatbeh.doc_control_system.exception.BadRequestException;
+import com.raadkhatatbeh.doc_control_system.exception.ConflictException;
+import com.raadkhatatbeh.doc_control_system.exception.ResourceNotFoundException;
+import com.raadkhatatbeh.doc_control_system.model.ContentEncoding;
+import com.raadkhatatbeh.doc_control_system.model.FileType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ContentStoreTest.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+class ContentStoreTest {
+
+    private static final Duration EXPIRY = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWrite_storesBodyInShardOfDocument() throws IOException {
+        ContentStore store = new ContentStore(directory, DataSize.ofKilobytes(1), EXPIRY);
+        byte[] body = "a,b,c\n1,2,3\n".getBytes();
+
+        StoredContent stored = store.write(12345L, null, new ByteArrayInputStream(body));
+
+        assertTrue(stored.path().startsWith("345/12345-"));
+        assertEquals(body.length, stored.length());
+        assertArrayEquals(body, Files.readAllBytes(store.resolve(stored.path())));
+    }
+
+    @Test
+    void testWrite_eachUploadGetsItsOwnFile() {
+        ContentStore store = new ContentStore(directory, DataSize.ofKilobytes(1), EXPIRY);
+
+        StoredContent first = store.write(1L, null, new ByteArrayInputStream(new byte[]{1}));
+        StoredContent second = store.write(1L, null, new ByteArrayInputStream(new byte[]{2}));
+
+        assertNotEquals(first.path(), second.path());
+        assertTrue(Files.exists(store.resolve(first.path())));
+    }
+
+    @Test
+    void testWrite_tooLarge_rejectedWithoutLeavingFile() throws IOException {
+        ContentStore store = new ContentStore(directory, DataSize.ofBytes(10), EXPIRY);
+
+        assertThrows(BadRequestException.class, () -> store.write(1L, null, new ByteArrayInputStream(new byte[11])));
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertTrue(files.allMatch(Files::isDirectory));
+        }
+    }
+
+    @Test
+    void testWrite_exactlyMaxSize_accepted() {
+        ContentStore store = new ContentStore(directory, DataSize.ofBytes(10), EXPIRY);
+
+        assertEquals(10, store.write(1L, null, new ByteArrayInputStream(new byte[10])).length());
+    }
+
+    @Test
+    void testUpload_assembledFromChunksAndResumable() throws IOException {
+        ContentStore store = new ContentStore(directory, DataSize.ofKilobytes(1), EXPIRY);
+        String uploadId = store.startUpload(7L);
+
+        assertEquals(3, store.appendUpload(7L, uploadId, 0, new ByteArrayInputStream(new byte[]{1, 2, 3})));
+        // a retried chunk at a stale offset is rejected, the client resumes from the stored offset
+        assertThrows(ConflictException.class, () ->
+                store.appendUpload(7L, uploadId, 0, new ByteArrayInputStream(new byte[]{1, 2, 3})));
+        assertEquals(3, store.uploadOffset(7L, uploadId));
+        assertEquals(5, store.appendUpload(7L, uploadId, 3, new ByteArrayInputStream(new byte[]{4, 5})));
+
+        StoredContent stored = store.completeUpload(7L, uploadId, null);
+
+        assertEquals(5, stored.length());
+        assertTrue(stored.path().startsWith("007/7-"));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, Files.readAllBytes(store.resolve(stored.path())));
+        assertThrows(ResourceNotFoundException.class, () -> store.uploadOffset(7L, uploadId));
+    }
+
+    @Test
+    void testWrite_textTypeIsCompressedAndDecodesToBody() throws IOException {
+        ContentStore store = new ContentStore(directory, DataSize.ofKilobytes(64), EXPIRY);
+        byte[] body = "id,name,value\n1,alpha,10\n".repeat(500).getBytes();
+
+        StoredContent stored = store.write(1L, FileType.CSV, new ByteArrayInputStream(body));
+
+        assertEquals(ContentEncoding.GZIP, stored.encoding());
+        assertEquals(body.length, stored.length());
+        assertTrue(Files.size(store.resolve(stored.path())) < body.length / 10);
+        try (InputStream in = ContentEncoding.GZIP.decode(Files.newInputStream(store.resolve(stored.path())))) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void testWrite_compressedTypeIsStoredAsIs() throws IOException {
+        ContentStore store = new ContentStore(directory, DataSize.ofKilobytes(1), EXPIRY);
+        byte[] body = {'%', 'P', 'D', 'F'};
+
+        StoredContent stored = store.write(1L, FileType.PDF, new ByteArrayInputStream(body));
+
+        assertEquals(ContentEncoding.IDENTITY, stored.encoding());
+        assertArrayEquals(body, Files.readAllBytes(store.resolve(stored.path())));
+    }
+
+    @Test
+    void testWrite_compressedTooLarge_limitAppliesToBody() {
+        ContentStore store = new ContentStore(directory, DataSize.ofBytes(100), EXPIRY);
+
+        // compresses to a few bytes, but the body itself is over the limit
+        assertThrows(BadRequestException.class, () ->
+                store.write(1L, FileType.XML, new ByteArrayInputStream(new byte[101])));
+    }
+
+    @Test
+    void testUpload_completedTextTypeIsCompressed() throws IOException {
+        ContentStore store = new ContentStore(directory, DataSize.ofKilobytes(64), EXPIRY);
+        byte[] body = "<row/>".repeat(1000).getBytes();
+        String uploadId = store.startUpload(1L);
+        store.appendUpload(1L, uploadId, 0, new ByteArrayInputStream(body));
+
+        StoredContent stored = store.completeUpload(1L, uploadId, FileType.XML);
+
+        assertEquals(ContentEncoding.GZIP, stored.encoding());
+        assertEquals(body.length, stored.length());
+        try (InputStream in = ContentEncoding.GZIP.decode(Files.newInputStream(store.resolve(stored.path())))) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+        assertThrows(ResourceNotFoundException.class, () -> store.uploadOffset(1L, uploadId));
+    }
+
+    @Test
+    void testUpload_tooLarge_keepsPreviousOffset() {
+        ContentStore store = new ContentStore(directory, DataSize.ofBytes(10), EXPIRY);
+        String uploadId = store.startUpload(1L);
+        store.appendUpload(1L, uploadId, 0, new ByteArrayInputStream(new byte[6]));
+
+        assertThrows(BadRequestException.class, () ->
+                store.appendUpload(1L, uploadId, 6, new ByteArrayInputStream(new byte[6])));
+        assertEquals(6, store.uploadOffset(1L, uploadId));
+    }
+
+    @Test
+    void testUpload_otherDocumentOrInvalidId_rejected() {
+        ContentStore store = new ContentStore(directory, DataSize.ofKilobytes(1), EXPIRY);
+        String uploadId = store.startUpload(1L);
+
+        assertThrows(ResourceNotFoundException.class, () -> store.uploadOffset(2L, uploadId));
+        assertThrows(BadRequestException.class, () -> store.uploadOffset(1L, "../../001/1-a"));
+    }
+
+    @Test
+    void testDeleteExpiredUploads_removesOnlyStaleUploads() throws IOException {
+        ContentStore store = new ContentStore(directory, DataSize.ofKilobytes(1), EXPIRY);
+        String stale = store.startUpload(1L);
+        String fresh = store.startUpload(1L);
+        try (Stream<Path> files = Files.list(directory.resolve("uploads"))) {
+            Path staleFile = files.filter(file -> file.getFileName().toString().contains(stale)).findFirst().orElseThrow();
+            Files.setLastModifiedTime(staleFile, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        }
+
+        assertEquals(1, store.deleteExpiredUploads());
+        assertThrows(ResourceNotFoundException.class, () -> store.uploadOffset(1L, stale));
+        assertEquals(0, store.uploadOffset(1L, fresh));
+    }
+
+    @Test
+    void testDelete_removesFile() {
+        ContentStore store = new ContentStore(directory, DataSize.ofKilobytes(1), EXPIRY);
+        StoredContent stored = store.write(1L, null, new ByteArrayInputStream(new byte[]{1}));
+
+        store.delete(stored.path());
+        store.delete(stored.path());
+
+        assertFalse(Files.exists(store.resolve(stored.path())));
+    }
+}
@@ -0,0 +1,89 @@
+package com.raadkhatatbeh.doc_control_system.service.purge;
+
+import com.raadkhatatbeh.doc_control_system.service.DocumentService;
+import com.raadkhatatbeh.doc_control_system.service.shard.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * DocumentPurgerTest.
+ *
+ * @author Raad khatatbeh
+ * @since 18/10/2026
+ */
+class DocumentPurgerTest {
+
+    private static final Duration RETENTION = Duration.ofHours(1);
+
+    private final DocumentService documentService = mock(DocumentService.class);
+
+    private final ShardRouter shardRouter = shardRouter(1);
+
+    @Test
+    void testPurge_stopsAtFirstPartialBatch() {
+        when(documentService.purgeDeleted(any(), eq(100))).thenReturn(100, 100, 30);
+
+        assertEquals(230, new DocumentPurger(documentService, shardRouter, RETENTION, 100, 1_000_000).purge());
+        verify(documentService, times(3)).purgeDeleted(any(), eq(100));
+    }
+
+    @Test
+    void testPurge_nothingDeleted_singleCall() {
+        when(documentService.purgeDeleted(any(), eq(100))).thenReturn(0);
+
+        assertEquals(0, new DocumentPurger(documentService, shardRouter, RETENTION, 100, 1_000_000).purge());
+        verify(documentService, times(1)).purgeDeleted(any(), eq(100));
+    }
+
+    @Test
+    void testPurge_keepsTombstonesForRetention() {
+        when(documentService.purgeDeleted(any(), eq(100))).thenReturn(0);
+
+        new DocumentPurger(documentService, shardRouter, RETENTION, 100, 1000).purge();
+        verify(documentService).purgeDeleted(argThat(before ->
+                before.isBefore(LocalDateTime.now().minus(RETENTION).plusMinutes(1))), eq(100));
+    }
+
+    @Test
+    void testPurge_respectsRate() {
+        when(documentService.purgeDeleted(any(), eq(100))).thenReturn(100, 100, 0);
+
+        long start = System.nanoTime();
+        new DocumentPurger(documentService, shardRouter, RETENTION, 100, 1000).purge();
+
+        // 200 rows at 1000 rows per second
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void testPurge_shards_eachPurgedUntilEmpty() {
+        List<Integer> shards = new ArrayList<>();
+        when(documentService.purgeDeleted(any(), eq(100))).thenAnswer(i -> {
+            shards.add(ShardRouter.currentShard());
+            return shards.size() == 1 ? 100 : 40;
+        });
+
+        assertEquals(220, new DocumentPurger(documentService, shardRouter(3), RETENTION, 100, 1_000_000).purge());
+        assertEquals(List.of(0, 0, 1, 2), shards);
+        assertEquals(0, ShardRouter.currentShard());
+    }
+
+    @Test
+    void testConstructor_invalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new DocumentPurger(documentService, shardRouter, RETENTION, 0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new DocumentPurger(documentService, shardRouter, RETENTION, 100, 0));
+    }
+
+    private static ShardRouter shardRouter(final int count) {
+        return new ShardRouter(count, new SimpleAsyncTaskExecutor(), mock(PlatformTransactionManager.class));
+    }
+}